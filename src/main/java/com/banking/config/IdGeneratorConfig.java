@@ -0,0 +1,33 @@
+package com.banking.config;
+
+import com.banking.id.IdGenerator;
+import com.banking.id.IdGenerators;
+import com.banking.id.SnowflakeIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class IdGeneratorConfig {
+
+    /**
+     * Each running instance needs its own node id (0-1023) so ids never collide across nodes.
+     */
+    @Value("${app.id.node-id:0}")
+    private long nodeId;
+
+    @Value("${app.id.max-borrow-ms:" + SnowflakeIdGenerator.DEFAULT_MAX_BORROW_MILLIS + "}")
+    private long maxBorrowMillis;
+
+    @Bean
+    public IdGenerator idGenerator() throws InterruptedException {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(nodeId, maxBorrowMillis, System::currentTimeMillis);
+        // A previous process with this node id may have issued ids up to maxBorrowMillis ahead
+        generator.awaitPastPreviousRun();
+        IdGenerators.install(generator);
+        log.info("Using Snowflake id generator with node id {}", nodeId);
+        return generator;
+    }
+}
@@ -0,0 +1,40 @@
+package com.banking.config;
+
+import com.banking.model.Account;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rolling-window limits on money leaving an account, per account type. Nothing is enforced
+ * unless enabled, and an account type without an entry is unrestricted.
+ *
+ * @param buckets          slots each window is divided into; a window's edge is accurate to window / buckets
+ * @param maxAccounts      accounts whose counters are kept in memory at once
+ * @param resyncInterval   how long counters live before being rebuilt from the database, which also
+ *                         folds in debits made through other instances
+ */
+@ConfigurationProperties(prefix = "app.velocity-limits")
+public record VelocityLimitProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("60") int buckets,
+    @DefaultValue("100000") int maxAccounts,
+    @DefaultValue("10m") Duration resyncInterval,
+    Map<Account.AccountType, List<Limit>> limits
+) {
+
+    public VelocityLimitProperties {
+        limits = limits == null ? Map.of() : limits;
+    }
+
+    /**
+     * @param maxCount  most debits within the window; 0 for no count limit
+     * @param maxAmount largest debited total within the window; null for no amount limit
+     */
+    public record Limit(Duration window, int maxCount, BigDecimal maxAmount) {
+    }
+}
@@ -1,22 +1,32 @@
 package com.banking.controller;
 
+import com.banking.dto.CursorPage;
 import com.banking.dto.account.AccountRequest;
 import com.banking.dto.account.AccountResponse;
+import com.banking.dto.account.BalanceInterval;
+import com.banking.dto.account.BalancePoint;
 import com.banking.dto.transaction.TransactionResponse;
+import com.banking.security.CurrentUser;
 import com.banking.service.AccountService;
+import com.banking.service.BalanceHistoryService;
+import com.banking.service.StatementExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -30,6 +40,8 @@ import java.util.List;
 public class AccountController {
 
     private final AccountService accountService;
+    private final StatementExportService statementExportService;
+    private final BalanceHistoryService balanceHistoryService;
 
     @PostMapping
     @Operation(summary = "Create a new bank account")
@@ -82,9 +94,48 @@ public class AccountController {
         return ResponseEntity.ok(accountService.getAccountTransactions(id, userId, pageable));
     }
 
+    @GetMapping("/{id}/transactions/cursor")
+    @Operation(summary = "Get account transactions, paged by cursor")
+    public ResponseEntity<CursorPage<TransactionResponse>> getAccountTransactionsByCursor(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        Long userId = getCurrentUserId();
+        
+        if (!accountService.isAccountOwner(id, userId)) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        return ResponseEntity.ok(accountService.getAccountTransactions(id, userId, cursor, size, includeTotal));
+    }
+
+    @GetMapping("/{id}/statement")
+    @Operation(summary = "Export an account statement as CSV or NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportStatement(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        Long userId = getCurrentUserId();
+        
+        if (!accountService.isAccountOwner(id, userId)) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        StatementExportService.Format statementFormat = StatementExportService.Format.of(format);
+        String filename = "statement-" + id + "-" + from + "-" + to + "." + statementFormat.extension();
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(statementFormat.contentType() + ";charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .body(statementExportService.export(id, from, to, statementFormat));
+    }
+
     @GetMapping("/{id}/balance")
-    @Operation(summary = "Get account balance")
-    public ResponseEntity<BigDecimal> getAccountBalance(@PathVariable Long id) {
+    @Operation(summary = "Get account balance, optionally as of a past moment")
+    public ResponseEntity<BigDecimal> getAccountBalance(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
         Long userId = getCurrentUserId();
         
         // Verify the account belongs to the user
@@ -92,9 +143,28 @@ public class AccountController {
             return ResponseEntity.notFound().build();
         }
         
+        if (at != null) {
+            return ResponseEntity.ok(balanceHistoryService.getBalanceAt(id, at));
+        }
         return ResponseEntity.ok(accountService.getAccountBalance(id));
     }
 
+    @GetMapping("/{id}/balance-history")
+    @Operation(summary = "Get closing balances per day, week or month")
+    public ResponseEntity<List<BalancePoint>> getBalanceHistory(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") BalanceInterval interval) {
+        Long userId = getCurrentUserId();
+        
+        if (!accountService.isAccountOwner(id, userId)) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        return ResponseEntity.ok(balanceHistoryService.getBalanceHistory(id, from, to, interval));
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Close an account")
     public ResponseEntity<Void> closeAccount(@PathVariable Long id) {
@@ -104,7 +174,6 @@ public class AccountController {
     }
     
     private Long getCurrentUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return Long.parseLong(authentication.getName());
+        return CurrentUser.id();
     }
 }
@@ -1,7 +1,12 @@
 package com.banking.controller;
 
+import com.banking.dto.CursorPage;
+import com.banking.dto.transaction.BatchTransactionRequest;
+import com.banking.dto.transaction.BatchTransactionResponse;
 import com.banking.dto.transaction.TransactionRequest;
 import com.banking.dto.transaction.TransactionResponse;
+import com.banking.security.CurrentUser;
+import com.banking.service.IdempotencyService;
 import com.banking.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -12,8 +17,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
@@ -25,25 +28,40 @@ import java.net.URI;
 @SecurityRequirement(name = "bearerAuth")
 public class TransactionController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
     @Operation(summary = "Process a new transaction")
     public ResponseEntity<TransactionResponse> processTransaction(
-            @Valid @RequestBody TransactionRequest request) {
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         Long userId = getCurrentUserId();
-        TransactionResponse response = transactionService.processTransaction(request, userId);
+        TransactionResponse response = idempotencyService.execute(idempotencyKey, userId, "transaction", request,
+            () -> transactionService.processTransaction(request, userId));
         
         URI location = URI.create("/api/v1/transactions/" + response.transactionReference());
         return ResponseEntity.created(location).body(response);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Process a batch of deposits, withdrawals and transfers")
+    public ResponseEntity<BatchTransactionResponse> processBatch(
+            @Valid @RequestBody BatchTransactionRequest request) {
+        Long userId = getCurrentUserId();
+        return ResponseEntity.ok(transactionService.processBatch(request.items(), userId));
+    }
+
     @PostMapping("/deposit")
     @Operation(summary = "Process a deposit transaction")
     public ResponseEntity<TransactionResponse> deposit(
-            @Valid @RequestBody TransactionRequest request) {
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         Long userId = getCurrentUserId();
-        TransactionResponse response = transactionService.processDeposit(request, userId);
+        TransactionResponse response = idempotencyService.execute(idempotencyKey, userId, "deposit", request,
+            () -> transactionService.processDeposit(request, userId));
         
         URI location = URI.create("/api/v1/transactions/" + response.transactionReference());
         return ResponseEntity.created(location).body(response);
@@ -52,9 +70,11 @@ public class TransactionController {
     @PostMapping("/withdraw")
     @Operation(summary = "Process a withdrawal transaction")
     public ResponseEntity<TransactionResponse> withdraw(
-            @Valid @RequestBody TransactionRequest request) {
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         Long userId = getCurrentUserId();
-        TransactionResponse response = transactionService.processWithdrawal(request, userId);
+        TransactionResponse response = idempotencyService.execute(idempotencyKey, userId, "withdraw", request,
+            () -> transactionService.processWithdrawal(request, userId));
         
         URI location = URI.create("/api/v1/transactions/" + response.transactionReference());
         return ResponseEntity.created(location).body(response);
@@ -63,9 +83,11 @@ public class TransactionController {
     @PostMapping("/transfer")
     @Operation(summary = "Process a transfer between accounts")
     public ResponseEntity<TransactionResponse> transfer(
-            @Valid @RequestBody TransactionRequest request) {
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         Long userId = getCurrentUserId();
-        TransactionResponse response = transactionService.processTransfer(request, userId);
+        TransactionResponse response = idempotencyService.execute(idempotencyKey, userId, "transfer", request,
+            () -> transactionService.processTransfer(request, userId));
         
         URI location = URI.create("/api/v1/transactions/" + response.transactionReference());
         return ResponseEntity.created(location).body(response);
@@ -94,9 +116,28 @@ public class TransactionController {
         Long userId = getCurrentUserId();
         return ResponseEntity.ok(transactionService.getAccountTransactions(accountId, userId, pageable));
     }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "Get transactions for the current user, paged by cursor")
+    public ResponseEntity<CursorPage<TransactionResponse>> getUserTransactionsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        Long userId = getCurrentUserId();
+        return ResponseEntity.ok(transactionService.getUserTransactions(userId, cursor, size));
+    }
+
+    @GetMapping("/account/{accountId}/cursor")
+    @Operation(summary = "Get transactions for a specific account, paged by cursor")
+    public ResponseEntity<CursorPage<TransactionResponse>> getAccountTransactionsByCursor(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        Long userId = getCurrentUserId();
+        return ResponseEntity.ok(transactionService.getAccountTransactions(accountId, userId, cursor, size, includeTotal));
+    }
     
     private Long getCurrentUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return Long.parseLong(authentication.getName());
+        return CurrentUser.id();
     }
 }
@@ -0,0 +1,23 @@
+package com.banking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "A page of results addressed by an opaque cursor instead of a page number")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CursorPage<T>(
+    @Schema(description = "Items on this page, newest first")
+    List<T> items,
+
+    @Schema(description = "Pass as 'cursor' to fetch the next page; absent on the last page", nullable = true)
+    String nextCursor,
+
+    @Schema(description = "Whether another page follows")
+    boolean hasMore,
+
+    @Schema(description = "Total number of items, only when requested with includeTotal=true", nullable = true)
+    Long totalElements
+) {
+}
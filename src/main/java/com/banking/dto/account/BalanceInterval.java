@@ -0,0 +1,10 @@
+package com.banking.dto.account;
+
+/**
+ * Resolution of a balance history; each point is the closing balance of its interval.
+ */
+public enum BalanceInterval {
+    DAY,
+    WEEK,
+    MONTH
+}
@@ -0,0 +1,16 @@
+package com.banking.dto.account;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Schema(description = "Closing balance of an account at the end of a day")
+public record BalancePoint(
+    @Schema(description = "Last day of the interval the balance closes", example = "2023-01-31")
+    LocalDate date,
+
+    @Schema(description = "Balance at the end of that day", example = "1000.00")
+    BigDecimal balance
+) {
+}
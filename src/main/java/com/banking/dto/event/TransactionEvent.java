@@ -1,5 +1,6 @@
 package com.banking.dto.event;
 
+import com.banking.model.Transaction;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,4 +23,22 @@ public class TransactionEvent {
     private String status; // PENDING, COMPLETED, FAILED
     private String description;
     private LocalDateTime timestamp;
+
+    /**
+     * Event for a transaction that has been applied. Account numbers are taken from the
+     * transaction's accounts, so they must be set on them.
+     */
+    public static TransactionEvent completed(Transaction transaction) {
+        return TransactionEvent.builder()
+            .transactionId(String.valueOf(transaction.getId()))
+            .fromAccount(transaction.getFromAccount() != null ? transaction.getFromAccount().getAccountNumber() : null)
+            .toAccount(transaction.getToAccount() != null ? transaction.getToAccount().getAccountNumber() : null)
+            .amount(transaction.getAmount())
+            .currency(transaction.getCurrency())
+            .type(transaction.getTransactionType().name())
+            .status("COMPLETED")
+            .description("Transaction processed successfully")
+            .timestamp(transaction.getCreatedAt())
+            .build();
+    }
 }
@@ -0,0 +1,16 @@
+package com.banking.dto.transaction;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Request object for submitting many transactions in one call")
+public record BatchTransactionRequest(
+    @Schema(description = "Deposit, withdrawal or transfer items, processed in order", required = true)
+    @NotEmpty(message = "At least one transaction is required")
+    @Size(max = 5000, message = "A batch cannot contain more than 5000 transactions")
+    List<@Valid TransactionRequest> items
+) {}
@@ -0,0 +1,17 @@
+package com.banking.dto.transaction;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Per-item results of a transaction batch, in submission order")
+public record BatchTransactionResponse(
+    @Schema(description = "Number of items that were processed", example = "998")
+    int succeeded,
+    
+    @Schema(description = "Number of items that were rejected", example = "2")
+    int failed,
+    
+    @Schema(description = "Result of each item, in the order they were submitted")
+    List<BatchTransactionResult> results
+) {}
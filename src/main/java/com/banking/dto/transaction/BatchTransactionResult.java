@@ -0,0 +1,23 @@
+package com.banking.dto.transaction;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of a single item in a transaction batch")
+public record BatchTransactionResult(
+    @Schema(description = "Position of the item in the submitted batch", example = "0")
+    int index,
+    
+    @Schema(description = "The processed transaction, absent if the item was rejected", nullable = true)
+    TransactionResponse transaction,
+    
+    @Schema(description = "Reason the item was rejected", example = "Insufficient funds in account CHK0000000001", nullable = true)
+    String error
+) {
+    public static BatchTransactionResult success(int index, TransactionResponse transaction) {
+        return new BatchTransactionResult(index, transaction, null);
+    }
+
+    public static BatchTransactionResult failure(int index, String error) {
+        return new BatchTransactionResult(index, null, error);
+    }
+}
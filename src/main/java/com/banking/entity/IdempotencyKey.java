@@ -0,0 +1,45 @@
+package com.banking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyKey {
+
+    /**
+     * Client-supplied key scoped to the calling user, as {@code userId:key}.
+     */
+    @Id
+    @Column(name = "cache_key", length = 160)
+    private String cacheKey;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * Null while the request that claimed the key is still running.
+     */
+    @Column(columnDefinition = "json")
+    private String responseBody;
+
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,11 @@
+package com.banking.exception;
+
+public class IdempotencyKeyException extends RuntimeException {
+    public IdempotencyKeyException(String message) {
+        super(message);
+    }
+
+    public IdempotencyKeyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
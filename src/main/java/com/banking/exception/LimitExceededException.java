@@ -0,0 +1,11 @@
+package com.banking.exception;
+
+public class LimitExceededException extends RuntimeException {
+    public LimitExceededException(String message) {
+        super(message);
+    }
+
+    public LimitExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,25 @@
+package com.banking.id;
+
+/**
+ * Crockford base32 rendering of 64-bit ids: 13 characters, no padding, and no I, L, O or U,
+ * so references are safe to read out or type. Lexicographic order matches numeric order
+ * for non-negative ids.
+ */
+public final class Base32 {
+
+    public static final int LENGTH = 13;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private Base32() {
+    }
+
+    public static String encode(long value) {
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+}
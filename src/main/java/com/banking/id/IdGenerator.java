@@ -0,0 +1,21 @@
+package com.banking.id;
+
+/**
+ * Source of unique, roughly time-ordered 64-bit identifiers.
+ */
+public interface IdGenerator {
+
+    long nextId();
+
+    /**
+     * Reserve {@code count} ids with a single allocation, for callers that insert many rows at once.
+     */
+    long[] nextIds(int count);
+
+    /**
+     * A fresh id rendered as a fixed-width string that sorts in generation order.
+     */
+    default String nextReference() {
+        return Base32.encode(nextId());
+    }
+}
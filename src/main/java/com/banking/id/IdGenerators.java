@@ -0,0 +1,25 @@
+package com.banking.id;
+
+/**
+ * Static access to the application's {@link IdGenerator} for code that Spring does not
+ * construct, such as Hibernate identifier generators and entity callbacks.
+ */
+public final class IdGenerators {
+
+    private static volatile IdGenerator current;
+
+    private IdGenerators() {
+    }
+
+    public static void install(IdGenerator generator) {
+        current = generator;
+    }
+
+    public static IdGenerator get() {
+        IdGenerator generator = current;
+        if (generator == null) {
+            throw new IllegalStateException("No IdGenerator installed");
+        }
+        return generator;
+    }
+}
@@ -0,0 +1,117 @@
+package com.banking.id;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style generator: 41 bits of milliseconds since 2024-01-01, 10 bits of node id
+ * and a 12-bit sequence.
+ *
+ * The millisecond and sequence are packed into one counter advanced with CAS, so reserving
+ * a block of n ids costs the same as one id, and a sequence overflow simply carries into
+ * the next millisecond. The counter never moves backwards: if the wall clock steps back or
+ * a burst exhausts a millisecond, ids borrow from the future until the clock catches up,
+ * instead of repeating. Borrowing is capped at {@code maxBorrowMillis}; beyond that callers
+ * wait for the clock. The counter is not persisted, so a restarted process must call
+ * {@link #awaitPastPreviousRun()} before handing out ids, or it could repeat ids its
+ * predecessor borrowed.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    public static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    public static final long DEFAULT_MAX_BORROW_MILLIS = 1000;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long CLOCK_WAIT_NANOS = 100_000;
+
+    private final long nodeBits;
+    private final long maxBorrowMillis;
+    private final long maxBorrow;
+    private final LongSupplier clock;
+
+    // (milliseconds since epoch << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIdGenerator(long nodeId) {
+        this(nodeId, DEFAULT_MAX_BORROW_MILLIS, System::currentTimeMillis);
+    }
+
+    public SnowflakeIdGenerator(long nodeId, long maxBorrowMillis, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        if (maxBorrowMillis < 1) {
+            throw new IllegalArgumentException("Max borrow must be at least one millisecond");
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+        this.maxBorrowMillis = maxBorrowMillis;
+        this.maxBorrow = maxBorrowMillis << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    /**
+     * Block until the clock has passed every timestamp an earlier process with this node id
+     * could have issued, assuming the clock did not step back further than that across the
+     * restart. Call once, before the first id.
+     */
+    public void awaitPastPreviousRun() throws InterruptedException {
+        long until = clock.getAsLong() + maxBorrowMillis + 1;
+        for (long now = clock.getAsLong(); now < until; now = clock.getAsLong()) {
+            Thread.sleep(until - now);
+        }
+    }
+
+    @Override
+    public long nextId() {
+        return toId(reserve(1));
+    }
+
+    @Override
+    public long[] nextIds(int count) {
+        if (count <= 0) {
+            return new long[0];
+        }
+        long first = reserve(count);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = toId(first + i);
+        }
+        return ids;
+    }
+
+    /**
+     * Extract the creation time encoded in an id.
+     */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+
+    private long reserve(int count) {
+        if (count > maxBorrow) {
+            throw new IllegalArgumentException("Cannot reserve more than " + maxBorrow + " ids at once");
+        }
+        while (true) {
+            long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+            long previous = last.get();
+            long first = Math.max(previous + 1, now);
+            if (first + count - 1 - now >= maxBorrow) {
+                // Too far ahead of the clock; wait for it rather than borrow more
+                LockSupport.parkNanos(CLOCK_WAIT_NANOS);
+                continue;
+            }
+            if (last.compareAndSet(previous, first + count - 1)) {
+                return first;
+            }
+        }
+    }
+
+    private long toId(long state) {
+        long millis = state >>> SEQUENCE_BITS;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (state & SEQUENCE_MASK);
+    }
+}
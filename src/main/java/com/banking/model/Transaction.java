@@ -1,5 +1,7 @@
 package com.banking.model;
 
+import com.banking.id.IdGenerators;
+import com.banking.id.SnowflakeId;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -12,7 +14,6 @@ import org.hibernate.type.SqlTypes;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Map;
-import java.util.UUID;
 
 @Data
 @Builder
@@ -23,7 +24,7 @@ import java.util.UUID;
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(name = "transaction_reference", nullable = false, unique = true)
@@ -69,7 +70,7 @@ public class Transaction {
     @PrePersist
     protected void onCreate() {
         if (transactionReference == null) {
-            transactionReference = UUID.randomUUID().toString();
+            transactionReference = IdGenerators.get().nextReference();
         }
         if (createdAt == null) {
             createdAt = LocalDateTime.now();
@@ -77,19 +78,6 @@ public class Transaction {
         updatedAt = LocalDateTime.now();
     }
 
-    @Column(name = "is_recurring", nullable = false)
-    private boolean recurring = false;
-
-    @Enumerated(EnumType.STRING)
-    @Column(name = "frequency")
-    private Transaction.Frequency frequency;
-
-    @Column(name = "next_payment_date")
-    private LocalDateTime nextPaymentDate;
-
-    @Column(name = "last_payment_date")
-    private LocalDateTime lastPaymentDate;
-
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
@@ -109,12 +97,4 @@ public class Transaction {
         FAILED,
         CANCELLED
     }
-
-    public enum Frequency {
-        DAILY,
-        WEEKLY,
-        MONTHLY,
-        QUARTERLY,
-        YEARLY
-    }
 }
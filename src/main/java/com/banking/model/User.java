@@ -45,6 +45,12 @@ public class User implements UserDetails {
 
     private boolean enabled;
 
+    /**
+     * Incremented on role change, disablement or revocation to invalidate issued tokens.
+     */
+    @Column(name = "security_version", nullable = false)
+    private int securityVersion;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority(role.name()));
@@ -1,30 +1,73 @@
 package com.banking.repository;
 
+import com.banking.dto.account.AccountResponse;
 import com.banking.model.Account;
 import com.banking.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
     
+    /**
+     * Select list for reads that only need an {@link AccountResponse}, skipping the entity
+     * and its lazy user association.
+     */
+    String ACCOUNT_RESPONSE = "SELECT new com.banking.dto.account.AccountResponse(" +
+        "a.id, a.accountNumber, a.accountType, a.balance, a.currency, a.status, a.createdAt, a.updatedAt) " +
+        "FROM Account a ";
+    
+    @Query(ACCOUNT_RESPONSE + "WHERE a.id = :id")
+    Optional<AccountResponse> findResponseById(@Param("id") Long id);
+    
+    @Query(ACCOUNT_RESPONSE + "WHERE a.accountNumber = :accountNumber")
+    Optional<AccountResponse> findResponseByAccountNumber(@Param("accountNumber") String accountNumber);
+    
+    @Query(ACCOUNT_RESPONSE + "WHERE a.user.id = :userId ORDER BY a.id")
+    List<AccountResponse> findResponsesByUserId(@Param("userId") Long userId);
+    
     Optional<Account> findByAccountNumber(String accountNumber);
     
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
+    
+    /**
+     * Load and row-lock all accounts with the given numbers in one statement.
+     * Rows are locked in id order, the same order transfers and the ledger journal's
+     * balance updates use, so no two multi-account writers wait on each other in a cycle.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber IN :accountNumbers ORDER BY a.id")
+    List<Account> findByAccountNumberInForUpdate(@Param("accountNumbers") Collection<String> accountNumbers);
+    
     List<Account> findByUser(User user);
     
     @Modifying
     @Query("UPDATE Account a SET a.balance = a.balance + :amount WHERE a.id = :accountId")
     int updateBalance(@Param("accountId") Long accountId, @Param("amount") BigDecimal amount);
     
+    /**
+     * Apply a negative amount only if the balance stays non-negative, so the funds check and
+     * the debit are one atomic statement. Returns 0 if the account is missing or short of funds.
+     */
+    @Modifying
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount WHERE a.id = :accountId AND a.balance + :amount >= 0")
+    int applyDebit(@Param("accountId") Long accountId, @Param("amount") BigDecimal amount);
+    
     List<Account> findByUserId(Long userId);
     
+    @Query("SELECT a.id FROM Account a WHERE a.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+    
     boolean existsByAccountNumber(String accountNumber);
     
     @Query("SELECT a FROM Account a WHERE a.user.id = :userId AND a.status = 'ACTIVE'")
@@ -0,0 +1,140 @@
+package com.banking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to account_balance_snapshots and the balance deltas computed from transactions.
+ * Snapshots are written set-based, one INSERT ... SELECT per range of account ids.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BalanceSnapshotRepository {
+
+    /*
+     * Closing balance of day D = closing balance of D-1 plus the day's credits minus its
+     * debits. The sums are correlated per account, so each side is an equality on the account
+     * plus a one-day range on created_at through its (account, created_at) index.
+     */
+    private static final String SNAPSHOT_FROM_PREVIOUS_SQL =
+        "INSERT INTO account_balance_snapshots (account_id, snapshot_date, closing_balance, currency) " +
+        "SELECT a.id, ?, p.closing_balance " +
+        "       + (SELECT COALESCE(SUM(amount), 0) FROM transactions " +
+        "          WHERE to_account_id = a.id AND status = 'COMPLETED' AND created_at >= ? AND created_at < ?) " +
+        "       - (SELECT COALESCE(SUM(amount), 0) FROM transactions " +
+        "          WHERE from_account_id = a.id AND status = 'COMPLETED' AND created_at >= ? AND created_at < ?), " +
+        "       a.currency " +
+        "FROM accounts a " +
+        "JOIN account_balance_snapshots p ON p.account_id = a.id AND p.snapshot_date = ? " +
+        "WHERE a.id BETWEEN ? AND ? AND a.created_at < ? " +
+        "ON DUPLICATE KEY UPDATE closing_balance = VALUES(closing_balance), currency = VALUES(currency)";
+
+    /*
+     * Accounts without a snapshot for D-1 (the first run, or new accounts): current balance
+     * minus what completed after D. Working back from the live balance also counts opening
+     * balances that were never posted as transactions; later days carry it forward.
+     */
+    private static final String SNAPSHOT_FROM_BALANCE_SQL =
+        "INSERT INTO account_balance_snapshots (account_id, snapshot_date, closing_balance, currency) " +
+        "SELECT a.id, ?, a.balance " +
+        "       - (SELECT COALESCE(SUM(amount), 0) FROM transactions " +
+        "          WHERE to_account_id = a.id AND status = 'COMPLETED' AND created_at >= ?) " +
+        "       + (SELECT COALESCE(SUM(amount), 0) FROM transactions " +
+        "          WHERE from_account_id = a.id AND status = 'COMPLETED' AND created_at >= ?), " +
+        "       a.currency " +
+        "FROM accounts a " +
+        "LEFT JOIN account_balance_snapshots p ON p.account_id = a.id AND p.snapshot_date = ? " +
+        "WHERE a.id BETWEEN ? AND ? AND a.created_at < ? AND p.account_id IS NULL " +
+        "ON DUPLICATE KEY UPDATE closing_balance = VALUES(closing_balance), currency = VALUES(currency)";
+
+    private static final String NET_CHANGE_SQL =
+        "SELECT (SELECT COALESCE(SUM(amount), 0) FROM transactions " +
+        "        WHERE to_account_id = ? AND status = 'COMPLETED' AND created_at >= ? AND created_at < ?) - " +
+        "       (SELECT COALESCE(SUM(amount), 0) FROM transactions " +
+        "        WHERE from_account_id = ? AND status = 'COMPLETED' AND created_at >= ? AND created_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Next slice of account ids in ascending order, for walking the table in batches.
+     */
+    public List<Long> findAccountIdsAfter(long afterId, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM accounts WHERE id > ? ORDER BY id LIMIT ?",
+            Long.class, afterId, limit);
+    }
+
+    /**
+     * Write the closing balance of {@code date} for accounts with ids in {@code [fromId, toId]},
+     * replacing any existing snapshot for that day. Accounts snapshotted the day before roll
+     * that snapshot forward; the rest are worked back from their current balance.
+     */
+    public int snapshotRange(LocalDate date, long fromId, long toId) {
+        Date day = Date.valueOf(date);
+        Date previousDay = Date.valueOf(date.minusDays(1));
+        Timestamp dayStart = Timestamp.valueOf(date.atStartOfDay());
+        Timestamp dayEnd = Timestamp.valueOf(date.plusDays(1).atStartOfDay());
+        return jdbcTemplate.update(SNAPSHOT_FROM_PREVIOUS_SQL,
+                day,
+                dayStart, dayEnd,
+                dayStart, dayEnd,
+                previousDay, fromId, toId, dayEnd)
+            + jdbcTemplate.update(SNAPSHOT_FROM_BALANCE_SQL,
+                day,
+                dayEnd,
+                dayEnd,
+                previousDay, fromId, toId, dayEnd);
+    }
+
+    public Optional<LocalDate> findLatestSnapshotDate() {
+        return Optional.ofNullable(
+                jdbcTemplate.queryForObject("SELECT MAX(snapshot_date) FROM account_balance_snapshots", Date.class))
+            .map(Date::toLocalDate);
+    }
+
+    /**
+     * The latest snapshot of the account taken strictly before {@code date}.
+     */
+    public Optional<BalanceSnapshot> findLatestBefore(long accountId, LocalDate date) {
+        return jdbcTemplate.query(
+                "SELECT snapshot_date, closing_balance FROM account_balance_snapshots " +
+                "WHERE account_id = ? AND snapshot_date < ? ORDER BY snapshot_date DESC LIMIT 1",
+                (rs, rowNum) -> new BalanceSnapshot(rs.getDate(1).toLocalDate(), rs.getBigDecimal(2)),
+                accountId, Date.valueOf(date))
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * Snapshots of the account for every day in {@code [from, to]}, oldest first.
+     */
+    public List<BalanceSnapshot> findBetween(long accountId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+            "SELECT snapshot_date, closing_balance FROM account_balance_snapshots " +
+            "WHERE account_id = ? AND snapshot_date BETWEEN ? AND ? ORDER BY snapshot_date",
+            (rs, rowNum) -> new BalanceSnapshot(rs.getDate(1).toLocalDate(), rs.getBigDecimal(2)),
+            accountId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Credits minus debits of completed transactions in {@code [from, to)}. Each side is summed
+     * through its own (account, created_at) index.
+     */
+    public BigDecimal sumNetChange(long accountId, LocalDateTime from, LocalDateTime to) {
+        Timestamp start = Timestamp.valueOf(from);
+        Timestamp end = Timestamp.valueOf(to);
+        return jdbcTemplate.queryForObject(NET_CHANGE_SQL, BigDecimal.class,
+            accountId, start, end, accountId, start, end);
+    }
+
+    public record BalanceSnapshot(LocalDate date, BigDecimal closingBalance) {
+    }
+}
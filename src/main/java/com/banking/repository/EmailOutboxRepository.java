@@ -0,0 +1,146 @@
+package com.banking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDBC access to the email_outbox table. Appends join the caller's transaction. Claims lock
+ * due rows with SKIP LOCKED and push their next attempt past a lease, so the worker can
+ * deliver them after the claiming transaction commits, without holding locks over SMTP.
+ *
+ * next_attempt_at defaults to the database clock on insert, so every due time is computed
+ * and compared with NOW(3) as well, never with the JVM's clock.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EmailOutboxRepository {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO email_outbox (recipient, subject, body, html) VALUES (?, ?, ?, ?)";
+
+    private static final String CLAIM_SQL =
+        "SELECT id, recipient, subject, body, html, attempts FROM email_outbox " +
+        "WHERE status = 'PENDING' AND next_attempt_at <= NOW(3) " +
+        "ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String RETRY_SQL =
+        "UPDATE email_outbox SET attempts = ?, next_attempt_at = NOW(3) + INTERVAL ? MICROSECOND, last_error = ? " +
+        "WHERE id = ?";
+
+    private static final String DEAD_SQL =
+        "UPDATE email_outbox SET status = 'FAILED', attempts = ?, last_error = ? WHERE id = ?";
+
+    private static final String OLDEST_AGE_SQL =
+        "SELECT TIMESTAMPDIFF(MICROSECOND, MIN(next_attempt_at), NOW(3)) FROM email_outbox " +
+        "WHERE status = 'PENDING' AND next_attempt_at <= NOW(3)";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return the id of the queued email
+     */
+    public long append(String recipient, String subject, String body, String html) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, recipient);
+            ps.setString(2, subject);
+            ps.setString(3, body);
+            ps.setString(4, html);
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    /**
+     * Lock up to {@code limit} due emails and lease them for {@code lease}.
+     * Must run inside a transaction.
+     */
+    public List<OutboxEmail> claimBatch(int limit, Duration lease) {
+        List<OutboxEmail> batch = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new OutboxEmail(
+            rs.getLong("id"),
+            rs.getString("recipient"),
+            rs.getString("subject"),
+            rs.getString("body"),
+            rs.getString("html"),
+            rs.getInt("attempts")
+        ), limit);
+        if (!batch.isEmpty()) {
+            String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+            Object[] args = new Object[batch.size() + 1];
+            args[0] = micros(lease);
+            for (int i = 0; i < batch.size(); i++) {
+                args[i + 1] = batch.get(i).id();
+            }
+            jdbcTemplate.update("UPDATE email_outbox SET next_attempt_at = NOW(3) + INTERVAL ? MICROSECOND " +
+                "WHERE id IN (" + placeholders + ")", args);
+        }
+        return batch;
+    }
+
+    public void deleteByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.update("DELETE FROM email_outbox WHERE id IN (" + placeholders + ")", ids.toArray());
+    }
+
+    public void scheduleRetries(List<Retry> retries) {
+        jdbcTemplate.batchUpdate(RETRY_SQL, retries, retries.size(), (ps, retry) -> {
+            ps.setInt(1, retry.attempts());
+            ps.setLong(2, micros(retry.backoff()));
+            ps.setString(3, truncate(retry.error()));
+            ps.setLong(4, retry.id());
+        });
+    }
+
+    /**
+     * Give up on emails that have used all their attempts; they stay in the table as FAILED.
+     */
+    public void markFailed(List<Retry> exhausted) {
+        jdbcTemplate.batchUpdate(DEAD_SQL, exhausted, exhausted.size(), (ps, retry) -> {
+            ps.setInt(1, retry.attempts());
+            ps.setString(2, truncate(retry.error()));
+            ps.setLong(3, retry.id());
+        });
+    }
+
+    /**
+     * How long the longest-waiting deliverable email has been due, or empty if none is.
+     */
+    public Optional<Duration> findOldestDueAge() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(OLDEST_AGE_SQL, Long.class))
+            .map(micros -> Duration.ofNanos(Math.max(0, micros) * 1000));
+    }
+
+    private static long micros(Duration duration) {
+        return TimeUnit.NANOSECONDS.toMicros(duration.toNanos());
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    public record OutboxEmail(long id, String recipient, String subject, String body, String html, int attempts) {
+    }
+
+    public record Retry(long id, int attempts, Duration backoff, String error) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.banking.repository;
+
+import com.banking.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.cacheKey = :cacheKey AND k.expiresAt < :now")
+    int deleteExpired(@Param("cacheKey") String cacheKey, @Param("now") LocalDateTime now);
+
+    /**
+     * Insert the key without a response, committed on its own.
+     * @return 1 if this call claimed the key, 0 if a row for it already exists
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO idempotency_keys (cache_key, request_hash, expires_at) " +
+        "VALUES (:cacheKey, :requestHash, :expiresAt)", nativeQuery = true)
+    int claim(@Param("cacheKey") String cacheKey, @Param("requestHash") String requestHash,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Store the response of a claimed key; joins the caller's transaction.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyKey k SET k.responseBody = :responseBody WHERE k.cacheKey = :cacheKey")
+    int complete(@Param("cacheKey") String cacheKey, @Param("responseBody") String responseBody);
+
+    /**
+     * Drop a claim whose action failed, leaving completed keys alone.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.cacheKey = :cacheKey AND k.responseBody IS NULL")
+    int release(@Param("cacheKey") String cacheKey);
+}
@@ -0,0 +1,37 @@
+package com.banking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Tracks how far each local transaction journal has been applied to the database.
+ * The checkpoint is written in the same database transaction as the applied batch.
+ */
+@Repository
+@RequiredArgsConstructor
+public class JournalCheckpointRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<Checkpoint> find(String journalName) {
+        return jdbcTemplate.query(
+            "SELECT segment_id, segment_offset FROM journal_checkpoints WHERE journal_name = ?",
+            (rs, rowNum) -> new Checkpoint(rs.getLong("segment_id"), rs.getInt("segment_offset")),
+            journalName
+        ).stream().findFirst();
+    }
+
+    public void save(String journalName, long segmentId, int offset) {
+        jdbcTemplate.update(
+            "INSERT INTO journal_checkpoints (journal_name, segment_id, segment_offset) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE segment_id = VALUES(segment_id), segment_offset = VALUES(segment_offset)",
+            journalName, segmentId, offset
+        );
+    }
+
+    public record Checkpoint(long segmentId, int offset) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.banking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to recurring_payments schedules and their leases. Instances claim due payments
+ * by locking them with SKIP LOCKED and recording a lease, so each payment is handed to one
+ * instance at a time and a crashed instance's payments become claimable again once its
+ * leases run out.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RecurringPaymentLeaseRepository {
+
+    private static final String UPCOMING_SQL =
+        "SELECT p.id, GREATEST(p.next_payment_date, COALESCE(l.leased_until, p.next_payment_date)) AS fire_at " +
+        "FROM recurring_payments p " +
+        "LEFT JOIN recurring_payment_leases l ON l.recurring_payment_id = p.id " +
+        "WHERE p.next_payment_date < ? AND p.status <> 'CANCELLED' " +
+        "ORDER BY p.next_payment_date LIMIT ?";
+
+    private static final String CLAIMABLE_SQL =
+        "SELECT p.id FROM recurring_payments p " +
+        "LEFT JOIN recurring_payment_leases l ON l.recurring_payment_id = p.id " +
+        "WHERE p.id IN (%s) AND p.next_payment_date <= ? AND p.status <> 'CANCELLED' " +
+        "AND (l.recurring_payment_id IS NULL OR l.leased_until < ?) " +
+        "FOR UPDATE SKIP LOCKED";
+
+    private static final String LEASE_SQL =
+        "INSERT INTO recurring_payment_leases (recurring_payment_id, owner, leased_until) VALUES (?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE owner = VALUES(owner), leased_until = VALUES(leased_until)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Schedules due before {@code until}, earliest first, read as a range of the next-due index.
+     * Each comes with the time it can next be claimed: its due date, or the end of the lease
+     * holding it if that is later.
+     */
+    public List<Upcoming> findUpcoming(LocalDateTime until, int limit) {
+        return jdbcTemplate.query(UPCOMING_SQL,
+            (rs, rowNum) -> new Upcoming(rs.getLong("id"), rs.getTimestamp("fire_at").toLocalDateTime()),
+            Timestamp.valueOf(until), limit);
+    }
+
+    /**
+     * Lease those of {@code ids} that are due by {@code now} and not covered by a live lease.
+     * Must run inside a transaction; rows another instance is claiming are skipped, not waited for.
+     */
+    public List<Long> claim(Collection<Long> ids, String owner, LocalDateTime now, LocalDateTime leasedUntil) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Timestamp at = Timestamp.valueOf(now);
+        List<Object> args = new ArrayList<>(ids.size() + 2);
+        args.addAll(ids);
+        args.add(at);
+        args.add(at);
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        List<Long> claimed = jdbcTemplate.queryForList(
+            String.format(CLAIMABLE_SQL, placeholders), Long.class, args.toArray());
+        if (!claimed.isEmpty()) {
+            Timestamp until = Timestamp.valueOf(leasedUntil);
+            jdbcTemplate.batchUpdate(LEASE_SQL, claimed, claimed.size(), (ps, id) -> {
+                ps.setLong(1, id);
+                ps.setString(2, owner);
+                ps.setTimestamp(3, until);
+            });
+        }
+        return claimed;
+    }
+
+    public boolean isHeldBy(long recurringPaymentId, String owner) {
+        Integer held = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM recurring_payment_leases WHERE recurring_payment_id = ? AND owner = ?",
+            Integer.class, recurringPaymentId, owner);
+        return held != null && held > 0;
+    }
+
+    public void release(long recurringPaymentId, String owner) {
+        jdbcTemplate.update("DELETE FROM recurring_payment_leases WHERE recurring_payment_id = ? AND owner = ?",
+            recurringPaymentId, owner);
+    }
+
+    /**
+     * Keep the payment leased, and so unclaimable, until {@code until}; used to delay retries.
+     */
+    public void extend(long recurringPaymentId, String owner, LocalDateTime until) {
+        jdbcTemplate.update(
+            "UPDATE recurring_payment_leases SET leased_until = ? WHERE recurring_payment_id = ? AND owner = ?",
+            Timestamp.valueOf(until), recurringPaymentId, owner);
+    }
+
+    /**
+     * Due date of the longest-waiting payment, claimed or not.
+     */
+    public Optional<LocalDateTime> findOldestDue(LocalDateTime now) {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "SELECT MIN(next_payment_date) FROM recurring_payments " +
+                "WHERE next_payment_date <= ? AND status <> 'CANCELLED'",
+                Timestamp.class, Timestamp.valueOf(now)))
+            .map(Timestamp::toLocalDateTime);
+    }
+
+    public record Upcoming(long id, LocalDateTime fireAt) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.banking.repository;
+
+import com.banking.model.RecurringPayment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RecurringPaymentRepository extends JpaRepository<RecurringPayment, Long> {
+
+    /**
+     * Load and row-lock a recurring payment so only one instance can charge it at a time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM RecurringPayment p WHERE p.id = :id")
+    Optional<RecurringPayment> findByIdForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,49 @@
+package com.banking.repository;
+
+import com.banking.entity.RefreshToken;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.query.Procedure;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByToken(String token);
+
+    /**
+     * Find and lock the token row, so concurrent rotations of the same token run one at a time
+     * and the second sees it already revoked.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM RefreshToken r WHERE r.token = :token")
+    Optional<RefreshToken> findByTokenForUpdate(@Param("token") String token);
+
+    /**
+     * Revoke every active refresh token of the user except the given one (null for all).
+     */
+    @Procedure(procedureName = "revoke_user_refresh_tokens")
+    void revokeUserRefreshTokens(@Param("p_user_id") Long userId, @Param("p_except_token") String exceptToken);
+
+    /**
+     * Ids of unexpired tokens revoked at or after the given time. Tokens retired by rotation
+     * are excluded; they cannot be refreshed again and their sessions continue.
+     */
+    @Query("SELECT r.id FROM RefreshToken r WHERE r.revoked = true AND r.replacedByToken IS NULL " +
+           "AND r.revokedAt >= :since AND r.expiresAt > :now")
+    List<Long> findRevokedIdsSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_tokens WHERE expires_at < :now LIMIT :limit", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -0,0 +1,90 @@
+package com.banking.repository;
+
+import com.banking.dto.event.TransactionEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * JDBC batch access to the transaction_audit table for the batch event consumer.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionAuditBatchRepository {
+
+    // A row whose transaction_id is already audited, e.g. after a redelivery, is left as it is
+    private static final String INSERT_SQL =
+        "INSERT INTO transaction_audit (id, transaction_id, from_account, to_account, amount, currency, " +
+        "type, status, description, `timestamp`, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE id = id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert audit rows in one JDBC batch, which the driver rewrites into multi-row INSERTs,
+     * skipping events whose transaction id is already audited.
+     *
+     * The rewritten batch reports no per-row counts, so each row gets its id from {@code ids}
+     * and the rows that went in are read back by those ids.
+     *
+     * @return the transaction ids of the events this call inserted
+     */
+    public Set<String> insertIgnoringDuplicates(List<TransactionEvent> events, long[] ids) {
+        if (events.isEmpty()) {
+            return Set.of();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Integer> rows = IntStream.range(0, events.size()).boxed().toList();
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            TransactionEvent event = events.get(row);
+            ps.setLong(1, ids[row]);
+            ps.setString(2, event.getTransactionId());
+            ps.setString(3, event.getFromAccount());
+            ps.setString(4, event.getToAccount());
+            ps.setBigDecimal(5, event.getAmount());
+            ps.setString(6, event.getCurrency());
+            ps.setString(7, event.getType());
+            ps.setString(8, event.getStatus());
+            ps.setString(9, event.getDescription());
+            ps.setTimestamp(10, event.getTimestamp() != null ? Timestamp.valueOf(event.getTimestamp()) : now);
+            ps.setTimestamp(11, now);
+        });
+
+        String placeholders = String.join(",", Collections.nCopies(events.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT transaction_id FROM transaction_audit WHERE id IN (" + placeholders + ")",
+            String.class, Arrays.stream(ids, 0, events.size()).boxed().toArray()));
+    }
+
+    public Set<String> findExistingTransactionIds(Collection<String> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(",", Collections.nCopies(transactionIds.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT transaction_id FROM transaction_audit WHERE transaction_id IN (" + placeholders + ")",
+            String.class, transactionIds.toArray()));
+    }
+
+    /**
+     * Stream the transaction ids audited since the given time, for warming an in-memory filter.
+     */
+    public void forEachTransactionIdSince(LocalDateTime since, Consumer<String> consumer) {
+        jdbcTemplate.query(
+            "SELECT transaction_id FROM transaction_audit WHERE created_at >= ?",
+            (RowCallbackHandler) rs -> consumer.accept(rs.getString(1)),
+            Timestamp.valueOf(since));
+    }
+}
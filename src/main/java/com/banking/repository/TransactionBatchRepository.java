@@ -0,0 +1,102 @@
+package com.banking.repository;
+
+import com.banking.model.Account;
+import com.banking.model.Transaction;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JDBC batch writes for the transactions and accounts tables, used by the
+ * bulk paths that bypass per-entity JPA persistence.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionBatchRepository {
+
+    private static final String INSERT_TRANSACTION_SQL =
+        "INSERT INTO transactions (id, transaction_reference, from_account_id, to_account_id, amount, currency, " +
+        "transaction_type, status, description, metadata, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String APPLY_BALANCE_DELTA_SQL =
+        "UPDATE accounts SET balance = balance + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Insert transaction rows in a single JDBC batch. Callers assign ids up front from the IdGenerator.
+     */
+    public void insertTransactions(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, transactions, transactions.size(), (ps, transaction) -> {
+            ps.setObject(1, transaction.getId(), Types.BIGINT);
+            ps.setString(2, transaction.getTransactionReference());
+            ps.setObject(3, accountId(transaction.getFromAccount()), Types.BIGINT);
+            ps.setObject(4, accountId(transaction.getToAccount()), Types.BIGINT);
+            ps.setBigDecimal(5, transaction.getAmount());
+            ps.setString(6, transaction.getCurrency());
+            ps.setString(7, transaction.getTransactionType().name());
+            ps.setString(8, transaction.getStatus().name());
+            ps.setString(9, transaction.getDescription());
+            ps.setString(10, toJson(transaction.getMetadata()));
+            ps.setTimestamp(11, Timestamp.valueOf(transaction.getCreatedAt()));
+            ps.setTimestamp(12, Timestamp.valueOf(transaction.getUpdatedAt() != null
+                ? transaction.getUpdatedAt() : transaction.getCreatedAt()));
+        });
+    }
+
+    /**
+     * Apply the net balance effect of the given transactions, one statement per account.
+     * Accounts are updated in id order so concurrent batches lock rows in the same sequence.
+     */
+    public void applyBalanceDeltas(Collection<Transaction> transactions) {
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getFromAccount() != null) {
+                deltas.merge(transaction.getFromAccount().getId(), transaction.getAmount().negate(), BigDecimal::add);
+            }
+            if (transaction.getToAccount() != null) {
+                deltas.merge(transaction.getToAccount().getId(), transaction.getAmount(), BigDecimal::add);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, BigDecimal>> ordered = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(APPLY_BALANCE_DELTA_SQL, ordered, ordered.size(), (ps, delta) -> {
+            ps.setBigDecimal(1, delta.getValue());
+            ps.setLong(2, delta.getKey());
+        });
+    }
+
+    private Long accountId(Account account) {
+        return account != null ? account.getId() : null;
+    }
+
+    private String toJson(Map<String, Object> metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(metadata);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Transaction metadata is not serializable", e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.banking.repository;
+
+import com.banking.dto.event.TransactionEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to the transaction_outbox table. Appends join the caller's transaction.
+ * Reads take no row locks: a single relay instance, elected through a MySQL named lock,
+ * drains the table, which keeps events with the same key in id order. Events that keep
+ * failing to publish are set aside as FAILED and no longer read.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionOutboxRepository {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO transaction_outbox (topic, transaction_type, message_key, payload) VALUES (?, ?, ?, ?)";
+
+    private static final String PENDING_SQL =
+        "SELECT id, topic, transaction_type, message_key, payload, attempts, created_at FROM transaction_outbox " +
+        "WHERE status = 'PENDING' AND id > ? ORDER BY id LIMIT ?";
+
+    // Measured against the database clock that stamped created_at, not the JVM's
+    private static final String OLDEST_AGE_SQL =
+        "SELECT TIMESTAMPDIFF(MICROSECOND, created_at, NOW(6)) FROM transaction_outbox " +
+        "WHERE status = 'PENDING' ORDER BY id LIMIT 1";
+
+    private static final String FAILED_ATTEMPT_SQL =
+        "UPDATE transaction_outbox SET attempts = ?, last_error = ? WHERE id = ?";
+
+    private static final String DEAD_SQL =
+        "UPDATE transaction_outbox SET status = 'FAILED', attempts = ?, last_error = ? WHERE id = ?";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public void append(String topic, List<TransactionEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setString(1, topic);
+            ps.setString(2, event.getType());
+            ps.setString(3, messageKey(event));
+            ps.setString(4, toJson(event));
+        });
+    }
+
+    /**
+     * Up to {@code limit} unpublished events with ids above {@code afterId}, in id order.
+     */
+    public List<OutboxMessage> findPending(long afterId, int limit) {
+        return jdbcTemplate.query(PENDING_SQL, (rs, rowNum) -> new OutboxMessage(
+            rs.getLong("id"),
+            rs.getString("topic"),
+            rs.getString("transaction_type"),
+            rs.getString("message_key"),
+            rs.getString("payload"),
+            rs.getInt("attempts"),
+            rs.getTimestamp("created_at").toLocalDateTime()
+        ), afterId, limit);
+    }
+
+    /**
+     * Record failed attempts on events that stay pending.
+     */
+    public void recordFailedAttempts(List<FailedAttempt> failures) {
+        update(FAILED_ATTEMPT_SQL, failures);
+    }
+
+    /**
+     * Give up on events that have used all their attempts; they stay in the table as FAILED.
+     */
+    public void markFailed(List<FailedAttempt> exhausted) {
+        update(DEAD_SQL, exhausted);
+    }
+
+    private void update(String sql, List<FailedAttempt> failures) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, failures, failures.size(), (ps, failure) -> {
+            ps.setInt(1, failure.attempts());
+            ps.setString(2, truncate(failure.error()));
+            ps.setLong(3, failure.id());
+        });
+    }
+
+    public void deleteByIds(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.update("DELETE FROM transaction_outbox WHERE id IN (" + placeholders + ")", chunk.toArray());
+        }
+    }
+
+    /**
+     * Age of the oldest unpublished event, or empty if the outbox is empty.
+     */
+    public Optional<Duration> findOldestAge() {
+        return jdbcTemplate.query(OLDEST_AGE_SQL, (rs, rowNum) -> rs.getLong(1))
+            .stream()
+            .findFirst()
+            .map(micros -> Duration.ofNanos(Math.max(0, micros) * 1000));
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    /**
+     * Key events by the debited account, or the credited one for deposits, so that all
+     * events for an account land on the same partition in order.
+     */
+    private String messageKey(TransactionEvent event) {
+        return event.getFromAccount() != null ? event.getFromAccount() : event.getToAccount();
+    }
+
+    private String toJson(TransactionEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Transaction event is not serializable", e);
+        }
+    }
+
+    public record OutboxMessage(long id, String topic, String transactionType, String messageKey,
+                                String payload, int attempts, LocalDateTime createdAt) {
+    }
+
+    public record FailedAttempt(long id, int attempts, String error) {
+    }
+}
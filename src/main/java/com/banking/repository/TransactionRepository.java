@@ -1,8 +1,8 @@
 package com.banking.repository;
 
+import com.banking.dto.transaction.TransactionResponse;
 import com.banking.model.Account;
 import com.banking.model.Transaction;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,21 +22,72 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     
     List<Transaction> findByFromAccountOrToAccount(Account fromAccount, Account toAccount);
     
-    Page<Transaction> findByFromAccountIdOrToAccountId(
-        Long fromAccountId, 
-        Long toAccountId, 
+    /**
+     * Select list for reads that only need a {@link TransactionResponse}: account numbers come
+     * from the join in the same statement instead of two lazy loads per row.
+     */
+    String TRANSACTION_RESPONSE = "SELECT new com.banking.dto.transaction.TransactionResponse(" +
+        "t.id, t.transactionReference, fa.accountNumber, ta.accountNumber, t.amount, t.currency, " +
+        "t.transactionType, t.status, t.description, t.metadata, t.createdAt, t.updatedAt) " +
+        "FROM Transaction t LEFT JOIN t.fromAccount fa LEFT JOIN t.toAccount ta ";
+    
+    @Query(TRANSACTION_RESPONSE + "WHERE t.transactionReference = :reference")
+    Optional<TransactionResponse> findResponseByTransactionReference(@Param("reference") String reference);
+    
+    /*
+     * History reads, newest first. Each side of each account is read on its own so the
+     * query is a seek plus a short range scan on its (account, created_at, id) index;
+     * TransactionHistoryReader merges the streams. A single OR across both sides, or an
+     * IN over several accounts, would scan and filesort every matching row instead.
+     */
+    
+    @Query(TRANSACTION_RESPONSE +
+           "WHERE t.fromAccount.id = :accountId " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionResponse> findOutgoingBefore(
+        @Param("accountId") Long accountId,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+    
+    @Query(TRANSACTION_RESPONSE +
+           "WHERE t.toAccount.id = :accountId " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<TransactionResponse> findIncomingBefore(
+        @Param("accountId") Long accountId,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
         Pageable pageable
     );
     
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t " +
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.fromAccount.id IN :accountIds")
+    long countOutgoing(@Param("accountIds") Collection<Long> accountIds);
+    
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.toAccount.id IN :accountIds")
+    long countIncoming(@Param("accountIds") Collection<Long> accountIds);
+    
+    /**
+     * Transfers between two of the given accounts, counted once on each side above.
+     */
+    @Query("SELECT COUNT(t) FROM Transaction t " +
+           "WHERE t.fromAccount.id IN :accountIds AND t.toAccount.id IN :accountIds")
+    long countInternal(@Param("accountIds") Collection<Long> accountIds);
+    
+    /**
+     * Completed debits of an account since a point in time, for rebuilding velocity counters.
+     */
+    @Query("SELECT t.createdAt AS createdAt, t.amount AS amount FROM Transaction t " +
            "WHERE t.fromAccount.id = :accountId " +
            "AND t.status = 'COMPLETED' " +
-           "AND t.transactionType = 'WITHDRAWAL' " +
-           "AND t.createdAt >= :startDate AND t.createdAt <= :endDate")
-    BigDecimal getTotalWithdrawalsByAccountAndDateRange(
+           "AND t.transactionType IN :types " +
+           "AND t.createdAt >= :since")
+    List<DebitActivity> findDebitActivitySince(
         @Param("accountId") Long accountId,
-        @Param("startDate") LocalDateTime startDate,
-        @Param("endDate") LocalDateTime endDate
+        @Param("types") Collection<Transaction.TransactionType> types,
+        @Param("since") LocalDateTime since
     );
     
     @Query("SELECT t FROM Transaction t " +
@@ -47,21 +99,9 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
         Pageable pageable
     );
     
-    @Query("SELECT t FROM Transaction t " +
-           "WHERE (t.fromAccount.user.id = :userId OR t.toAccount.user.id = :userId) " +
-           "ORDER BY t.createdAt DESC")
-    Page<Transaction> findByUserId(
-        @Param("userId") Long userId,
-        Pageable pageable
-    );
-    
-    /**
-     * Find all recurring transactions where the next payment date is before the given date
-     * and the transaction is marked as recurring.
-     *
-     * @param date The date to compare nextPaymentDate against
-     * @return List of transactions that are due for processing
-     */
-    @Query("SELECT t FROM Transaction t WHERE t.recurring = true AND t.nextPaymentDate <= :date")
-    List<Transaction> findRecurringTransactionsDueForProcessing(@Param("date") LocalDateTime date);
+    interface DebitActivity {
+        LocalDateTime getCreatedAt();
+        
+        BigDecimal getAmount();
+    }
 }
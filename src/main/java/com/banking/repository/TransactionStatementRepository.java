@@ -0,0 +1,144 @@
+package com.banking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Forward-only reads of one side of an account's history for statement exports. Each cursor
+ * holds its own connection with a MySQL streaming result set, so rows arrive as the server
+ * produces them and the driver never buffers the whole statement. A streaming result set
+ * occupies its connection until closed, which is why the two sides need separate cursors.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionStatementRepository {
+
+    private static final String OUTGOING_SQL =
+        "SELECT t.id, t.transaction_reference, t.created_at, t.transaction_type, t.status, t.amount, t.currency, " +
+        "a.account_number, t.description FROM transactions t LEFT JOIN accounts a ON a.id = t.to_account_id " +
+        "WHERE t.from_account_id = ? AND t.created_at >= ? AND t.created_at < ? ORDER BY t.created_at, t.id";
+
+    private static final String INCOMING_SQL =
+        "SELECT t.id, t.transaction_reference, t.created_at, t.transaction_type, t.status, t.amount, t.currency, " +
+        "a.account_number, t.description FROM transactions t LEFT JOIN accounts a ON a.id = t.from_account_id " +
+        "WHERE t.to_account_id = ? AND t.created_at >= ? AND t.created_at < ? ORDER BY t.created_at, t.id";
+
+    private final DataSource dataSource;
+
+    /**
+     * Debits of the account in {@code [from, to)}, oldest first.
+     */
+    public StatementCursor openOutgoing(long accountId, LocalDateTime from, LocalDateTime to) throws SQLException {
+        return open(OUTGOING_SQL, true, accountId, from, to);
+    }
+
+    /**
+     * Credits of the account in {@code [from, to)}, oldest first.
+     */
+    public StatementCursor openIncoming(long accountId, LocalDateTime from, LocalDateTime to) throws SQLException {
+        return open(INCOMING_SQL, false, accountId, from, to);
+    }
+
+    private StatementCursor open(String sql, boolean debit, long accountId, LocalDateTime from, LocalDateTime to)
+            throws SQLException {
+        Connection connection = dataSource.getConnection();
+        try {
+            connection.setReadOnly(true);
+            PreparedStatement statement = connection.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J streams row by row only for this exact fetch size
+            statement.setFetchSize(Integer.MIN_VALUE);
+            statement.setLong(1, accountId);
+            statement.setTimestamp(2, Timestamp.valueOf(from));
+            statement.setTimestamp(3, Timestamp.valueOf(to));
+            return new StatementCursor(connection, statement, statement.executeQuery(), debit);
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    public record StatementLine(long id, String reference, LocalDateTime createdAt, String transactionType,
+                                String status, boolean debit, BigDecimal amount, String currency,
+                                String counterparty, String description) {
+    }
+
+    public static final class StatementCursor implements AutoCloseable {
+
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private final boolean debit;
+        private StatementLine current;
+        private boolean exhausted;
+
+        private StatementCursor(Connection connection, PreparedStatement statement, ResultSet resultSet, boolean debit) {
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+            this.debit = debit;
+        }
+
+        /**
+         * Move to the next row.
+         *
+         * @return false once the cursor is exhausted
+         */
+        public boolean advance() throws SQLException {
+            if (!resultSet.next()) {
+                current = null;
+                exhausted = true;
+                return false;
+            }
+            current = new StatementLine(
+                resultSet.getLong(1),
+                resultSet.getString(2),
+                resultSet.getTimestamp(3).toLocalDateTime(),
+                resultSet.getString(4),
+                resultSet.getString(5),
+                debit,
+                resultSet.getBigDecimal(6),
+                resultSet.getString(7),
+                resultSet.getString(8),
+                resultSet.getString(9)
+            );
+            return true;
+        }
+
+        public StatementLine current() {
+            return current;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            boolean abandoned = !exhausted;
+            current = null;
+            try {
+                // Closing a partly read streaming result set would drain every remaining row first
+                if (abandoned) {
+                    statement.cancel();
+                }
+                resultSet.close();
+            } catch (SQLException e) {
+                if (!abandoned) {
+                    throw e;
+                }
+            } finally {
+                try {
+                    statement.close();
+                } finally {
+                    connection.close();
+                }
+            }
+        }
+    }
+}
@@ -1,23 +1,42 @@
 package com.banking.security;
 
+import com.banking.model.User;
 import com.banking.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.security.SecureRandom;
+
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
     private final UserRepository userRepository;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    /** Fixed BCrypt cost; 0 calibrates against target-ms at startup. */
+    @Value("${app.password-hashing.bcrypt.strength:0}")
+    private int bcryptStrength;
+
+    @Value("${app.password-hashing.bcrypt.target-ms:250}")
+    private long bcryptTargetMs;
+
+    @Value("${app.password-hashing.bcrypt.min-strength:10}")
+    private int bcryptMinStrength;
+
+    @Value("${app.password-hashing.bcrypt.max-strength:14}")
+    private int bcryptMaxStrength;
 
     @Bean
     public UserDetailsService userDetailsService() {
@@ -30,6 +49,7 @@ public class ApplicationConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
         return authProvider;
     }
 
@@ -38,8 +58,27 @@ public class ApplicationConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * Called by the provider after a successful login whose stored hash has a lower cost
+     * than the current one, so raising the cost upgrades users as they sign in.
+     */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newPassword) -> {
+            User account = (User) user;
+            userRepository.updatePassword(account.getId(), newPassword);
+            account.setPassword(newPassword);
+            return account;
+        };
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = bcryptStrength > 0
+                ? bcryptStrength
+                : BCryptStrengthCalibrator.calibrate(bcryptTargetMs, bcryptMinStrength, bcryptMaxStrength);
+        return new OffloadedPasswordEncoder(
+                new BCryptPasswordEncoder(BCryptPasswordEncoder.BCryptVersion.$2A, strength, new SecureRandom()),
+                passwordHashingExecutor);
     }
 }
@@ -0,0 +1,44 @@
+package com.banking.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Arrays;
+
+/**
+ * Picks the highest BCrypt cost whose single hash fits a per-core time budget on this
+ * machine. Each cost step doubles the work, so one measurement at the minimum cost is
+ * enough to extrapolate.
+ */
+@Slf4j
+final class BCryptStrengthCalibrator {
+
+    private static final int SAMPLES = 5;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode("calibration-warmup");
+
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration-" + i);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        double medianMillis = Math.max(samples[SAMPLES / 2] / 1_000_000.0, 0.001);
+
+        int strength = minStrength;
+        double expected = medianMillis;
+        while (strength < maxStrength && expected * 2 <= targetMillis) {
+            expected *= 2;
+            strength++;
+        }
+        log.info("BCrypt cost {} measured at {} ms; using cost {} (~{} ms) for a {} ms budget",
+                minStrength, String.format("%.1f", medianMillis), strength, Math.round(expected), targetMillis);
+        return strength;
+    }
+}
@@ -0,0 +1,30 @@
+package com.banking.security;
+
+import com.banking.model.User;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Access to the id of the authenticated user for controllers.
+ */
+public final class CurrentUser {
+
+    private CurrentUser() {
+    }
+
+    public static Long id() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new AuthenticationCredentialsNotFoundException("No authenticated user");
+        }
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof JwtPrincipal jwtPrincipal) {
+            return jwtPrincipal.userId();
+        }
+        if (principal instanceof User user) {
+            return user.getId();
+        }
+        throw new AuthenticationCredentialsNotFoundException("Unsupported principal type");
+    }
+}
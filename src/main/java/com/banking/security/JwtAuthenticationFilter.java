@@ -1,12 +1,16 @@
 package com.banking.security;
 
+import com.banking.model.Role;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -16,6 +20,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -26,6 +31,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final UserSecurityVersionCache securityVersions;
+    private final RevokedSessionIndex revokedSessions;
+
+    /**
+     * When enabled, tokens carrying user id, role and security version claims are trusted
+     * without loading the user; older tokens fall back to the UserDetails lookup.
+     */
+    @Value("${app.jwt.stateless-principal:true}")
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal(
@@ -43,17 +57,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(TOKEN_PREFIX.length());
-        userEmail = jwtService.extractUsername(jwt);
+        // Verified once here; the claims are reused for the validity check below
+        final Claims claims = jwtService.extractAllClaims(jwt);
+        userEmail = claims.getSubject();
 
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && !isSessionRevoked(claims)) {
+            UsernamePasswordAuthenticationToken authToken = statelessPrincipal && hasPrincipalClaims(claims)
+                    ? authenticateFromClaims(claims)
+                    : authenticateFromUserDetails(claims, userEmail);
             
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
+            if (authToken != null) {
                 authToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request)
                 );
@@ -62,4 +76,42 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    private boolean isSessionRevoked(Claims claims) {
+        Number sessionId = claims.get(JwtService.SESSION_CLAIM, Number.class);
+        return sessionId != null && revokedSessions.isRevoked(sessionId.longValue());
+    }
+
+    private boolean hasPrincipalClaims(Claims claims) {
+        return claims.get(JwtService.USER_ID_CLAIM) != null
+                && claims.get(JwtService.ROLE_CLAIM) != null
+                && claims.get(JwtService.SECURITY_VERSION_CLAIM) != null;
+    }
+
+    private UsernamePasswordAuthenticationToken authenticateFromClaims(Claims claims) {
+        Long userId = claims.get(JwtService.USER_ID_CLAIM, Number.class).longValue();
+        int securityVersion = claims.get(JwtService.SECURITY_VERSION_CLAIM, Number.class).intValue();
+        if (!securityVersions.isCurrent(userId, securityVersion)) {
+            return null;
+        }
+        Role role = Role.valueOf(claims.get(JwtService.ROLE_CLAIM, String.class));
+        JwtPrincipal principal = new JwtPrincipal(userId, claims.getSubject(), role);
+        return new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                List.of(new SimpleGrantedAuthority(role.name()))
+        );
+    }
+
+    private UsernamePasswordAuthenticationToken authenticateFromUserDetails(Claims claims, String userEmail) {
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+        if (!jwtService.isTokenValid(claims, userDetails)) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+    }
 }
@@ -0,0 +1,16 @@
+package com.banking.security;
+
+import com.banking.model.Role;
+
+import java.security.Principal;
+
+/**
+ * Authenticated user rebuilt from verified token claims, without a database lookup.
+ */
+public record JwtPrincipal(Long userId, String email, Role role) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
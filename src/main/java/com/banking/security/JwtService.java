@@ -1,15 +1,24 @@
 package com.banking.security;
 
+import com.banking.model.User;
+import com.banking.util.BoundedTtlCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -18,12 +27,41 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String SECURITY_VERSION_CLAIM = "sv";
+    public static final String SESSION_CLAIM = "rt";
+
     @Value("${app.jwt.secret}")
     private String secretKey;
 
     @Value("${app.jwt.expiration-ms}")
     private long jwtExpirationMs;
 
+    @Value("${app.jwt.claims-cache-size:50000}")
+    private int claimsCacheSize;
+
+    private Key signInKey;
+    private JwtParser parser;
+
+    // Claims of tokens whose signature was already verified, keyed by SHA-256 of the token
+    private BoundedTtlCache<ByteBuffer, Claims> verifiedClaims;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    @PostConstruct
+    public void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        verifiedClaims = new BoundedTtlCache<>(claimsCacheSize, Duration.ofMillis(jwtExpirationMs));
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -34,7 +72,25 @@ public class JwtService {
     }
 
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        return generateToken(userDetails, null);
+    }
+
+    /**
+     * @param sessionId id of the refresh token the access token belongs to, checked against
+     *                  revoked sessions on every request; null for a token without a session
+     */
+    public String generateToken(UserDetails userDetails, Long sessionId) {
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user) {
+            // Lets the filter authenticate from the token alone, see JwtAuthenticationFilter
+            claims.put(USER_ID_CLAIM, user.getId());
+            claims.put(ROLE_CLAIM, user.getRole().name());
+            claims.put(SECURITY_VERSION_CLAIM, user.getSecurityVersion());
+        }
+        if (sessionId != null) {
+            claims.put(SESSION_CLAIM, sessionId);
+        }
+        return generateToken(claims, userDetails);
     }
 
     public String generateToken(
@@ -55,34 +111,41 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !isExpired(claims);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
+    /**
+     * Verify the token and return its claims. Each distinct token is parsed and its
+     * signature checked once; later calls are served from a cache entry that expires
+     * with the token. Invalid tokens are never cached and throw as before.
+     */
+    public Claims extractAllClaims(String token) {
+        ByteBuffer digest = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+        Claims claims = verifiedClaims.get(digest);
+        if (claims != null && !isExpired(claims)) {
+            return claims;
+        }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            long ttlMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+            if (ttlMs > 0) {
+                verifiedClaims.put(digest, claims, Duration.ofMillis(ttlMs));
+            }
+        }
+        return claims;
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
     }
 }
@@ -0,0 +1,106 @@
+package com.banking.security;
+
+import com.banking.repository.RefreshTokenRepository;
+import com.banking.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of revoked refresh-token sessions, checked for every access token that
+ * carries a session claim.
+ *
+ * Lookups go through a Bloom filter first, so the common not-revoked case costs a few bit
+ * tests; possible hits are confirmed against an exact set. Both are fed incrementally
+ * from refresh_tokens by revocation time, and rebuilt after each purge of expired rows so
+ * they only hold sessions that can still be used.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RevokedSessionIndex {
+
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${app.jwt.revocation.expected-revocations:100000}")
+    private long expectedRevocations;
+
+    // Revocation times are second-precision and commits can land late, so each poll looks back this far
+    @Value("${app.jwt.revocation.poll-overlap-seconds:10}")
+    private long pollOverlapSeconds;
+
+    private volatile Snapshot snapshot;
+    private volatile LocalDateTime lastPoll;
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    public boolean isRevoked(long sessionId) {
+        Snapshot current = snapshot;
+        return current.filter().mightContain(Long.toString(sessionId)) && current.revoked().contains(sessionId);
+    }
+
+    /**
+     * Record a revocation made by this instance so it applies immediately, ahead of the next poll.
+     */
+    public void markRevoked(long sessionId) {
+        snapshot.add(sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.poll-interval-ms:5000}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = refreshTokenRepository.findRevokedIdsSince(lastPoll.minusSeconds(pollOverlapSeconds), now);
+        Snapshot current = snapshot;
+        ids.forEach(current::add);
+        lastPoll = now;
+    }
+
+    /**
+     * Delete expired refresh tokens in bounded batches, then rebuild the index without them.
+     */
+    @Scheduled(cron = "${app.jwt.revocation.purge-cron:0 30 3 * * ?}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpiredBatch(now, PURGE_BATCH_SIZE);
+            total += deleted;
+        } while (deleted == PURGE_BATCH_SIZE);
+        log.info("Purged {} expired refresh tokens", total);
+        rebuild();
+    }
+
+    private synchronized void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = refreshTokenRepository.findRevokedIdsSince(LocalDateTime.of(1970, 1, 1, 0, 0), now);
+        Snapshot fresh = new Snapshot(
+            new BloomFilter(Math.max(expectedRevocations, ids.size() * 2L), 0.01),
+            ConcurrentHashMap.newKeySet());
+        ids.forEach(fresh::add);
+        snapshot = fresh;
+        lastPoll = now;
+        log.info("Loaded {} revoked refresh-token sessions", ids.size());
+    }
+
+    private record Snapshot(BloomFilter filter, Set<Long> revoked) {
+        void add(long sessionId) {
+            // Exact set first, so a Bloom hit is never confirmed against a set still missing the id
+            revoked.add(sessionId);
+            filter.put(Long.toString(sessionId));
+        }
+    }
+}
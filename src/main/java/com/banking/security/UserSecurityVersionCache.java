@@ -0,0 +1,67 @@
+package com.banking.security;
+
+import com.banking.repository.UserRepository;
+import com.banking.util.BoundedTtlCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of each user's current security version, used to reject stateless
+ * tokens issued before a role change or disablement. Disabled or deleted users are cached
+ * as {@link #REVOKED}. A change made on another instance takes effect within the TTL.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserSecurityVersionCache {
+
+    static final int REVOKED = -1;
+
+    private final UserRepository userRepository;
+
+    @Value("${app.jwt.security-version-cache-size:100000}")
+    private int maximumSize;
+
+    @Value("${app.jwt.security-version-ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private BoundedTtlCache<Long, Integer> versions;
+
+    @PostConstruct
+    public void init() {
+        versions = new BoundedTtlCache<>(maximumSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Integer current = versions.get(userId);
+        if (current == null) {
+            current = userRepository.findActiveSecurityVersionById(userId).orElse(REVOKED);
+            versions.put(userId, current);
+        }
+        return current != REVOKED && current == tokenVersion;
+    }
+
+    /**
+     * Increment the user's security version so every token issued so far stops validating.
+     * The cached version is dropped once the current transaction commits; evicting earlier
+     * would let a concurrent request cache the old version again from the uncommitted row.
+     */
+    public void revokeAll(Long userId) {
+        userRepository.incrementSecurityVersion(userId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            versions.remove(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                versions.remove(userId);
+            }
+        });
+    }
+}
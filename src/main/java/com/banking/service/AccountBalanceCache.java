@@ -0,0 +1,171 @@
+package com.banking.service;
+
+import com.banking.model.Transaction;
+import com.banking.util.BoundedTtlCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-evicting cache of account balances keyed by account id.
+ *
+ * Concurrent misses for one account share a single database load. Writers mark the entry
+ * as pending before changing the row and install the committed balance afterwards; every
+ * mark and load carries a stamp from one global sequence, so a load that read the row
+ * before a write committed can never overwrite the newer balance.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountBalanceCache {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.balance-cache.size:100000}")
+    private int maximumSize;
+
+    @Value("${app.balance-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentMap<Long, CompletableFuture<BigDecimal>> loading = new ConcurrentHashMap<>();
+    private BoundedTtlCache<Long, Entry> cache;
+
+    private Counter hits;
+    private Counter misses;
+    private Timer loadTimer;
+
+    @PostConstruct
+    public void init() {
+        cache = new BoundedTtlCache<>(maximumSize, Duration.ofSeconds(ttlSeconds));
+        hits = meterRegistry.counter("banking.balance.cache.requests", "result", "hit");
+        misses = meterRegistry.counter("banking.balance.cache.requests", "result", "miss");
+        loadTimer = Timer.builder("banking.balance.cache.load")
+            .description("Time to load a balance from the database on a cache miss")
+            .register(meterRegistry);
+        FunctionCounter.builder("banking.balance.cache.evictions", cache, BoundedTtlCache::evictionCount)
+            .register(meterRegistry);
+        Gauge.builder("banking.balance.cache.size", cache, BoundedTtlCache::size)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Return the cached balance, loading it with the given function on a miss. Concurrent
+     * callers missing on the same account wait for one load.
+     */
+    public BigDecimal get(Long accountId, Function<Long, BigDecimal> loader) {
+        Entry entry = cache.get(accountId);
+        if (entry != null && entry.balance() != null) {
+            hits.increment();
+            return entry.balance();
+        }
+        misses.increment();
+
+        CompletableFuture<BigDecimal> pending = new CompletableFuture<>();
+        CompletableFuture<BigDecimal> existing = loading.putIfAbsent(accountId, pending);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            long stamp = sequence.get();
+            BigDecimal balance = loadTimer.record(() -> loader.apply(accountId));
+            cache.compute(accountId, (id, current) -> {
+                // Only fill an empty or pending slot, and only if no write started after this load did
+                if (current == null || (current.balance() == null && current.stamp() <= stamp)) {
+                    return new Entry(balance, stamp);
+                }
+                return current;
+            });
+            pending.complete(balance);
+            return balance;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(accountId, pending);
+        }
+    }
+
+    /**
+     * Mark the account's balance as changing. Call before updating the row, inside the
+     * writing transaction, and pass the returned stamp to {@link #putAfterCommit}.
+     */
+    public long beginWrite(Long accountId) {
+        long stamp = sequence.incrementAndGet();
+        cache.compute(accountId, (id, current) -> new Entry(null, stamp));
+        return stamp;
+    }
+
+    /**
+     * Install the balance once the current transaction commits. Writers on one account
+     * hold its row lock in stamp order, so the highest stamp carries the latest balance.
+     */
+    public void putAfterCommit(Long accountId, BigDecimal balance, long stamp) {
+        afterCommit(() -> cache.compute(accountId, (id, current) ->
+            current == null || current.stamp() <= stamp ? new Entry(balance, stamp) : current));
+    }
+
+    /**
+     * Drop the cached balances of every account touched by the given transactions once the
+     * current transaction commits, for bulk paths that update balances without reading them back.
+     */
+    public void invalidateAfterCommit(Collection<Transaction> transactions) {
+        Set<Long> accountIds = new HashSet<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getFromAccount() != null) {
+                accountIds.add(transaction.getFromAccount().getId());
+            }
+            if (transaction.getToAccount() != null) {
+                accountIds.add(transaction.getToAccount().getId());
+            }
+        }
+        if (!accountIds.isEmpty()) {
+            afterCommit(() -> accountIds.forEach(this::beginWrite));
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * A null balance marks a write in progress; readers treat it as a miss.
+     */
+    private record Entry(BigDecimal balance, long stamp) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.banking.service;
+
+import com.banking.repository.AccountRepository;
+import com.banking.util.BoundedTtlCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory index of which accounts each user owns, so ownership checks are a binary search
+ * over a sorted {@code long[]} instead of a query.
+ *
+ * A user's account ids are loaded on first use and dropped when the user opens or closes an
+ * account. A negative answer from an entry older than a short grace period triggers one
+ * reload, which covers accounts created through another instance.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountOwnershipIndex {
+
+    private final AccountRepository accountRepository;
+
+    @Value("${app.ownership-index.size:100000}")
+    private int maximumSize;
+
+    @Value("${app.ownership-index.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${app.ownership-index.negative-reload-ms:1000}")
+    private long negativeReloadMs;
+
+    private BoundedTtlCache<Long, OwnedAccounts> index;
+
+    @PostConstruct
+    public void init() {
+        index = new BoundedTtlCache<>(maximumSize, Duration.ofMinutes(ttlMinutes));
+    }
+
+    public boolean isOwner(Long userId, Long accountId) {
+        if (userId == null || accountId == null) {
+            return false;
+        }
+        OwnedAccounts owned = index.get(userId);
+        if (owned == null) {
+            return load(userId).contains(accountId);
+        }
+        if (owned.contains(accountId)) {
+            return true;
+        }
+        if (System.nanoTime() - owned.loadedAtNanos() < TimeUnit.MILLISECONDS.toNanos(negativeReloadMs)) {
+            return false;
+        }
+        return load(userId).contains(accountId);
+    }
+
+    /**
+     * Drop the user's entry once the current transaction commits, so the next check sees
+     * the committed set of accounts.
+     */
+    public void invalidateAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            index.remove(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                index.remove(userId);
+            }
+        });
+    }
+
+    private OwnedAccounts load(Long userId) {
+        List<Long> ids = accountRepository.findIdsByUserId(userId);
+        long[] sorted = new long[ids.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = ids.get(i);
+        }
+        Arrays.sort(sorted);
+        OwnedAccounts owned = new OwnedAccounts(sorted, System.nanoTime());
+        index.put(userId, owned);
+        return owned;
+    }
+
+    private record OwnedAccounts(long[] accountIds, long loadedAtNanos) {
+        boolean contains(long accountId) {
+            return Arrays.binarySearch(accountIds, accountId) >= 0;
+        }
+    }
+}
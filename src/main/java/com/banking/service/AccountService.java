@@ -1,5 +1,6 @@
 package com.banking.service;
 
+import com.banking.dto.CursorPage;
 import com.banking.dto.account.AccountResponse;
 import com.banking.dto.account.AccountRequest;
 import com.banking.exception.AccountNotFoundException;
@@ -46,6 +47,16 @@ public interface AccountService {
      */
     Page<TransactionResponse> getAccountTransactions(Long accountId, Long userId, Pageable pageable);
     
+    /**
+     * Get a cursor-addressed page of transactions for an account, newest first
+     * 
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param includeTotal whether to also count all of the account's transactions
+     * @throws InvalidAccountOperationException if the user doesn't have permission to view the transactions
+     */
+    CursorPage<TransactionResponse> getAccountTransactions(Long accountId, Long userId, String cursor, int size,
+                                                           boolean includeTotal);
+    
     /**
      * Get account balance
      */
@@ -2,17 +2,67 @@ package com.banking.service;
 
 import com.banking.dto.event.TransactionEvent;
 import com.banking.entity.TransactionAudit;
+import com.banking.id.IdGenerator;
+import com.banking.repository.TransactionAuditBatchRepository;
 import com.banking.repository.TransactionAuditRepository;
+import com.banking.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuditService {
 
     private final TransactionAuditRepository auditRepository;
+    private final TransactionAuditBatchRepository auditBatchRepository;
+    private final MeterRegistry meterRegistry;
+    private final IdGenerator idGenerator;
+
+    @Value("${app.audit.bloom.expected-insertions:5000000}")
+    private long bloomExpectedInsertions;
+
+    @Value("${app.audit.bloom.false-positive-rate:0.01}")
+    private double bloomFalsePositiveRate;
+
+    @Value("${app.audit.bloom.seed-days:7}")
+    private int bloomSeedDays;
+
+    @Value("${app.kafka.consumer.mode:single}")
+    private String consumerMode;
+
+    // Transaction ids already audited, kept only for the batch consumer; a miss means the id
+    // was not audited recently or by this instance, not that it is new
+    private BloomFilter auditedIds;
+
+    private Counter duplicatesSkipped;
+
+    @PostConstruct
+    public void init() {
+        duplicatesSkipped = meterRegistry.counter("banking.audit.duplicates.skipped");
+        if (!"batch".equals(consumerMode)) {
+            return;
+        }
+        auditedIds = new BloomFilter(bloomExpectedInsertions, bloomFalsePositiveRate);
+        long[] seeded = new long[1];
+        auditBatchRepository.forEachTransactionIdSince(LocalDateTime.now().minusDays(bloomSeedDays), id -> {
+            auditedIds.put(id);
+            seeded[0]++;
+        });
+        log.info("Seeded audit Bloom filter with {} transaction ids from the last {} days", seeded[0], bloomSeedDays);
+    }
 
     public void logTransaction(TransactionEvent event) {
         try {
@@ -36,4 +86,47 @@ public class AuditService {
             throw new RuntimeException("Failed to create audit log", e);
         }
     }
+
+    /**
+     * Audit a batch of events with one multi-row insert, skipping events that are already
+     * audited. Ids the Bloom filter reports as possibly seen are checked against the database
+     * up front; the insert itself skips any other duplicate, such as one older than the seeded
+     * window or audited by another instance, and reports which rows it actually added.
+     *
+     * @return the events that were not already audited, in delivery order
+     */
+    public List<TransactionEvent> logTransactions(List<TransactionEvent> events) {
+        Map<String, TransactionEvent> unique = new LinkedHashMap<>();
+        List<String> candidates = new ArrayList<>();
+        for (TransactionEvent event : events) {
+            if (unique.putIfAbsent(event.getTransactionId(), event) == null
+                    && auditedIds.mightContain(event.getTransactionId())) {
+                candidates.add(event.getTransactionId());
+            }
+        }
+
+        Set<String> existing = auditBatchRepository.findExistingTransactionIds(candidates);
+        unique.keySet().removeAll(existing);
+
+        List<TransactionEvent> unaudited = new ArrayList<>(unique.values());
+        Set<String> inserted;
+        try {
+            inserted = auditBatchRepository.insertIgnoringDuplicates(unaudited, idGenerator.nextIds(unaudited.size()));
+        } catch (Exception e) {
+            log.error("Failed to create audit logs for a batch of {} transactions", unaudited.size(), e);
+            throw new RuntimeException("Failed to create audit logs", e);
+        }
+        unaudited.forEach(event -> auditedIds.put(event.getTransactionId()));
+
+        List<TransactionEvent> fresh = new ArrayList<>(inserted.size());
+        for (TransactionEvent event : unaudited) {
+            if (inserted.contains(event.getTransactionId())) {
+                fresh.add(event);
+            }
+        }
+        duplicatesSkipped.increment(events.size() - fresh.size());
+        log.debug("Audit logs created for {} transactions, {} duplicates skipped",
+            fresh.size(), events.size() - fresh.size());
+        return fresh;
+    }
 }
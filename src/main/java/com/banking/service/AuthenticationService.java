@@ -1,48 +1,77 @@
 package com.banking.service;
 
-import com.banking.config.JwtService;
 import com.banking.dto.auth.AuthenticationRequest;
 import com.banking.dto.auth.AuthenticationResponse;
 import com.banking.dto.auth.RegisterRequest;
-import com.banking.model.Role;
+import com.banking.entity.RefreshToken;
+import com.banking.exception.InvalidRefreshTokenException;
 import com.banking.model.User;
+import com.banking.repository.RefreshTokenRepository;
 import com.banking.repository.UserRepository;
+import com.banking.security.JwtService;
+import com.banking.security.RevokedSessionIndex;
+import com.banking.security.UserSecurityVersionCache;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthenticationService {
 
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     private final UserRepository userRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RevokedSessionIndex revokedSessions;
+    private final UserSecurityVersionCache securityVersions;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
-    public AuthenticationResponse register(RegisterRequest request) {
-        var user = User.builder()
-                .firstName(request.firstName())
-                .lastName(request.lastName())
-                .email(request.email())
-                .password(passwordEncoder.encode(request.password()))
-                .phoneNumber(request.phoneNumber())
-                .role(request.role())
-                .enabled(true)
-                .build();
-
-        user = userRepository.save(user);
-        var jwtToken = jwtService.generateToken(user);
-        var refreshToken = jwtService.generateRefreshToken(user);
-        
-        return AuthenticationResponse.of(jwtToken, refreshToken);
+    @Value("${app.jwt.refresh-expiration-ms:604800000}")
+    private long refreshExpirationMs;
+
+    public AuthenticationResponse register(RegisterRequest request, String clientIp) {
+        // Hash before opening the transaction so a queued hash does not hold a connection
+        String encodedPassword = passwordEncoder.encode(request.password());
+        return transactionTemplate.execute(status -> {
+            var user = User.builder()
+                    .firstName(request.firstName())
+                    .lastName(request.lastName())
+                    .email(request.email())
+                    .password(encodedPassword)
+                    .phoneNumber(request.phoneNumber())
+                    .role(request.role())
+                    .enabled(true)
+                    .build();
+
+            user = userRepository.save(user);
+            return issueTokens(user, clientIp);
+        });
     }
 
-    public AuthenticationResponse authenticate(AuthenticationRequest request) {
+    /**
+     * Not transactional: the password check runs on the hashing pool and must not pin a
+     * connection while it waits there.
+     */
+    public AuthenticationResponse authenticate(AuthenticationRequest request, String clientIp) {
         authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.email(),
@@ -53,9 +82,93 @@ public class AuthenticationService {
         var user = userRepository.findByEmail(request.email())
                 .orElseThrow();
         
-        var jwtToken = jwtService.generateToken(user);
-        var refreshToken = jwtService.generateRefreshToken(user);
-        
-        return AuthenticationResponse.of(jwtToken, refreshToken);
+        return issueTokens(user, clientIp);
+    }
+
+    /**
+     * Exchange a refresh token for a new access token and a new refresh token. The old
+     * refresh token is retired; presenting it again is treated as theft and revokes every
+     * session of the user. The token row is locked for the rotation, so two requests racing
+     * with the same token cannot both be issued a replacement.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public AuthenticationResponse refresh(String rawToken, String clientIp) {
+        RefreshToken current = refreshTokenRepository.findByTokenForUpdate(hash(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+
+        if (current.isRevoked()) {
+            if (current.getReplacedByToken() != null) {
+                log.warn("Rotated refresh token {} was reused; revoking all sessions for user {}",
+                        current.getId(), current.getUserId());
+                refreshTokenRepository.revokeUserRefreshTokens(current.getUserId(), null);
+                securityVersions.revokeAll(current.getUserId());
+            }
+            throw new InvalidRefreshTokenException("Refresh token has been revoked");
+        }
+        if (current.isExpired()) {
+            throw new InvalidRefreshTokenException("Refresh token has expired");
+        }
+
+        User user = userRepository.findById(current.getUserId())
+                .filter(User::isEnabled)
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+
+        String rawReplacement = newRawToken();
+        RefreshToken replacement = saveRefreshToken(user, rawReplacement, clientIp);
+
+        current.setRevoked(true);
+        current.setRevokedAt(LocalDateTime.now());
+        current.setRevokedByIp(clientIp);
+        current.setReplacedByToken(replacement.getToken());
+        current.setReasonRevoked("Rotated");
+
+        return AuthenticationResponse.of(jwtService.generateToken(user, replacement.getId()), rawReplacement);
+    }
+
+    /**
+     * Revoke the session behind a refresh token. Access tokens issued for it stop
+     * validating on this instance immediately and on others within one revocation poll.
+     */
+    @Transactional
+    public void logout(String rawToken, String clientIp) {
+        refreshTokenRepository.findByToken(hash(rawToken))
+                .filter(token -> !token.isRevoked())
+                .ifPresent(token -> {
+                    token.setRevoked(true);
+                    token.setRevokedAt(LocalDateTime.now());
+                    token.setRevokedByIp(clientIp);
+                    token.setReasonRevoked("Logged out");
+                    revokedSessions.markRevoked(token.getId());
+                });
+    }
+
+    private AuthenticationResponse issueTokens(User user, String clientIp) {
+        String rawRefreshToken = newRawToken();
+        RefreshToken refreshToken = saveRefreshToken(user, rawRefreshToken, clientIp);
+        return AuthenticationResponse.of(jwtService.generateToken(user, refreshToken.getId()), rawRefreshToken);
+    }
+
+    private RefreshToken saveRefreshToken(User user, String rawToken, String clientIp) {
+        return refreshTokenRepository.save(RefreshToken.builder()
+                .userId(user.getId())
+                .token(hash(rawToken))
+                .expiresAt(LocalDateTime.now().plusNanos(refreshExpirationMs * 1_000_000))
+                .createdByIp(clientIp)
+                .build());
+    }
+
+    private static String newRawToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
@@ -0,0 +1,105 @@
+package com.banking.service;
+
+import com.banking.dto.account.BalanceInterval;
+import com.banking.dto.account.BalancePoint;
+import com.banking.exception.InvalidAccountOperationException;
+import com.banking.repository.BalanceSnapshotRepository;
+import com.banking.repository.BalanceSnapshotRepository.BalanceSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Historical balances built on the daily snapshots written by {@link BalanceSnapshotJob}.
+ * A point-in-time balance is the closing balance of the previous day plus the transactions
+ * of one partial day; a balance history reads one snapshot per day in range. Neither replays
+ * the account's full transaction history.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BalanceHistoryService {
+
+    private final BalanceSnapshotRepository snapshotRepository;
+    private final AccountService accountService;
+
+    @Value("${app.balance-snapshot.max-history-days:3660}")
+    private long maxHistoryDays;
+
+    /**
+     * Balance of the account at {@code at}, counting transactions created strictly before it.
+     */
+    public BigDecimal getBalanceAt(Long accountId, LocalDateTime at) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!at.isBefore(now)) {
+            return accountService.getAccountBalance(accountId);
+        }
+
+        Optional<BalanceSnapshot> snapshot = snapshotRepository.findLatestBefore(accountId, at.toLocalDate());
+        if (snapshot.isPresent()) {
+            LocalDateTime snapshotEnd = snapshot.get().date().plusDays(1).atStartOfDay();
+            return snapshot.get().closingBalance().add(snapshotRepository.sumNetChange(accountId, snapshotEnd, at));
+        }
+
+        // No snapshot yet (new account, or snapshots not started): work back from the live balance
+        log.debug("No balance snapshot before {} for account {}; deriving from the current balance", at, accountId);
+        BigDecimal current = accountService.getAccountBalance(accountId);
+        return current.subtract(snapshotRepository.sumNetChange(accountId, at, now));
+    }
+
+    /**
+     * Closing balances for {@code [from, to]}, one point per interval. Each point is the last
+     * snapshot in its interval; when the range reaches today, today's point is the live balance.
+     */
+    public List<BalancePoint> getBalanceHistory(Long accountId, LocalDate from, LocalDate to, BalanceInterval interval) {
+        if (to.isBefore(from)) {
+            throw new InvalidAccountOperationException("History end date is before its start date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxHistoryDays) {
+            throw new InvalidAccountOperationException("History range is limited to " + maxHistoryDays + " days");
+        }
+
+        List<BalancePoint> points = new ArrayList<>();
+        LocalDate currentBucket = null;
+        for (BalanceSnapshot snapshot : snapshotRepository.findBetween(accountId, from, to)) {
+            currentBucket = add(points, currentBucket, interval, snapshot.date(), snapshot.closingBalance());
+        }
+
+        LocalDate today = LocalDate.now();
+        if (!today.isBefore(from) && !today.isAfter(to)) {
+            add(points, currentBucket, interval, today, accountService.getAccountBalance(accountId));
+        }
+        return points;
+    }
+
+    private static LocalDate add(List<BalancePoint> points, LocalDate currentBucket, BalanceInterval interval,
+                                 LocalDate date, BigDecimal balance) {
+        LocalDate bucket = bucketOf(date, interval);
+        BalancePoint point = new BalancePoint(date, balance);
+        if (bucket.equals(currentBucket)) {
+            // Later days in the same interval supersede earlier ones
+            points.set(points.size() - 1, point);
+        } else {
+            points.add(point);
+        }
+        return bucket;
+    }
+
+    private static LocalDate bucketOf(LocalDate date, BalanceInterval interval) {
+        return switch (interval) {
+            case DAY -> date;
+            case WEEK -> date.with(DayOfWeek.MONDAY);
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+}
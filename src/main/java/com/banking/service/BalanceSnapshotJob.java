@@ -0,0 +1,120 @@
+package com.banking.service;
+
+import com.banking.repository.BalanceSnapshotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes every account's closing balance after the end of each day. Accounts are processed
+ * in id slices, one INSERT ... SELECT per slice, so row locks on accounts and transactions
+ * are held only for a batch at a time. Days missed while the application was down are filled
+ * in on the next run. Writes are upserts, so a run on several instances is harmless.
+ *
+ * A run can take minutes, so the schedule only hands it to the job's own thread and a run
+ * that is still going when the next one fires is not started twice.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BalanceSnapshotJob {
+
+    private final BalanceSnapshotRepository snapshotRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.balance-snapshot.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${app.balance-snapshot.max-catch-up-days:31}")
+    private int maxCatchUpDays;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ExecutorService executor;
+    private Timer snapshotTimer;
+    private Counter snapshotRows;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotTimer = meterRegistry.timer("banking.balance.snapshot.duration");
+        snapshotRows = meterRegistry.counter("banking.balance.snapshot.rows");
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(cron = "${app.balance-snapshot.cron:0 5 0 * * ?}")
+    public void scheduleSnapshots() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Previous balance snapshot run is still in progress; skipping this one");
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                snapshotCompletedDays();
+            } catch (Exception e) {
+                log.error("Balance snapshot run failed", e);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    public void snapshotCompletedDays() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate earliest = yesterday.minusDays(maxCatchUpDays - 1L);
+        LocalDate next = snapshotRepository.findLatestSnapshotDate()
+            .map(date -> date.plusDays(1))
+            .orElse(yesterday);
+        if (next.isBefore(earliest)) {
+            log.warn("Balance snapshots are missing since {}; filling in from {}", next, earliest);
+            next = earliest;
+        }
+        for (LocalDate date = next; !date.isAfter(yesterday); date = date.plusDays(1)) {
+            snapshot(date);
+        }
+    }
+
+    /**
+     * Write or overwrite the closing balance of {@code date} for every account that existed by then.
+     */
+    public int snapshot(LocalDate date) {
+        long started = System.nanoTime();
+        int written = 0;
+        long afterId = Long.MIN_VALUE;
+        List<Long> ids;
+        do {
+            ids = snapshotRepository.findAccountIdsAfter(afterId, batchSize);
+            if (!ids.isEmpty()) {
+                long lastId = ids.get(ids.size() - 1);
+                written += snapshotRepository.snapshotRange(date, ids.get(0), lastId);
+                afterId = lastId;
+            }
+        } while (ids.size() == batchSize);
+
+        snapshotTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        snapshotRows.increment(written);
+        log.info("Wrote balance snapshots for {} ({} rows)", date, written);
+        return written;
+    }
+}
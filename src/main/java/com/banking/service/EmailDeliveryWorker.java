@@ -0,0 +1,261 @@
+package com.banking.service;
+
+import com.banking.repository.EmailOutboxRepository;
+import com.banking.repository.EmailOutboxRepository.OutboxEmail;
+import com.banking.repository.EmailOutboxRepository.Retry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers emails from the email outbox.
+ *
+ * Each poll claims a batch of due rows and splits it into chunks, each sent on a bounded pool
+ * with a single {@link JavaMailSender#send(MimeMessage...)} call, so a chunk shares one
+ * SMTP connection instead of opening one per message. Delivered rows are deleted; failed ones
+ * are retried with exponential backoff until they run out of attempts. Claims lease the rows
+ * rather than holding locks over SMTP, so delivery is at-least-once and any number of
+ * instances can drain the table.
+ *
+ * The polling thread only claims, hands chunks to the pool and waits for them; when the
+ * pool's queue is full it waits for room, so SMTP work never runs on the scheduler.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailDeliveryWorker {
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.email.delivery.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.email.delivery.messages-per-connection:50}")
+    private int messagesPerConnection;
+
+    @Value("${app.email.delivery.connections:4}")
+    private int connections;
+
+    @Value("${app.email.delivery.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${app.email.delivery.lease:2m}")
+    private Duration lease;
+
+    @Value("${app.email.delivery.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.email.delivery.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${app.email.delivery.max-backoff:1h}")
+    private Duration maxBackoff;
+
+    private ThreadPoolExecutor executor;
+    private Timer chunkTimer;
+    private Counter delivered;
+    private Counter retried;
+    private Counter dead;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(connections, connections, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+            runnable -> {
+                Thread thread = new Thread(runnable, "email-delivery-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            (runnable, pool) -> {
+                // Wait for a free slot rather than sending on the scheduler thread
+                if (pool.isShutdown()) {
+                    throw new RejectedExecutionException("Email delivery is shutting down");
+                }
+                try {
+                    pool.getQueue().put(runnable);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Interrupted while queueing an email chunk", e);
+                }
+            });
+
+        chunkTimer = Timer.builder("banking.email.delivery.chunk")
+            .description("Time to send one chunk of emails over a single SMTP connection")
+            .register(meterRegistry);
+        delivered = meterRegistry.counter("banking.email.delivery", "outcome", "delivered");
+        retried = meterRegistry.counter("banking.email.delivery", "outcome", "retried");
+        dead = meterRegistry.counter("banking.email.delivery", "outcome", "failed");
+        Gauge.builder("banking.email.delivery.queue", executor, pool -> pool.getQueue().size())
+            .description("Email chunks waiting for a delivery thread")
+            .register(meterRegistry);
+        Gauge.builder("banking.email.delivery.active", executor, ThreadPoolExecutor::getActiveCount)
+            .register(meterRegistry);
+        Gauge.builder("banking.email.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+            .description("How long the longest-waiting deliverable email has been due")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.delivery.poll-interval-ms:1000}")
+    public void deliver() {
+        try {
+            // Keep draining while batches come back full
+            while (deliverBatch() == batchSize) {
+                // next batch
+            }
+            lagMillis.set(outboxRepository.findOldestDueAge().map(Duration::toMillis).orElse(0L));
+        } catch (Exception e) {
+            log.error("Email delivery failed", e);
+        }
+    }
+
+    private int deliverBatch() {
+        List<OutboxEmail> batch = transactionTemplate.execute(status -> outboxRepository.claimBatch(batchSize, lease));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Future<?>> sends = new ArrayList<>();
+        for (int from = 0; from < batch.size(); from += messagesPerConnection) {
+            List<OutboxEmail> chunk = batch.subList(from, Math.min(batch.size(), from + messagesPerConnection));
+            sends.add(executor.submit(() -> chunkTimer.record(() -> sendChunk(chunk))));
+        }
+        for (Future<?> send : sends) {
+            try {
+                send.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                // Rows of a chunk that failed to record its outcome come back after the lease
+                log.error("Unexpected error in email delivery worker", e.getCause());
+            }
+        }
+        return batch.size();
+    }
+
+    private void sendChunk(List<OutboxEmail> chunk) {
+        Map<MimeMessage, OutboxEmail> byMessage = new IdentityHashMap<>(chunk.size());
+        Map<OutboxEmail, Exception> failures = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(chunk.size());
+        for (OutboxEmail email : chunk) {
+            try {
+                MimeMessage message = toMimeMessage(email);
+                messages.add(message);
+                byMessage.put(message, email);
+            } catch (MessagingException e) {
+                failures.put(email, e);
+            }
+        }
+
+        try {
+            if (!messages.isEmpty()) {
+                mailSender.send(messages.toArray(MimeMessage[]::new));
+            }
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                byMessage.values().forEach(email -> failures.put(email, e));
+            }
+            e.getFailedMessages().forEach((message, cause) -> {
+                OutboxEmail email = byMessage.get(message);
+                if (email != null) {
+                    failures.put(email, cause);
+                }
+            });
+        } catch (Exception e) {
+            // Connection or authentication failure: nothing in the chunk went out
+            byMessage.values().forEach(email -> failures.put(email, e));
+        }
+
+        List<Long> sent = new ArrayList<>(chunk.size() - failures.size());
+        List<Retry> retries = new ArrayList<>();
+        List<Retry> exhausted = new ArrayList<>();
+        for (OutboxEmail email : chunk) {
+            Exception failure = failures.get(email);
+            if (failure == null) {
+                sent.add(email.id());
+                continue;
+            }
+            int attempts = email.attempts() + 1;
+            Retry retry = new Retry(email.id(), attempts, backoff(attempts), failure.getMessage());
+            if (attempts >= maxAttempts) {
+                log.error("Giving up on email {} to {} after {} attempts", email.id(), email.recipient(), attempts, failure);
+                exhausted.add(retry);
+            } else {
+                log.warn("Failed to send email {} to {}, retrying in {}: {}",
+                    email.id(), email.recipient(), retry.backoff(), failure.getMessage());
+                retries.add(retry);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxRepository.deleteByIds(sent);
+            outboxRepository.scheduleRetries(retries);
+            outboxRepository.markFailed(exhausted);
+        });
+        delivered.increment(sent.size());
+        retried.increment(retries.size());
+        dead.increment(exhausted.size());
+    }
+
+    private MimeMessage toMimeMessage(OutboxEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, email.html() != null, "UTF-8");
+        helper.setTo(email.recipient());
+        helper.setSubject(email.subject());
+        if (email.html() != null) {
+            helper.setText(email.body(), email.html());
+        } else {
+            helper.setText(email.body());
+        }
+        return message;
+    }
+
+    /**
+     * Initial backoff doubled for each attempt after the first, capped at the maximum.
+     */
+    private Duration backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        Duration backoff = initialBackoff.multipliedBy(1L << doublings);
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
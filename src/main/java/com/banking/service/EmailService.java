@@ -1,17 +1,22 @@
 package com.banking.service;
 
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
-import java.util.Map;
+import com.banking.repository.EmailOutboxRepository;
+import com.banking.util.KeyedRateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.time.Duration;
-import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
 import java.util.regex.Pattern;
 
 @Slf4j
@@ -21,46 +26,85 @@ public class EmailService {
     private static final Pattern EMAIL_PATTERN = Pattern.compile(
         "^[A-Za-z0-9+_.-]+@(.+)$"
     );
-    private static final int MAX_EMAILS_PER_HOUR = 100;
     private static final Duration RATE_LIMIT_WINDOW = Duration.ofHours(1);
     
-    private final JavaMailSender mailSender;
-    private final Map<String, EmailRateLimit> rateLimitMap = new ConcurrentHashMap<>();
+    private final EmailOutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.email.rate-limit.per-hour:100}")
+    private int maxEmailsPerHour;
+
+    @Value("${app.email.rate-limit.max-recipients:100000}")
+    private int maxTrackedRecipients;
+
+    private KeyedRateLimiter<String> rateLimiter;
+
+    @PostConstruct
+    public void init() {
+        rateLimiter = new KeyedRateLimiter<>(maxEmailsPerHour, RATE_LIMIT_WINDOW, maxTrackedRecipients);
+        FunctionCounter.builder("banking.email.rate_limited", rateLimiter, KeyedRateLimiter::rejectedCount)
+            .description("Emails dropped because the recipient hit the hourly limit")
+            .register(meterRegistry);
+        Gauge.builder("banking.email.rate_limiter.recipients", rateLimiter, KeyedRateLimiter::size)
+            .description("Recipients currently tracked by the email rate limiter")
+            .register(meterRegistry);
+        FunctionCounter.builder("banking.email.rate_limiter.evictions", rateLimiter, KeyedRateLimiter::evictionCount)
+            .register(meterRegistry);
+    }
 
     /**
-     * Send a simple text email
+     * Queue a simple text email for delivery by {@link EmailDeliveryWorker}. The email is
+     * written to the outbox in the caller's transaction, if there is one, and is only sent
+     * once that commits.
      * @param to Recipient email address
      * @param subject Email subject
      * @param text Plain text email content
      */
-    @Async
     public void sendEmail(String to, String subject, String text) {
+        sendEmail(to, subject, text, null);
+    }
+
+    /**
+     * Queue an email with a plain text body and an HTML alternative.
+     * @param html HTML email content, or null for a text-only email
+     */
+    public void sendEmail(String to, String subject, String text, String html) {
         if (!isValidEmail(to)) {
             log.warn("Invalid email address: {}", to);
             return;
         }
+        transactionTemplate.executeWithoutResult(status -> queue(to, subject, text, html));
+    }
 
-        // Check rate limiting
-        if (isRateLimited(to)) {
-            log.warn("Rate limit exceeded for email: {}", to);
-            return;
-        }
-
+    /**
+     * Runs in the caller's transaction or a new one. The rate-limit permit is taken only once
+     * the row is queued, and given back if the transaction rolls back; a rate-limited email is
+     * deleted again before the transaction commits, so the delivery worker never sees it.
+     * Failures are logged rather than thrown, so they never roll back the caller's work.
+     */
+    private void queue(String to, String subject, String text, String html) {
+        String recipient = to.toLowerCase(Locale.ROOT);
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-            
-            mailSender.send(message);
-            log.info("Email sent to {}", to);
-            
-            // Update rate limit counter
-            updateRateLimit(to);
-            
+            long id = outboxRepository.append(to, subject, text, html);
+            if (!rateLimiter.tryAcquire(recipient)) {
+                log.warn("Rate limit exceeded for email: {}", to);
+                outboxRepository.deleteByIds(List.of(id));
+                return;
+            }
         } catch (Exception e) {
-            log.error("Failed to send email to {}: {}", to, e.getMessage(), e);
+            log.error("Failed to queue email to {}: {}", to, e.getMessage(), e);
+            return;
         }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    rateLimiter.release(recipient);
+                }
+            }
+        });
+        log.debug("Email to {} queued", to);
     }
 
     /**
@@ -69,57 +113,4 @@ public class EmailService {
     private boolean isValidEmail(String email) {
         return email != null && EMAIL_PATTERN.matcher(email).matches();
     }
-
-    /**
-     * Check if the email is rate limited
-     */
-    private boolean isRateLimited(String email) {
-        EmailRateLimit rateLimit = rateLimitMap.computeIfAbsent(
-            email, k -> new EmailRateLimit()
-        );
-        
-        // Reset counter if window has passed
-        if (Duration.between(rateLimit.getLastReset(), LocalDateTime.now())
-                .compareTo(RATE_LIMIT_WINDOW) > 0) {
-            rateLimit.reset();
-            return false;
-        }
-        
-        return rateLimit.getCount() >= MAX_EMAILS_PER_HOUR;
-    }
-    
-    /**
-     * Update the rate limit counter for an email
-     */
-    private void updateRateLimit(String email) {
-        EmailRateLimit rateLimit = rateLimitMap.get(email);
-        if (rateLimit != null) {
-            rateLimit.increment();
-        }
-    }
-    
-    /**
-     * Inner class to track email rate limiting per recipient
-     */
-    private static class EmailRateLimit {
-        private final AtomicInteger counter = new AtomicInteger(0);
-        private volatile LocalDateTime lastReset = LocalDateTime.now();
-        
-        public int getCount() {
-            return counter.get();
-        }
-        
-        public LocalDateTime getLastReset() {
-            return lastReset;
-        }
-        
-        public void increment() {
-            counter.incrementAndGet();
-        }
-        
-        public void reset() {
-            counter.set(1);
-            lastReset = LocalDateTime.now();
-        }
-    }
 }
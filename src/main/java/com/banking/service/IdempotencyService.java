@@ -0,0 +1,247 @@
+package com.banking.service;
+
+import com.banking.dto.transaction.TransactionResponse;
+import com.banking.entity.IdempotencyKey;
+import com.banking.exception.IdempotencyKeyException;
+import com.banking.repository.IdempotencyKeyRepository;
+import com.banking.util.BoundedTtlCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response for a repeated {@code Idempotency-Key} instead of posting again.
+ *
+ * Lookups go to a bounded in-memory cache first and to the {@code idempotency_keys} table on
+ * a miss. Before the action runs, the key is claimed by inserting a row without a response;
+ * only the request whose insert wins runs the action, so the primary key settles races
+ * between nodes even for ledger postings, which cannot be rolled back. The response is
+ * stored in the action's own transaction. Within a node, concurrent requests with the same
+ * key wait for the first one to finish; on other nodes they are rejected as in progress.
+ *
+ * A claim is released if the action fails, so the client can retry. If the action succeeded
+ * but its response could not be stored, the claim is kept and the key stays unusable until
+ * it expires; retrying could post twice.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.cache-size:100000}")
+    private int cacheSize;
+
+    @Value("${app.idempotency.in-flight-wait-ms:30000}")
+    private long inFlightWaitMs;
+
+    private BoundedTtlCache<String, StoredResponse> cache;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private Counter cacheHits;
+    private Counter databaseHits;
+    private Counter executions;
+
+    @PostConstruct
+    public void init() {
+        cache = new BoundedTtlCache<>(cacheSize, Duration.ofHours(ttlHours));
+        cacheHits = meterRegistry.counter("banking.idempotency.replays", "source", "cache");
+        databaseHits = meterRegistry.counter("banking.idempotency.replays", "source", "database");
+        executions = meterRegistry.counter("banking.idempotency.executions");
+        FunctionCounter.builder("banking.idempotency.cache.evictions", cache, BoundedTtlCache::evictionCount)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Run the action once per key and user, returning the stored response for repeats.
+     * Without a key the action simply runs.
+     *
+     * @param operation name of the endpoint, so a key reused on another endpoint is rejected
+     * @param request   request body, fingerprinted to reject a key reused with a different payload
+     */
+    public TransactionResponse execute(String idempotencyKey, Long userId, String operation, Object request,
+                                       Supplier<TransactionResponse> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IdempotencyKeyException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String cacheKey = userId + ":" + idempotencyKey;
+        String requestHash = fingerprint(operation, request);
+
+        StoredResponse cached = cache.get(cacheKey);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached.replay(requestHash);
+        }
+
+        CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(cacheKey, pending);
+        if (existing != null) {
+            return awaitInFlight(existing).replay(requestHash);
+        }
+
+        try {
+            StoredResponse stored = loadOrExecute(cacheKey, requestHash, action);
+            cache.put(cacheKey, stored);
+            pending.complete(stored);
+            return stored.replay(requestHash);
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, pending);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpiredKeys() {
+        int deleted = idempotencyKeyRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private StoredResponse loadOrExecute(String cacheKey, String requestHash, Supplier<TransactionResponse> action) {
+        StoredResponse stored = claimOrLoad(cacheKey, requestHash);
+        if (stored != null) {
+            databaseHits.increment();
+            return stored;
+        }
+
+        boolean[] actionCompleted = new boolean[1];
+        try {
+            StoredResponse executed = transactionTemplate.execute(status -> {
+                TransactionResponse response = action.get();
+                actionCompleted[0] = true;
+                idempotencyKeyRepository.complete(cacheKey, toJson(response));
+                return new StoredResponse(requestHash, response);
+            });
+            executions.increment();
+            return executed;
+        } catch (RuntimeException e) {
+            if (actionCompleted[0]) {
+                log.error("Idempotency key {} stays claimed: its action completed but the response was not stored",
+                    cacheKey, e);
+            } else {
+                idempotencyKeyRepository.release(cacheKey);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Claim the key for this request.
+     * @return null if the claim won and the action should run, otherwise the stored response
+     * @throws IdempotencyKeyException if another request holds the key without a response yet
+     */
+    private StoredResponse claimOrLoad(String cacheKey, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusHours(ttlHours);
+        if (idempotencyKeyRepository.claim(cacheKey, requestHash, expiresAt) == 1) {
+            return null;
+        }
+        // An expired key not yet purged is free to reuse
+        if (idempotencyKeyRepository.deleteExpired(cacheKey, now) == 1
+            && idempotencyKeyRepository.claim(cacheKey, requestHash, expiresAt) == 1) {
+            return null;
+        }
+
+        IdempotencyKey key = idempotencyKeyRepository.findById(cacheKey)
+            .orElseThrow(() -> new IdempotencyKeyException("Idempotency-Key was released concurrently, please retry"));
+        if (key.getResponseBody() == null) {
+            if (!key.getRequestHash().equals(requestHash)) {
+                throw new IdempotencyKeyException("Idempotency-Key was already used with a different request");
+            }
+            throw new IdempotencyKeyException("A request with this Idempotency-Key is still in progress");
+        }
+        return new StoredResponse(key.getRequestHash(), fromJson(key.getResponseBody()));
+    }
+
+    private StoredResponse awaitInFlight(CompletableFuture<StoredResponse> existing) {
+        try {
+            return existing.get(inFlightWaitMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyException("A request with this Idempotency-Key is still in progress", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for in-flight request", e);
+        }
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ':');
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Failed to fingerprint request", e);
+        }
+    }
+
+    private String toJson(TransactionResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotent response", e);
+        }
+    }
+
+    private TransactionResponse fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, TransactionResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read stored idempotent response", e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, TransactionResponse response) {
+        TransactionResponse replay(String expectedHash) {
+            if (!requestHash.equals(expectedHash)) {
+                throw new IdempotencyKeyException("Idempotency-Key was already used with a different request");
+            }
+            return response;
+        }
+    }
+}
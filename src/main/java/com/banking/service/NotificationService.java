@@ -1,10 +1,14 @@
 package com.banking.service;
 
 import com.banking.dto.event.TransactionEvent;
+import com.banking.service.template.EmailTemplates;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -12,25 +16,13 @@ public class NotificationService {
 
     private final EmailService emailService;
     private final UserService userService;
+    private final EmailTemplates emailTemplates;
 
     public void sendTransactionNotification(TransactionEvent event) {
         try {
             String recipientEmail = userService.getUserEmail(event.getFromAccount());
             String subject = "Transaction Notification";
-            String message = String.format(
-                "Transaction Alert!\n" +
-                "Type: %s\n" +
-                "Amount: %s %s\n" +
-                "Account: %s\n" +
-                "Status: %s\n" +
-                "Description: %s",
-                event.getType(),
-                event.getAmount(),
-                event.getCurrency(),
-                maskAccountNumber(event.getFromAccount()),
-                event.getStatus(),
-                event.getDescription()
-            );
+            String message = emailTemplates.render("transaction-notification", model(event)).text();
             
             emailService.sendEmail(recipientEmail, subject, message);
             log.info("Sent transaction notification for transaction: {}", event.getTransactionId());
@@ -45,18 +37,7 @@ public class NotificationService {
         try {
             String recipientEmail = userService.getUserEmail(event.getFromAccount());
             String subject = "Transaction Failed";
-            String message = String.format(
-                "Transaction Failed!\n" +
-                "Type: %s\n" +
-                "Amount: %s %s\n" +
-                "Account: %s\n" +
-                "Reason: %s",
-                event.getType(),
-                event.getAmount(),
-                event.getCurrency(),
-                maskAccountNumber(event.getFromAccount()),
-                event.getDescription()
-            );
+            String message = emailTemplates.render("transaction-failed", model(event)).text();
             
             emailService.sendEmail(recipientEmail, subject, message);
             log.warn("Sent transaction failure notification for: {}", event.getTransactionId());
@@ -66,6 +47,17 @@ public class NotificationService {
         }
     }
 
+    private Map<String, Object> model(TransactionEvent event) {
+        Map<String, Object> model = new HashMap<>();
+        model.put("type", event.getType());
+        model.put("amount", event.getAmount());
+        model.put("currency", event.getCurrency());
+        model.put("account", maskAccountNumber(event.getFromAccount()));
+        model.put("status", event.getStatus());
+        model.put("description", event.getDescription());
+        return model;
+    }
+
     private String maskAccountNumber(String accountNumber) {
         if (accountNumber == null || accountNumber.length() < 4) {
             return "****";
@@ -0,0 +1,258 @@
+package com.banking.service;
+
+import com.banking.dto.transaction.TransactionRequest;
+import com.banking.dto.transaction.TransactionResponse;
+import com.banking.model.Account;
+import com.banking.model.RecurringPayment;
+import com.banking.model.RecurringPayment.Status;
+import com.banking.repository.RecurringPaymentLeaseRepository;
+import com.banking.repository.RecurringPaymentRepository;
+import com.banking.service.ledger.LedgerEngine;
+import com.banking.service.template.EmailTemplates;
+import com.banking.service.template.EmailTemplates.RenderedEmail;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Charges a single recurring payment in its own transaction. Kept apart from
+ * {@link RecurringPaymentService} so calls go through the transactional proxy.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecurringPaymentProcessor {
+
+    private final TransactionService transactionService;
+    private final RecurringPaymentRepository recurringPaymentRepository;
+    private final RecurringPaymentLeaseRepository leaseRepository;
+    private final EmailService emailService;
+    private final EmailTemplates emailTemplates;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+
+    /**
+     * Charge the payment if it is still due and still leased by {@code owner}. The schedule row
+     * stays locked until commit, and moving its next payment date is part of the same
+     * transaction, so an instance that claims it afterwards finds it no longer due. The
+     * notification is queued in the email outbox in the same transaction.
+     *
+     * A ledger posting is final as soon as it is made and cannot join that transaction, so in
+     * ledger mode the next payment date is committed first and the payment charged after it.
+     * A commit failing once the charge is booked then leaves the payment no longer due instead
+     * of due again; a posting that fails moves the date back so the payment is retried.
+     *
+     * @return the next due date, or empty if the payment was skipped because it was cancelled,
+     *         another instance has taken it over or it was already charged
+     */
+    public Optional<LocalDateTime> process(Long recurringPaymentId, String owner) {
+        if (ledgerEngine.getIfAvailable() != null) {
+            return processOnLedger(recurringPaymentId, owner);
+        }
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            RecurringPayment payment = lockIfDue(recurringPaymentId, owner, now);
+            if (payment == null) {
+                return Optional.empty();
+            }
+            log.info("Processing recurring payment with ID: {}", recurringPaymentId);
+
+            TransactionResponse charged = transactionService.processTransaction(
+                createTransactionRequest(payment), payerId(payment));
+
+            advance(payment, now);
+            payment.setLastTransactionId(charged.id());
+            leaseRepository.release(recurringPaymentId, owner);
+
+            sendSuccessNotification(payment, charged.transactionReference());
+            return Optional.of(payment.getNextPaymentDate());
+        });
+    }
+
+    private Optional<LocalDateTime> processOnLedger(Long recurringPaymentId, String owner) {
+        Advanced advanced = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            RecurringPayment payment = lockIfDue(recurringPaymentId, owner, now);
+            if (payment == null) {
+                return null;
+            }
+            LocalDateTime dueDate = payment.getNextPaymentDate();
+            LocalDateTime lastPaymentDate = payment.getLastPaymentDate();
+            advance(payment, now);
+            return new Advanced(createTransactionRequest(payment), payerId(payment),
+                dueDate, lastPaymentDate, payment.getNextPaymentDate());
+        });
+        if (advanced == null) {
+            return Optional.empty();
+        }
+        log.info("Processing recurring payment with ID: {} on the ledger", recurringPaymentId);
+
+        TransactionResponse charged;
+        try {
+            charged = transactionService.processTransaction(advanced.request(), advanced.payerId());
+        } catch (RuntimeException e) {
+            // An interrupted wait may have left the posting applied, so only a known outcome is retried
+            if (!Thread.currentThread().isInterrupted()) {
+                restoreDueDate(recurringPaymentId, owner, advanced);
+            }
+            throw e;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                recurringPaymentRepository.findByIdForUpdate(recurringPaymentId).ifPresent(payment -> {
+                    payment.setLastTransactionId(charged.id());
+                    sendSuccessNotification(payment, charged.transactionReference());
+                });
+                leaseRepository.release(recurringPaymentId, owner);
+            });
+        } catch (RuntimeException e) {
+            // The charge and the schedule are both settled; the lease simply runs out
+            log.error("Failed to record transaction {} for recurring payment: {}",
+                charged.transactionReference(), recurringPaymentId, e);
+        }
+        return Optional.of(advanced.nextPaymentDate());
+    }
+
+    private void restoreDueDate(Long recurringPaymentId, String owner, Advanced advanced) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                RecurringPayment payment = recurringPaymentRepository.findByIdForUpdate(recurringPaymentId).orElse(null);
+                if (payment != null && advanced.nextPaymentDate().equals(payment.getNextPaymentDate())
+                        && leaseRepository.isHeldBy(recurringPaymentId, owner)) {
+                    payment.setNextPaymentDate(advanced.dueDate());
+                    payment.setLastPaymentDate(advanced.lastPaymentDate());
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to reschedule uncharged recurring payment: {}; it is skipped until {}",
+                recurringPaymentId, advanced.nextPaymentDate(), e);
+        }
+    }
+
+    private RecurringPayment lockIfDue(Long recurringPaymentId, String owner, LocalDateTime now) {
+        RecurringPayment payment = recurringPaymentRepository.findByIdForUpdate(recurringPaymentId).orElse(null);
+        if (payment == null || payment.getStatus() == Status.CANCELLED || payment.getNextPaymentDate() == null
+                || payment.getNextPaymentDate().isAfter(now)
+                || !leaseRepository.isHeldBy(recurringPaymentId, owner)) {
+            return null;
+        }
+        return payment;
+    }
+
+    private static void advance(RecurringPayment payment, LocalDateTime now) {
+        payment.setLastPaymentDate(now);
+        payment.setNextPaymentDate(calculateNextPaymentDate(payment, now));
+        payment.setStatus(Status.ACTIVE);
+    }
+
+    /**
+     * Record a failed attempt. The lease is kept until {@code retryAt}, so the payment is not
+     * claimed again before then.
+     */
+    @Transactional
+    public void markFailed(Long recurringPaymentId, String owner, String errorMessage, LocalDateTime retryAt) {
+        RecurringPayment payment = recurringPaymentRepository.findByIdForUpdate(recurringPaymentId).orElse(null);
+        if (payment == null || !leaseRepository.isHeldBy(recurringPaymentId, owner)) {
+            return;
+        }
+        payment.setStatus(Status.FAILED);
+        leaseRepository.extend(recurringPaymentId, owner, retryAt);
+
+        sendFailureNotification(payment, errorMessage);
+    }
+
+    private static Long payerId(RecurringPayment payment) {
+        Account payer = payment.getFromAccount() != null ? payment.getFromAccount() : payment.getToAccount();
+        return payer.getUser().getId();
+    }
+    
+    private TransactionRequest createTransactionRequest(RecurringPayment payment) {
+        String fromAccount = payment.getFromAccount() != null ? 
+            payment.getFromAccount().getAccountNumber() : null;
+        String toAccount = payment.getToAccount() != null ? 
+            payment.getToAccount().getAccountNumber() : null;
+            
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("recurringTransactionId", payment.getId());
+        metadata.put("isRecurringPayment", true);
+        
+        return new TransactionRequest(
+            fromAccount,
+            toAccount,
+            payment.getAmount(),
+            payment.getCurrency(),
+            payment.getTransactionType(),
+            "Recurring payment: " + (payment.getDescription() != null ? 
+                payment.getDescription() : ""),
+            metadata
+        );
+    }
+    
+    private void sendSuccessNotification(RecurringPayment payment, String transactionReference) {
+        try {
+            Map<String, Object> model = notificationModel(payment);
+            model.put("transactionReference", transactionReference);
+            RenderedEmail email = emailTemplates.render("recurring-payment-success", model);
+            
+            String emailSubject = String.format("Payment Processed - %s", transactionReference);
+            emailService.sendEmail(payment.getFromAccount().getUser().getEmail(), emailSubject, email.text(), email.html());
+        } catch (Exception e) {
+            log.error("Failed to send success notification for recurring payment: {}", 
+                    payment.getId(), e);
+        }
+    }
+    
+    private void sendFailureNotification(RecurringPayment payment, String errorMessage) {
+        try {
+            Map<String, Object> model = notificationModel(payment);
+            model.put("errorMessage", errorMessage);
+            RenderedEmail email = emailTemplates.render("recurring-payment-failed", model);
+            
+            String emailSubject = String.format("Payment Failed - Recurring Payment #%s", payment.getId());
+            emailService.sendEmail(payment.getFromAccount().getUser().getEmail(), emailSubject, email.text(), email.html());
+        } catch (Exception e) {
+            log.error("Failed to send failure notification for recurring payment: {}", 
+                    payment.getId(), e);
+        }
+    }
+    
+    private static Map<String, Object> notificationModel(RecurringPayment payment) {
+        Account fromAccount = payment.getFromAccount();
+        Map<String, Object> model = new HashMap<>();
+        model.put("userName", fromAccount.getUser().getFirstName() + " " + fromAccount.getUser().getLastName());
+        model.put("amount", payment.getAmount().toPlainString());
+        model.put("currency", payment.getCurrency());
+        model.put("fromAccount", fromAccount.getAccountNumber());
+        model.put("toAccount", payment.getToAccount() != null ? payment.getToAccount().getAccountNumber() : "N/A");
+        model.put("transactionDate", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE));
+        model.put("description", payment.getDescription());
+        return model;
+    }
+    
+    /**
+     * A ledger-mode payment whose schedule was committed past {@code dueDate} before charging.
+     */
+    private record Advanced(TransactionRequest request, Long payerId, LocalDateTime dueDate,
+                            LocalDateTime lastPaymentDate, LocalDateTime nextPaymentDate) {
+    }
+
+    /**
+     * Next due date counted from the one just charged, so the payment keeps its time of day.
+     * After an outage longer than a whole period it is counted from now instead, rather than
+     * charging once for every period missed.
+     */
+    private static LocalDateTime calculateNextPaymentDate(RecurringPayment payment, LocalDateTime now) {
+        LocalDateTime next = payment.nextPaymentDateAfter(payment.getNextPaymentDate());
+        return next.isAfter(now) ? next : payment.nextPaymentDateAfter(now);
+    }
+}
@@ -1,208 +1,286 @@
 package com.banking.service;
 
-import com.banking.dto.transaction.TransactionRequest;
 import com.banking.exception.InsufficientFundsException;
-import com.banking.model.Account;
-import com.banking.model.Transaction;
-import com.banking.model.Transaction.Frequency;
-import com.banking.model.Transaction.TransactionStatus;
-import com.banking.model.Transaction.TransactionType;
-import com.banking.repository.TransactionRepository;
+import com.banking.id.IdGenerator;
+import com.banking.repository.RecurringPaymentLeaseRepository;
+import com.banking.repository.RecurringPaymentLeaseRepository.Upcoming;
+import com.banking.util.HierarchicalTimingWheel;
+import com.banking.util.HierarchicalTimingWheel.Timeout;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Runs recurring payments at their due time. Schedules due within the next horizon are
+ * loaded from the recurring_payments next-due index into a {@link HierarchicalTimingWheel};
+ * each tick, the payments that came due are queued for a dispatcher thread, which claims them
+ * through leases and hands them to a bounded pool to be charged, one transaction per payment,
+ * and put back on the wheel at their next due date. The ticker only advances the wheel, so a
+ * slow database or a busy pool delays charging but never the wheel; the dispatcher waits for
+ * room in the pool instead.
+ *
+ * Any number of instances can run this concurrently: each loads the same horizon, claims skip
+ * rows another instance is holding, and {@link RecurringPaymentProcessor} re-checks due date
+ * and lease under a row lock before charging. Schedules changed behind the wheel's back are
+ * corrected on the next reload.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RecurringPaymentService {
-    private final TransactionService transactionService;
-    private final TransactionRepository transactionRepository;
-    private final EmailService emailService;
-
-    @Scheduled(cron = "0 0 0 * * ?") // Run daily at midnight
-    @Transactional
-    public void processRecurringPayments() {
-        log.info("Processing recurring payments at {}", LocalDateTime.now());
-        
-        var recurringTransactions = transactionRepository
-            .findRecurringTransactionsDueForProcessing(LocalDateTime.now());
-        
-        for (var transaction : recurringTransactions) {
-            try {
-                processSingleRecurringPayment(transaction);
-            } catch (Exception e) {
-                log.error("Unexpected error processing recurring payment: {}", transaction.getId(), e);
-            }
-        }
-    }
-    
-    @Transactional
-    protected void processSingleRecurringPayment(Transaction transaction) {
-        log.info("Processing recurring payment with ID: {}", transaction.getId());
-        
-        try {
-            // Create transaction request
-            TransactionRequest request = createTransactionRequest(transaction);
-            Long userId = transaction.getFromAccount().getUser().getId();
-            
-            // Process the transaction
-            transactionService.processTransaction(request, userId);
-            
-            // Update recurring transaction details
-            updateRecurringTransaction(transaction);
-            
-            // Send success notification
-            sendSuccessNotification(transaction);
-            
-        } catch (InsufficientFundsException e) {
-            handleInsufficientFunds(transaction, e);
-        } catch (Exception e) {
-            handleTransactionFailure(transaction, e);
-        }
+
+    private static final int WHEEL_SIZE = 60;
+    private static final long DISPATCH_POLL_MS = 500;
+
+    private final RecurringPaymentProcessor processor;
+    private final RecurringPaymentLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final IdGenerator idGenerator;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.recurring.tick:1s}")
+    private Duration tick;
+
+    @Value("${app.recurring.horizon:1h}")
+    private Duration horizon;
+
+    @Value("${app.recurring.max-scheduled:100000}")
+    private int maxScheduled;
+
+    @Value("${app.recurring.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${app.recurring.threads:4}")
+    private int threads;
+
+    @Value("${app.recurring.lease-duration:5m}")
+    private Duration leaseDuration;
+
+    @Value("${app.recurring.failure-retry-delay:24h}")
+    private Duration failureRetryDelay;
+
+    private final Map<Long, Timeout<Long>> scheduled = new ConcurrentHashMap<>();
+    // Fired by the ticker, waiting for the dispatcher; at most the wheel's contents
+    private final BlockingQueue<Long> due = new LinkedBlockingQueue<>();
+    private HierarchicalTimingWheel<Long> wheel;
+    private String owner;
+    private ScheduledExecutorService ticker;
+    private Thread dispatcher;
+    private volatile boolean running;
+    private ThreadPoolExecutor executor;
+    private Timer fireDelay;
+    private Counter completed;
+    private Counter failed;
+    private Counter skipped;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        owner = "recurring-" + idGenerator.nextId();
+        wheel = new HierarchicalTimingWheel<>(tick.toMillis(), WHEEL_SIZE, System.currentTimeMillis());
+
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, chunkSize)),
+            runnable -> {
+                Thread thread = new Thread(runnable, "recurring-payment-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            (runnable, pool) -> {
+                // Blocking hand-off: the dispatcher waits for a free slot rather than charging itself
+                if (pool.isShutdown()) {
+                    throw new RejectedExecutionException("Recurring payments are shutting down");
+                }
+                try {
+                    pool.getQueue().put(runnable);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Interrupted while queueing a recurring payment", e);
+                }
+            });
+        running = true;
+        dispatcher = new Thread(this::dispatch, "recurring-dispatch");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recurring-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+
+        fireDelay = Timer.builder("banking.recurring.fire.delay")
+            .description("Time from a recurring payment's due time to its hand-off to a worker")
+            .register(meterRegistry);
+        completed = meterRegistry.counter("banking.recurring.payments", "outcome", "completed");
+        failed = meterRegistry.counter("banking.recurring.payments", "outcome", "failed");
+        skipped = meterRegistry.counter("banking.recurring.payments", "outcome", "skipped");
+        Gauge.builder("banking.recurring.scheduled", wheel, HierarchicalTimingWheel::size)
+            .description("Recurring payments waiting on the timing wheel")
+            .register(meterRegistry);
+        Gauge.builder("banking.recurring.due", due, BlockingQueue::size)
+            .description("Recurring payments that came due and are waiting to be claimed")
+            .register(meterRegistry);
+        Gauge.builder("banking.recurring.lag.seconds", lagSeconds, AtomicLong::get)
+            .description("Age of the oldest recurring payment still due")
+            .register(meterRegistry);
     }
-    
-    private TransactionRequest createTransactionRequest(Transaction transaction) {
-        String fromAccount = transaction.getFromAccount() != null ? 
-            transaction.getFromAccount().getAccountNumber() : null;
-        String toAccount = transaction.getToAccount() != null ? 
-            transaction.getToAccount().getAccountNumber() : null;
-            
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("recurringTransactionId", transaction.getId());
-        metadata.put("isRecurringPayment", true);
-        
-        return new TransactionRequest(
-            fromAccount,
-            toAccount,
-            transaction.getAmount(),
-            transaction.getCurrency(),
-            transaction.getTransactionType(),
-            "Recurring payment: " + (transaction.getDescription() != null ? 
-                transaction.getDescription() : ""),
-            metadata
-        );
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        ticker.shutdown();
+        ticker.awaitTermination(10, TimeUnit.SECONDS);
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
     }
-    
-    private void updateRecurringTransaction(Transaction transaction) {
-        transaction.setLastPaymentDate(LocalDateTime.now());
-        transaction.setNextPaymentDate(calculateNextPaymentDate(transaction));
-        transaction.setStatus(TransactionStatus.COMPLETED);
-        transactionRepository.save(transaction);
+
+    /**
+     * Load schedules due within the horizon onto the wheel. Payments already on it at the same
+     * time are left alone; ones whose due date moved are rescheduled.
+     */
+    @Scheduled(fixedDelayString = "${app.recurring.reload-interval-ms:300000}")
+    public void loadHorizon() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Upcoming> upcoming = leaseRepository.findUpcoming(now.plus(horizon), maxScheduled);
+        for (Upcoming payment : upcoming) {
+            schedule(payment.id(), payment.fireAt());
+        }
+        if (upcoming.size() == maxScheduled) {
+            log.warn("Recurring payment horizon truncated at {} schedules", maxScheduled);
+        }
+        lagSeconds.set(leaseRepository.findOldestDue(now)
+            .map(due -> Duration.between(due, now).getSeconds())
+            .orElse(0L));
     }
-    
-    private void sendSuccessNotification(Transaction transaction) {
+
+    /**
+     * Runs on the ticker: advance the wheel and queue what fired, nothing that can block.
+     */
+    private void tick() {
         try {
-            Account fromAccount = transaction.getFromAccount();
-            Account toAccount = transaction.getToAccount();
-            String userEmail = fromAccount.getUser().getEmail();
-            String userName = fromAccount.getUser().getFirstName() + " " + fromAccount.getUser().getLastName();
-            
-            String emailSubject = String.format("Payment Processed - %s", 
-                transaction.getTransactionReference());
-                
-            String emailBody = String.format(
-                "Hello %s,\n\n" +
-                "Your recurring payment has been processed successfully.\n\n" +
-                "Transaction Details:\n" +
-                "- Amount: %s %s\n" +
-                "- From Account: %s\n" +
-                "- To Account: %s\n" +
-                "- Date: %s\n" +
-                "- Reference: %s\n" +
-                (transaction.getDescription() != null ? "- Description: " + transaction.getDescription() + "\n" : "") +
-                "\nThank you for using our banking services.\n\n" +
-                "Best regards,\nYour Bank",
-                userName,
-                transaction.getAmount().toPlainString(),
-                transaction.getCurrency(),
-                fromAccount.getAccountNumber(),
-                toAccount != null ? toAccount.getAccountNumber() : "N/A",
-                LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE),
-                transaction.getTransactionReference()
-            );
-            
-            emailService.sendEmail(userEmail, emailSubject, emailBody);
+            long now = System.currentTimeMillis();
+            for (Timeout<Long> timeout : wheel.advanceTo(now)) {
+                scheduled.remove(timeout.item(), timeout);
+                fireDelay.record(Math.max(0, now - timeout.dueMillis()), TimeUnit.MILLISECONDS);
+                due.add(timeout.item());
+            }
         } catch (Exception e) {
-            log.error("Failed to send success notification for transaction: {}", 
-                    transaction.getId(), e);
+            log.error("Recurring payment tick failed", e);
         }
     }
-    
-    private void handleInsufficientFunds(Transaction transaction, InsufficientFundsException e) {
-        log.warn("Insufficient funds for recurring payment: {}", transaction.getId(), e);
-        updateFailedTransaction(transaction, "Insufficient funds: " + e.getMessage());
-    }
-    
-    private void handleTransactionFailure(Transaction transaction, Exception e) {
-        log.error("Failed to process recurring payment: {}", transaction.getId(), e);
-        updateFailedTransaction(transaction, e.getMessage());
+
+    /**
+     * Runs on the dispatcher: claim due payments a chunk at a time and hand them to the pool.
+     */
+    private void dispatch() {
+        List<Long> chunk = new ArrayList<>(chunkSize);
+        while (running) {
+            try {
+                Long first = due.poll(DISPATCH_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                chunk.add(first);
+                due.drainTo(chunk, chunkSize - 1);
+                List<Long> claimed = transactionTemplate.execute(status -> leaseRepository.claim(
+                    chunk, owner, LocalDateTime.now(), LocalDateTime.now().plus(leaseDuration)));
+                if (claimed != null) {
+                    for (Long id : claimed) {
+                        executor.execute(() -> runOne(id));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RejectedExecutionException e) {
+                // Shutting down; claimed payments become available again when their leases expire
+                return;
+            } catch (Exception e) {
+                log.error("Recurring payment dispatch failed", e);
+            } finally {
+                chunk.clear();
+            }
+        }
     }
-    
-    private void updateFailedTransaction(Transaction transaction, String errorMessage) {
+
+    private void runOne(Long id) {
         try {
-            transaction.setStatus(TransactionStatus.FAILED);
-            transaction.setLastPaymentDate(LocalDateTime.now());
-            transactionRepository.save(transaction);
-            sendFailureNotification(transaction, errorMessage);
-        } catch (Exception ex) {
-            log.error("Failed to update failed transaction status: {}", transaction.getId(), ex);
+            processor.process(id, owner).ifPresentOrElse(next -> {
+                completed.increment();
+                schedule(id, next);
+            }, skipped::increment);
+        } catch (InsufficientFundsException e) {
+            log.warn("Insufficient funds for recurring payment: {}", id);
+            fail(id, "Insufficient funds: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to process recurring payment: {}", id, e);
+            fail(id, e.getMessage());
         }
     }
-    
-    private void sendFailureNotification(Transaction transaction, String errorMessage) {
+
+    private void fail(Long id, String errorMessage) {
+        failed.increment();
+        LocalDateTime retryAt = LocalDateTime.now().plus(failureRetryDelay);
         try {
-            Account fromAccount = transaction.getFromAccount();
-            String userEmail = fromAccount.getUser().getEmail();
-            String userName = fromAccount.getUser().getFirstName() + " " + fromAccount.getUser().getLastName();
-            
-            String emailSubject = String.format("Payment Failed - Transaction #%s", 
-                transaction.getId());
-                
-            String emailBody = String.format(
-                "Hello %s,\n\n" +
-                "We were unable to process your recurring payment.\n\n" +
-                "Transaction Details:\n" +
-                "- Amount: %s %s\n" +
-                "- From Account: %s\n" +
-                "- To Account: %s\n" +
-                "- Date: %s\n" +
-                (transaction.getDescription() != null ? "- Description: " + transaction.getDescription() + "\n" : "") +
-                "- Error: %s\n\n" +
-                "Please contact customer support if you need assistance.\n\n" +
-                "Best regards,\nYour Bank",
-                userName,
-                transaction.getAmount().toPlainString(),
-                transaction.getCurrency(),
-                fromAccount.getAccountNumber(),
-                transaction.getToAccount() != null ? 
-                    transaction.getToAccount().getAccountNumber() : "N/A",
-                LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE),
-                errorMessage
-            );
-            
-            emailService.sendEmail(userEmail, emailSubject, emailBody);
+            processor.markFailed(id, owner, errorMessage, retryAt);
+            schedule(id, retryAt);
         } catch (Exception e) {
-            log.error("Failed to send failure notification for transaction: {}", 
-                    transaction.getId(), e);
+            log.error("Failed to update failed recurring payment: {}", id, e);
         }
     }
-    
-    private LocalDateTime calculateNextPaymentDate(Transaction transaction) {
-        return switch (transaction.getFrequency()) {
-            case DAILY -> LocalDateTime.now().plusDays(1);
-            case WEEKLY -> LocalDateTime.now().plusWeeks(1);
-            case MONTHLY -> LocalDateTime.now().plusMonths(1);
-            case QUARTERLY -> LocalDateTime.now().plusMonths(3);
-            case YEARLY -> LocalDateTime.now().plusYears(1);
-        };
+
+    /**
+     * Put the payment on the wheel at {@code at}, replacing any earlier entry. Times beyond the
+     * horizon are left for a later reload, which keeps the wheel to the horizon's worth of items.
+     */
+    private void schedule(Long id, LocalDateTime at) {
+        if (!at.isBefore(LocalDateTime.now().plus(horizon))) {
+            Timeout<Long> stale = scheduled.remove(id);
+            if (stale != null) {
+                stale.cancel();
+            }
+            return;
+        }
+        long dueMillis = at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        scheduled.compute(id, (key, existing) -> {
+            if (existing != null) {
+                if (existing.dueMillis() == dueMillis) {
+                    return existing;
+                }
+                existing.cancel();
+            }
+            return wheel.schedule(key, dueMillis);
+        });
     }
 }
@@ -0,0 +1,311 @@
+package com.banking.service;
+
+import com.banking.exception.InvalidAccountOperationException;
+import com.banking.exception.ServiceOverloadedException;
+import com.banking.repository.TransactionStatementRepository;
+import com.banking.repository.TransactionStatementRepository.StatementCursor;
+import com.banking.repository.TransactionStatementRepository.StatementLine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams an account statement as CSV or NDJSON. Outgoing and incoming rows come from two
+ * streaming cursors merged by (created_at, id), and each row is encoded into one reused
+ * buffer before it is written, so memory stays flat however long the statement is and the
+ * first rows leave as soon as the database returns them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatementExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format of(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidAccountOperationException("Unsupported statement format: " + value);
+            }
+        }
+    }
+
+    private static final String CSV_HEADER =
+        "id,reference,created_at,type,status,direction,amount,currency,counterparty,description\n";
+
+    private final TransactionStatementRepository statementRepository;
+    private final MeterRegistry meterRegistry;
+
+    /** Each export holds two pooled connections for its whole duration. */
+    @Value("${app.statement-export.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${app.statement-export.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMs;
+
+    @Value("${app.statement-export.retry-after-seconds:30}")
+    private long retryAfterSeconds;
+
+    @Value("${app.statement-export.buffer-size:16384}")
+    private int bufferSize;
+
+    private Semaphore permits;
+    private Counter rowsExported;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxConcurrent, true);
+        rowsExported = meterRegistry.counter("banking.statement.export.rows");
+    }
+
+    /**
+     * Reserve an export slot and return the body that writes the statement for
+     * {@code [from, to]}. The slot is released when the body finishes or fails, or when the
+     * async request completes, times out or errors without the body ever running.
+     *
+     * @throws ServiceOverloadedException if no slot frees up within the acquire timeout
+     */
+    public StreamingResponseBody export(Long accountId, LocalDate from, LocalDate to, Format format) {
+        if (to.isBefore(from)) {
+            throw new InvalidAccountOperationException("Statement end date is before its start date");
+        }
+        acquire();
+        // Whoever flips this first releases the slot: the body once it has run, or the request if it never did
+        AtomicBoolean claimed = new AtomicBoolean();
+        releaseOnCompletion(claimed);
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        return outputStream -> {
+            if (!claimed.compareAndSet(false, true)) {
+                throw new IOException("Statement export was abandoned before it started");
+            }
+            try {
+                write(accountId, start, end, format, outputStream);
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    private void releaseOnCompletion(AtomicBoolean claimed) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        WebAsyncUtils.getAsyncManager(attributes.getRequest()).registerCallableInterceptor(
+            StatementExportService.class.getName(), new CallableProcessingInterceptor() {
+                @Override
+                public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                    if (claimed.compareAndSet(false, true)) {
+                        permits.release();
+                    }
+                }
+            });
+    }
+
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new ServiceOverloadedException("Too many statement exports in progress, please retry",
+                    retryAfterSeconds);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Interrupted while waiting for an export slot", retryAfterSeconds, e);
+        }
+    }
+
+    private void write(Long accountId, LocalDateTime from, LocalDateTime to, Format format, OutputStream outputStream)
+            throws IOException {
+        Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+        StringBuilder line = new StringBuilder(512);
+        char[] chars = new char[bufferSize];
+        int buffered = 0;
+        long rows = 0;
+
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+        }
+        try (StatementCursor outgoing = statementRepository.openOutgoing(accountId, from, to);
+             StatementCursor incoming = statementRepository.openIncoming(accountId, from, to)) {
+            boolean hasOutgoing = outgoing.advance();
+            boolean hasIncoming = incoming.advance();
+            long lastId = Long.MIN_VALUE;
+            while (hasOutgoing || hasIncoming) {
+                StatementCursor next = !hasIncoming || (hasOutgoing && isBefore(outgoing.current(), incoming.current()))
+                    ? outgoing : incoming;
+                StatementLine row = next.current();
+                // A transfer from the account to itself is on both sides; keep the debit only
+                if (row.id() != lastId) {
+                    lastId = row.id();
+                    line.setLength(0);
+                    if (format == Format.CSV) {
+                        appendCsv(line, row);
+                    } else {
+                        appendJson(line, row);
+                    }
+                    if (buffered + line.length() > chars.length) {
+                        writer.write(chars, 0, buffered);
+                        buffered = 0;
+                    }
+                    if (line.length() > chars.length) {
+                        writer.write(line.toString());
+                    } else {
+                        line.getChars(0, line.length(), chars, buffered);
+                        buffered += line.length();
+                    }
+                    rows++;
+                }
+                if (next == outgoing) {
+                    hasOutgoing = outgoing.advance();
+                } else {
+                    hasIncoming = incoming.advance();
+                }
+            }
+            writer.write(chars, 0, buffered);
+            writer.flush();
+        } catch (SQLException e) {
+            throw new UncheckedIOException(new IOException("Statement export failed for account " + accountId, e));
+        } finally {
+            rowsExported.increment(rows);
+            log.debug("Exported {} statement rows for account {}", rows, accountId);
+        }
+    }
+
+    private static boolean isBefore(StatementLine a, StatementLine b) {
+        int byTime = a.createdAt().compareTo(b.createdAt());
+        return byTime < 0 || (byTime == 0 && a.id() <= b.id());
+    }
+
+    private static void appendCsv(StringBuilder out, StatementLine row) {
+        out.append(row.id()).append(',');
+        appendCsvField(out, row.reference());
+        out.append(',').append(row.createdAt()).append(',')
+            .append(row.transactionType()).append(',')
+            .append(row.status()).append(',')
+            .append(row.debit() ? "DEBIT" : "CREDIT").append(',')
+            .append(row.amount().toPlainString()).append(',')
+            .append(row.currency()).append(',');
+        appendCsvField(out, row.counterparty());
+        out.append(',');
+        appendCsvField(out, row.description());
+        out.append('\n');
+    }
+
+    private static void appendCsvField(StringBuilder out, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        // Leading formula characters are neutralised so spreadsheets don't evaluate the cell
+        char first = value.charAt(0);
+        boolean formula = first == '=' || first == '+' || first == '-' || first == '@';
+        boolean quote = formula;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        if (formula) {
+            out.append('\'');
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static void appendJson(StringBuilder out, StatementLine row) {
+        out.append("{\"id\":").append(row.id());
+        out.append(",\"reference\":");
+        appendJsonString(out, row.reference());
+        out.append(",\"createdAt\":\"").append(row.createdAt()).append('"');
+        out.append(",\"type\":\"").append(row.transactionType()).append('"');
+        out.append(",\"status\":\"").append(row.status()).append('"');
+        out.append(",\"direction\":\"").append(row.debit() ? "DEBIT" : "CREDIT").append('"');
+        out.append(",\"amount\":").append(row.amount().toPlainString());
+        out.append(",\"currency\":\"").append(row.currency()).append('"');
+        out.append(",\"counterparty\":");
+        appendJsonString(out, row.counterparty());
+        out.append(",\"description\":");
+        appendJsonString(out, row.description());
+        out.append("}\n");
+    }
+
+    private static void appendJsonString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append("\\u00");
+                        out.append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,142 @@
+package com.banking.service;
+
+import com.banking.dto.CursorPage;
+import com.banking.dto.transaction.TransactionResponse;
+import com.banking.repository.TransactionRepository;
+import com.banking.util.HistoryCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Transaction history across one or more accounts, newest first. Each account contributes
+ * two streams (outgoing and incoming), each read as a seek plus a short range scan on its
+ * (account, created_at, id) index; the streams are combined with a k-way merge. Users hold
+ * a handful of accounts, so this stays a few cheap queries where a single OR across the
+ * joins would scan and filesort the user's whole history.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionHistoryReader {
+
+    private static final Comparator<TransactionResponse> NEWEST_FIRST = Comparator
+            .comparing(TransactionResponse::createdAt)
+            .thenComparing(TransactionResponse::id)
+            .reversed();
+
+    private final TransactionRepository transactionRepository;
+
+    @Value("${app.history.max-page-size:100}")
+    private int maxPageSize;
+
+    public CursorPage<TransactionResponse> accountHistory(Long accountId, String cursor, int size, boolean includeTotal) {
+        CursorPage<TransactionResponse> page = read(List.of(accountId), cursor, size);
+        if (!includeTotal) {
+            return page;
+        }
+        long total = count(List.of(accountId));
+        return new CursorPage<>(page.items(), page.nextCursor(), page.hasMore(), total);
+    }
+
+    public CursorPage<TransactionResponse> read(Collection<Long> accountIds, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        // One extra row tells us whether another page exists
+        List<TransactionResponse> rows = newestFirst(accountIds, HistoryCursor.decode(cursor), limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<TransactionResponse> items = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            TransactionResponse last = items.get(items.size() - 1);
+            nextCursor = new HistoryCursor(last.createdAt(), last.id()).encode();
+        }
+        return new CursorPage<>(items, nextCursor, hasMore, null);
+    }
+
+    /**
+     * Offset page for the classic {@link Page} endpoints. Each stream reads at most
+     * offset + size rows, and the total is three index-only counts. Ordering is always
+     * newest first; the sort in the pageable is ignored, as it was by the previous query.
+     */
+    public Page<TransactionResponse> page(Collection<Long> accountIds, Pageable pageable) {
+        if (accountIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        int offset = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE - pageable.getPageSize());
+        List<TransactionResponse> rows = newestFirst(accountIds, HistoryCursor.START, offset + pageable.getPageSize());
+        List<TransactionResponse> items = offset >= rows.size() ? List.of() : rows.subList(offset, rows.size());
+        return new PageImpl<>(items, pageable, count(accountIds));
+    }
+
+    private long count(Collection<Long> accountIds) {
+        return transactionRepository.countOutgoing(accountIds)
+                + transactionRepository.countIncoming(accountIds)
+                - transactionRepository.countInternal(accountIds);
+    }
+
+    /**
+     * Up to {@code limit} transactions strictly after {@code position}, merged across every
+     * side of every account. A transfer between two of the accounts shows up in two streams
+     * with the same (created_at, id), so the copies arrive back to back and the second is
+     * dropped.
+     */
+    private List<TransactionResponse> newestFirst(Collection<Long> accountIds, HistoryCursor position, int limit) {
+        PageRequest window = PageRequest.of(0, limit);
+        PriorityQueue<Stream> heads = new PriorityQueue<>(Math.max(1, 2 * accountIds.size()),
+                (a, b) -> NEWEST_FIRST.compare(a.head(), b.head()));
+        for (Long accountId : accountIds) {
+            addIfNotEmpty(heads, transactionRepository.findOutgoingBefore(
+                    accountId, position.createdAt(), position.id(), window));
+            addIfNotEmpty(heads, transactionRepository.findIncomingBefore(
+                    accountId, position.createdAt(), position.id(), window));
+        }
+
+        List<TransactionResponse> merged = new ArrayList<>(limit);
+        Long lastId = null;
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Stream stream = heads.poll();
+            TransactionResponse next = stream.head();
+            if (!next.id().equals(lastId)) {
+                merged.add(next);
+                lastId = next.id();
+            }
+            if (stream.advance()) {
+                heads.add(stream);
+            }
+        }
+        return merged;
+    }
+
+    private static void addIfNotEmpty(PriorityQueue<Stream> heads, List<TransactionResponse> rows) {
+        if (!rows.isEmpty()) {
+            heads.add(new Stream(rows));
+        }
+    }
+
+    private static final class Stream {
+        private final List<TransactionResponse> rows;
+        private int position;
+
+        Stream(List<TransactionResponse> rows) {
+            this.rows = rows;
+        }
+
+        TransactionResponse head() {
+            return rows.get(position);
+        }
+
+        boolean advance() {
+            return ++position < rows.size();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.banking.service;
 
+import com.banking.dto.CursorPage;
+import com.banking.dto.transaction.BatchTransactionResponse;
 import com.banking.dto.transaction.TransactionResponse;
 import com.banking.dto.transaction.TransactionRequest;
 import com.banking.exception.AccountNotFoundException;
@@ -10,6 +12,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public interface TransactionService {
     
@@ -33,6 +36,17 @@ public interface TransactionService {
      */
     Page<TransactionResponse> getUserTransactions(Long userId, Pageable pageable);
     
+    /**
+     * Get a cursor-addressed page of transactions for an account, newest first
+     */
+    CursorPage<TransactionResponse> getAccountTransactions(Long accountId, Long userId, String cursor, int size,
+                                                           boolean includeTotal);
+    
+    /**
+     * Get a cursor-addressed page of transactions across all of a user's accounts, newest first
+     */
+    CursorPage<TransactionResponse> getUserTransactions(Long userId, String cursor, int size);
+    
     /**
      * Process a deposit
      */
@@ -50,6 +64,12 @@ public interface TransactionService {
     TransactionResponse processTransfer(TransactionRequest request, Long userId) 
         throws InsufficientFundsException;
     
+    /**
+     * Process many deposits, withdrawals and transfers in one batch. Items are validated
+     * in order; rejected items are reported without failing the rest of the batch.
+     */
+    BatchTransactionResponse processBatch(List<TransactionRequest> requests, Long userId);
+    
     /**
      * Get transaction entity by ID (internal use)
      */
@@ -0,0 +1,299 @@
+package com.banking.service;
+
+import com.banking.config.VelocityLimitProperties;
+import com.banking.config.VelocityLimitProperties.Limit;
+import com.banking.exception.LimitExceededException;
+import com.banking.model.Account;
+import com.banking.model.Transaction;
+import com.banking.repository.TransactionRepository;
+import com.banking.repository.TransactionRepository.DebitActivity;
+import com.banking.util.BoundedTtlCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Enforces rolling-window count and amount limits on withdrawals and transfers out of an
+ * account. Each account keeps, per configured window, a ring of time buckets in primitive
+ * arrays plus running totals, so a check is O(1) rather than a SUM over the account's
+ * history. Counters are built from the database the first time an account is seen and
+ * again after each resync interval.
+ *
+ * A debit is counted when it is checked and taken back if its transaction rolls back, or
+ * when the caller releases it because the debit was rejected later without a rollback.
+ * Counters are per instance; between resyncs an instance does not see debits made
+ * through another one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VelocityLimiter {
+
+    private static final List<Transaction.TransactionType> DEBIT_TYPES =
+        List.of(Transaction.TransactionType.WITHDRAWAL, Transaction.TransactionType.TRANSFER);
+
+    /** Amounts are tracked in units of the ledger's 4-decimal scale. */
+    private static final int AMOUNT_SCALE = 4;
+
+    private final VelocityLimitProperties properties;
+    private final TransactionRepository transactionRepository;
+    private final MeterRegistry meterRegistry;
+
+    private BoundedTtlCache<Long, Counters> counters;
+
+    @PostConstruct
+    public void init() {
+        counters = new BoundedTtlCache<>(properties.maxAccounts(), properties.resyncInterval());
+    }
+
+    /**
+     * Count a debit of {@code amount} against the account's limits.
+     *
+     * @return the counted debit, to release if it does not go ahead within a committing transaction
+     * @throws LimitExceededException if the debit would exceed any window; nothing is counted then
+     */
+    public RecordedDebit checkAndRecord(Account account, BigDecimal amount) {
+        List<Limit> limits = properties.limits().get(account.getAccountType());
+        if (!properties.enabled() || limits == null || limits.isEmpty()) {
+            return RecordedDebit.NONE;
+        }
+        long units = toUnits(amount);
+        long now = System.currentTimeMillis();
+
+        Counters accountCounters = countersFor(account.getId(), limits, now);
+        long[] sequences;
+        synchronized (accountCounters) {
+            int violated = accountCounters.firstViolation(now, units);
+            if (violated >= 0) {
+                Limit limit = limits.get(violated);
+                meterRegistry.counter("banking.velocity.rejected",
+                    "accountType", account.getAccountType().name()).increment();
+                throw new LimitExceededException("Transaction exceeds the " + describe(limit.window())
+                    + " limit for account " + account.getAccountNumber());
+            }
+            sequences = accountCounters.add(now, units);
+        }
+
+        RecordedDebit recorded = new RecordedDebit(accountCounters, sequences, units);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        recorded.release();
+                    }
+                }
+            });
+        }
+        return recorded;
+    }
+
+    private Counters countersFor(Long accountId, List<Limit> limits, long now) {
+        Counters existing = counters.get(accountId);
+        if (existing != null) {
+            return existing;
+        }
+        // Load outside the cache's segment lock; if two threads race, the first to store wins
+        Counters loaded = new Counters(limits, properties.buckets(), now);
+        LocalDateTime since = LocalDateTime.now().minus(loaded.longestWindow());
+        for (DebitActivity debit : transactionRepository.findDebitActivitySince(accountId, DEBIT_TYPES, since)) {
+            long at = debit.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            loaded.addAt(at, toUnits(debit.getAmount()));
+        }
+        return counters.computeIfAbsent(accountId, id -> loaded);
+    }
+
+    private static long toUnits(BigDecimal amount) {
+        return amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static String describe(Duration window) {
+        return window.toString().substring(2).toLowerCase();
+    }
+
+    /**
+     * A debit counted against an account's limits. Releasing it takes it back out of the
+     * windows it still falls in; only the first release has an effect.
+     */
+    public static final class RecordedDebit {
+
+        public static final RecordedDebit NONE = new RecordedDebit(null, null, 0);
+
+        private final Counters counters;
+        private final long[] sequences;
+        private final long units;
+        private boolean released;
+
+        private RecordedDebit(Counters counters, long[] sequences, long units) {
+            this.counters = counters;
+            this.sequences = sequences;
+            this.units = units;
+        }
+
+        public void release() {
+            if (counters == null) {
+                return;
+            }
+            synchronized (counters) {
+                if (!released) {
+                    released = true;
+                    counters.remove(sequences, units);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ring-buffer counters for one account, one ring per configured limit. Not thread-safe;
+     * callers synchronize on the instance.
+     */
+    private static final class Counters {
+
+        private final long[] windowMillis;
+        private final long[] bucketMillis;
+        private final int[] maxCounts;
+        private final long[] maxUnits;
+        private final int buckets;
+
+        // Per limit: bucket contents, the sequence each slot holds, and running totals
+        private final long[][] units;
+        private final int[][] counts;
+        private final long[][] slotSequence;
+        private final long[] totalUnits;
+        private final int[] totalCounts;
+        private final long[] headSequence;
+
+        Counters(List<Limit> limits, int buckets, long now) {
+            int n = limits.size();
+            this.buckets = buckets;
+            windowMillis = new long[n];
+            bucketMillis = new long[n];
+            maxCounts = new int[n];
+            maxUnits = new long[n];
+            units = new long[n][buckets];
+            counts = new int[n][buckets];
+            slotSequence = new long[n][buckets];
+            totalUnits = new long[n];
+            totalCounts = new int[n];
+            headSequence = new long[n];
+            for (int i = 0; i < n; i++) {
+                Limit limit = limits.get(i);
+                windowMillis[i] = limit.window().toMillis();
+                bucketMillis[i] = Math.max(1, windowMillis[i] / buckets);
+                maxCounts[i] = limit.maxCount();
+                maxUnits[i] = limit.maxAmount() == null ? 0 : toUnits(limit.maxAmount());
+                headSequence[i] = now / bucketMillis[i];
+                Arrays.fill(slotSequence[i], Long.MIN_VALUE);
+            }
+        }
+
+        Duration longestWindow() {
+            long longest = 0;
+            for (long window : windowMillis) {
+                longest = Math.max(longest, window);
+            }
+            return Duration.ofMillis(longest);
+        }
+
+        /**
+         * @return index of the first limit the debit would break, or -1
+         */
+        int firstViolation(long now, long amountUnits) {
+            for (int i = 0; i < windowMillis.length; i++) {
+                advance(i, now / bucketMillis[i]);
+                if (maxCounts[i] > 0 && totalCounts[i] + 1 > maxCounts[i]) {
+                    return i;
+                }
+                if (maxUnits[i] > 0 && totalUnits[i] + amountUnits > maxUnits[i]) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        long[] add(long now, long amountUnits) {
+            long[] sequences = new long[windowMillis.length];
+            for (int i = 0; i < windowMillis.length; i++) {
+                long sequence = now / bucketMillis[i];
+                advance(i, sequence);
+                put(i, sequence, amountUnits, 1);
+                sequences[i] = sequence;
+            }
+            return sequences;
+        }
+
+        /**
+         * Count a past debit while rebuilding; debits already outside a window are skipped.
+         */
+        void addAt(long at, long amountUnits) {
+            for (int i = 0; i < windowMillis.length; i++) {
+                long sequence = at / bucketMillis[i];
+                if (headSequence[i] - sequence < buckets && sequence <= headSequence[i]) {
+                    put(i, sequence, amountUnits, 1);
+                }
+            }
+        }
+
+        void remove(long[] sequences, long amountUnits) {
+            for (int i = 0; i < windowMillis.length; i++) {
+                int slot = (int) Math.floorMod(sequences[i], (long) buckets);
+                // Skip if the bucket has already rotated out of the window
+                if (slotSequence[i][slot] == sequences[i]) {
+                    units[i][slot] -= amountUnits;
+                    counts[i][slot] -= 1;
+                    totalUnits[i] -= amountUnits;
+                    totalCounts[i] -= 1;
+                }
+            }
+        }
+
+        private void put(int i, long sequence, long amountUnits, int count) {
+            int slot = (int) Math.floorMod(sequence, (long) buckets);
+            if (slotSequence[i][slot] != sequence) {
+                slotSequence[i][slot] = sequence;
+                units[i][slot] = 0;
+                counts[i][slot] = 0;
+            }
+            units[i][slot] += amountUnits;
+            counts[i][slot] += count;
+            totalUnits[i] += amountUnits;
+            totalCounts[i] += count;
+        }
+
+        /**
+         * Move the window head to {@code sequence}, dropping buckets that fall out of it.
+         * Touches at most one ring's worth of slots, however long the account was idle.
+         */
+        private void advance(int i, long sequence) {
+            long head = headSequence[i];
+            if (sequence <= head) {
+                return;
+            }
+            long expireFrom = head - buckets + 1;
+            long expireTo = Math.min(sequence - buckets, head);
+            for (long s = expireFrom; s <= expireTo; s++) {
+                int slot = (int) Math.floorMod(s, (long) buckets);
+                if (slotSequence[i][slot] == s) {
+                    totalUnits[i] -= units[i][slot];
+                    totalCounts[i] -= counts[i][slot];
+                    units[i][slot] = 0;
+                    counts[i][slot] = 0;
+                    slotSequence[i][slot] = Long.MIN_VALUE;
+                }
+            }
+            headSequence[i] = sequence;
+        }
+    }
+}
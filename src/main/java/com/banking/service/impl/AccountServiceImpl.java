@@ -1,5 +1,6 @@
 package com.banking.service.impl;
 
+import com.banking.dto.CursorPage;
 import com.banking.dto.account.AccountResponse;
 import com.banking.dto.account.AccountRequest;
 import com.banking.dto.transaction.TransactionResponse;
@@ -7,12 +8,15 @@ import com.banking.exception.AccountNotFoundException;
 import com.banking.exception.InsufficientFundsException;
 import com.banking.exception.InvalidAccountOperationException;
 import com.banking.exception.UserNotFoundException;
+import com.banking.id.IdGenerator;
 import com.banking.model.Account;
 import com.banking.model.User;
 import com.banking.repository.AccountRepository;
-import com.banking.repository.TransactionRepository;
 import com.banking.repository.UserRepository;
+import com.banking.service.AccountBalanceCache;
+import com.banking.service.AccountOwnershipIndex;
 import com.banking.service.AccountService;
+import com.banking.service.TransactionHistoryReader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -22,7 +26,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -31,7 +34,10 @@ public class AccountServiceImpl implements AccountService {
 
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
-    private final TransactionRepository transactionRepository;
+    private final IdGenerator idGenerator;
+    private final AccountBalanceCache balanceCache;
+    private final AccountOwnershipIndex ownershipIndex;
+    private final TransactionHistoryReader historyReader;
 
     @Override
     @Transactional
@@ -41,7 +47,9 @@ public class AccountServiceImpl implements AccountService {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
         
+        String accountNumber = generateAccountNumber(request.accountType());
         Account account = Account.builder()
+            .accountNumber(accountNumber)
             .user(user)
             .accountType(request.accountType())
             .balance(request.initialBalance())
@@ -49,15 +57,8 @@ public class AccountServiceImpl implements AccountService {
             .status(Account.AccountStatus.ACTIVE)
             .build();
         
-        // Save the account to generate the ID
-        account = accountRepository.save(account);
-        
-        // Generate account number after saving to get the ID
-        String accountNumber = generateAccountNumber(account);
-        account.setAccountNumber(accountNumber);
-        
-        // Save again with the generated account number
         account = accountRepository.save(account);
+        ownershipIndex.invalidateAfterCommit(userId);
         
         log.info("Created new account: {}", accountNumber);
         return AccountResponse.fromEntity(account);
@@ -67,8 +68,7 @@ public class AccountServiceImpl implements AccountService {
     @Transactional(readOnly = true)
     public AccountResponse getAccountById(Long accountId) {
         log.debug("Fetching account with ID: {}", accountId);
-        return accountRepository.findById(accountId)
-            .map(AccountResponse::fromEntity)
+        return accountRepository.findResponseById(accountId)
             .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + accountId));
     }
 
@@ -76,8 +76,7 @@ public class AccountServiceImpl implements AccountService {
     @Transactional(readOnly = true)
     public AccountResponse getAccountByNumber(String accountNumber) {
         log.debug("Fetching account with number: {}", accountNumber);
-        return accountRepository.findByAccountNumber(accountNumber)
-            .map(AccountResponse::fromEntity)
+        return accountRepository.findResponseByAccountNumber(accountNumber)
             .orElseThrow(() -> new AccountNotFoundException("Account not found with number: " + accountNumber));
     }
 
@@ -85,9 +84,7 @@ public class AccountServiceImpl implements AccountService {
     @Transactional(readOnly = true)
     public List<AccountResponse> getUserAccounts(Long userId) {
         log.debug("Fetching all accounts for user ID: {}", userId);
-        return accountRepository.findByUserId(userId).stream()
-            .map(AccountResponse::fromEntity)
-            .collect(Collectors.toList());
+        return accountRepository.findResponsesByUserId(userId);
     }
 
     @Override
@@ -100,16 +97,27 @@ public class AccountServiceImpl implements AccountService {
             throw new InvalidAccountOperationException("You don't have permission to view transactions for this account");
         }
         
-        return transactionRepository.findByFromAccountIdOrToAccountId(accountId, accountId, pageable)
-            .map(transaction -> TransactionResponse.fromEntity(transaction));
+        return historyReader.page(List.of(accountId), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionResponse> getAccountTransactions(Long accountId, Long userId, String cursor, int size,
+                                                                  boolean includeTotal) {
+        log.debug("Fetching transaction cursor page for account ID: {} for user ID: {}", accountId, userId);
+        
+        if (!isAccountOwner(accountId, userId)) {
+            throw new InvalidAccountOperationException("You don't have permission to view transactions for this account");
+        }
+        
+        return historyReader.accountHistory(accountId, cursor, size, includeTotal);
     }
 
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getAccountBalance(Long accountId) {
         log.debug("Fetching balance for account ID: {}", accountId);
-        return accountRepository.getBalanceById(accountId)
-            .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + accountId));
+        return balanceCache.get(accountId, this::loadBalance);
     }
 
     @Override
@@ -120,7 +128,7 @@ public class AccountServiceImpl implements AccountService {
         Account account = accountRepository.findById(accountId)
             .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + accountId));
         
-        if (!account.getUser().getId().equals(userId)) {
+        if (!isAccountOwner(accountId, userId)) {
             throw new InvalidAccountOperationException("You don't have permission to close this account");
         }
         
@@ -130,6 +138,7 @@ public class AccountServiceImpl implements AccountService {
         
         account.setStatus(Account.AccountStatus.CLOSED);
         accountRepository.save(account);
+        ownershipIndex.invalidateAfterCommit(userId);
         log.info("Successfully closed account: {}", account.getAccountNumber());
     }
 
@@ -148,16 +157,15 @@ public class AccountServiceImpl implements AccountService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public boolean isAccountOwner(Long accountId, Long userId) {
-        return accountRepository.existsByIdAndUserId(accountId, userId);
+        return ownershipIndex.isOwner(userId, accountId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean hasSufficientBalance(Long accountId, BigDecimal amount) {
-        BigDecimal balance = accountRepository.getBalanceById(accountId)
-            .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + accountId));
+        // A fast pre-check only; updateBalance enforces the limit atomically for debits
+        BigDecimal balance = balanceCache.get(accountId, this::loadBalance);
         return balance.compareTo(amount) >= 0;
     }
 
@@ -166,17 +174,31 @@ public class AccountServiceImpl implements AccountService {
     public void updateBalance(Long accountId, BigDecimal amount) {
         log.debug("Updating balance for account ID: {} by amount: {}", accountId, amount);
         
-        int updated = accountRepository.updateBalance(accountId, amount);
+        long stamp = balanceCache.beginWrite(accountId);
+        boolean debit = amount.signum() < 0;
+        int updated = debit
+            ? accountRepository.applyDebit(accountId, amount)
+            : accountRepository.updateBalance(accountId, amount);
         if (updated == 0) {
+            if (debit && accountRepository.existsById(accountId)) {
+                throw new InsufficientFundsException("Insufficient funds in account with id: " + accountId);
+            }
             throw new AccountNotFoundException("Account not found with id: " + accountId);
         }
         
+        // The row is locked by this transaction, so the value read back is the one that commits
+        balanceCache.putAfterCommit(accountId, loadBalance(accountId), stamp);
         log.debug("Successfully updated balance for account ID: {}", accountId);
     }
     
-    private String generateAccountNumber(Account account) {
-        // Simple implementation - in production, you might want a more sophisticated approach
-        String prefix = account.getAccountType().name().substring(0, 3);
-        return String.format("%s%010d", prefix, account.getId());
+    private BigDecimal loadBalance(Long accountId) {
+        return accountRepository.getBalanceById(accountId)
+            .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + accountId));
+    }
+    
+    private String generateAccountNumber(Account.AccountType accountType) {
+        // Type prefix plus a time-ordered base32 id, so the number is known before the insert
+        String prefix = accountType.name().substring(0, 3);
+        return prefix + idGenerator.nextReference();
     }
 }
@@ -1,20 +1,30 @@
 package com.banking.service.impl;
 
+import com.banking.dto.CursorPage;
 import com.banking.dto.event.TransactionEvent;
+import com.banking.dto.transaction.BatchTransactionResponse;
+import com.banking.dto.transaction.BatchTransactionResult;
 import com.banking.dto.transaction.TransactionRequest;
 import com.banking.dto.transaction.TransactionResponse;
 import com.banking.exception.AccountNotFoundException;
 import com.banking.exception.InsufficientFundsException;
 import com.banking.exception.InvalidAccountOperationException;
+import com.banking.exception.LimitExceededException;
+import com.banking.id.IdGenerator;
 import com.banking.model.*;
 import com.banking.repository.AccountRepository;
+import com.banking.repository.TransactionBatchRepository;
+import com.banking.repository.TransactionOutboxRepository;
 import com.banking.repository.TransactionRepository;
+import com.banking.service.AccountBalanceCache;
 import com.banking.service.AccountService;
+import com.banking.service.TransactionHistoryReader;
 import com.banking.service.TransactionService;
+import com.banking.service.VelocityLimiter;
+import com.banking.service.ledger.LedgerEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.kafka.clients.producer.ProducerRecord;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.data.domain.Page;
@@ -24,7 +34,13 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 @Slf4j
@@ -34,8 +50,14 @@ public class TransactionServiceImpl implements TransactionService {
 
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
     private final AccountService accountService;
-    private final KafkaTemplate<String, TransactionEvent> kafkaTemplate;
+    private final TransactionOutboxRepository outboxRepository;
+    private final ObjectProvider<LedgerEngine> ledgerEngine;
+    private final IdGenerator idGenerator;
+    private final AccountBalanceCache balanceCache;
+    private final TransactionHistoryReader historyReader;
+    private final VelocityLimiter velocityLimiter;
     private static final String TRANSACTIONS_TOPIC = "transactions";
 
     @Override
@@ -50,62 +72,58 @@ public class TransactionServiceImpl implements TransactionService {
             default -> throw new InvalidAccountOperationException("Unsupported transaction type: " + request.transactionType());
         };
         
-        // Publish transaction event
-        publishTransactionEvent(request, response, "COMPLETED", "Transaction processed successfully");
+        // Publish transaction event; the ledger journal writes it together with the transaction row instead
+        if (ledgerEngine.getIfAvailable() == null) {
+            publishTransactionEvent(request, response, "COMPLETED", "Transaction processed successfully");
+        }
         
         return response;
     }
     
+    /**
+     * Record the event in the outbox as part of the current transaction; the outbox relay
+     * publishes it to Kafka after commit, so a rollback never leaves a phantom event.
+     */
     private void publishTransactionEvent(TransactionRequest request, TransactionResponse response, String status, String description) {
         if (request == null || response == null) {
             log.error("Cannot publish transaction event: request or response is null");
             return;
         }
-        
-        try {
-            TransactionEvent.TransactionEventBuilder eventBuilder = TransactionEvent.builder()
-                .transactionId(String.valueOf(response.id()))
-                .amount(request.amount())
-                .type(request.transactionType().name())
-                .status(status)
-                .description(description)
-                .timestamp(LocalDateTime.now());
-                
-            // Handle potentially null fields
-            if (request.fromAccountNumber() != null) {
-                eventBuilder.fromAccount(request.fromAccountNumber());
-            }
-            
-            if (request.toAccountNumber() != null) {
-                eventBuilder.toAccount(request.toAccountNumber());
-            }
-            
-            if (request.currency() != null) {
-                eventBuilder.currency(request.currency());
-            }
-            
-            TransactionEvent event = eventBuilder.build();
-                
-            // Create a ProducerRecord with headers
-            ProducerRecord<String, TransactionEvent> record = 
-                new ProducerRecord<>(TRANSACTIONS_TOPIC, event);
-            record.headers().add("transactionType", request.transactionType().name().getBytes());
-                
-            kafkaTemplate.send(record);
-            log.info("Published transaction event for transaction ID: {}", response.id());
+        outboxRepository.append(TRANSACTIONS_TOPIC, List.of(buildTransactionEvent(request, response, status, description)));
+        log.info("Queued transaction event for transaction ID: {}", response.id());
+    }
+    
+    private TransactionEvent buildTransactionEvent(TransactionRequest request, TransactionResponse response,
+                                                   String status, String description) {
+        TransactionEvent.TransactionEventBuilder eventBuilder = TransactionEvent.builder()
+            .transactionId(String.valueOf(response.id()))
+            .amount(request.amount())
+            .type(request.transactionType().name())
+            .status(status)
+            .description(description)
+            .timestamp(LocalDateTime.now());
             
-        } catch (Exception e) {
-            log.error("Failed to publish transaction event for transaction ID: {}", response.id(), e);
-            // Don't fail the transaction if event publishing fails
+        // Handle potentially null fields
+        if (request.fromAccountNumber() != null) {
+            eventBuilder.fromAccount(request.fromAccountNumber());
         }
+        
+        if (request.toAccountNumber() != null) {
+            eventBuilder.toAccount(request.toAccountNumber());
+        }
+        
+        if (request.currency() != null) {
+            eventBuilder.currency(request.currency());
+        }
+        
+        return eventBuilder.build();
     }
 
     @Override
     @Transactional(readOnly = true)
     public TransactionResponse getTransaction(String referenceNumber) {
         log.debug("Fetching transaction with reference: {}", referenceNumber);
-        return transactionRepository.findByTransactionReference(referenceNumber)
-            .map(TransactionResponse::fromEntity)
+        return transactionRepository.findResponseByTransactionReference(referenceNumber)
             .orElseThrow(() -> new AccountNotFoundException("Transaction not found with reference: " + referenceNumber));
     }
 
@@ -119,16 +137,28 @@ public class TransactionServiceImpl implements TransactionService {
             throw new InvalidAccountOperationException("You don't have permission to view transactions for this account");
         }
         
-        return transactionRepository.findByFromAccountIdOrToAccountId(accountId, accountId, pageable)
-            .map(TransactionResponse::fromEntity);
+        return historyReader.page(List.of(accountId), pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<TransactionResponse> getUserTransactions(Long userId, Pageable pageable) {
         log.debug("Fetching all transactions for user ID: {}", userId);
-        return transactionRepository.findByUserId(userId, pageable)
-            .map(TransactionResponse::fromEntity);
+        return historyReader.page(accountRepository.findIdsByUserId(userId), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionResponse> getAccountTransactions(Long accountId, Long userId, String cursor, int size,
+                                                                  boolean includeTotal) {
+        return accountService.getAccountTransactions(accountId, userId, cursor, size, includeTotal);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionResponse> getUserTransactions(Long userId, String cursor, int size) {
+        log.debug("Fetching transaction cursor page for user ID: {}", userId);
+        return historyReader.read(accountRepository.findIdsByUserId(userId), cursor, size);
     }
 
     @Override
@@ -140,6 +170,11 @@ public class TransactionServiceImpl implements TransactionService {
         
         Account toAccount = accountService.getAccountEntity(request.toAccountNumber());
         
+        LedgerEngine engine = ledgerEngine.getIfAvailable();
+        if (engine != null) {
+            return executeOnLedger(engine, null, toAccount, request);
+        }
+        
         // Create and save the transaction
         Transaction transaction = createTransaction(null, toAccount, request);
         transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
@@ -163,10 +198,17 @@ public class TransactionServiceImpl implements TransactionService {
         Account fromAccount = accountService.getAccountEntity(request.fromAccountNumber());
         
         // Verify the account belongs to the user
-        if (!fromAccount.getUser().getId().equals(userId)) {
+        if (!accountService.isAccountOwner(fromAccount.getId(), userId)) {
             throw new InvalidAccountOperationException("You don't have permission to withdraw from this account");
         }
         
+        velocityLimiter.checkAndRecord(fromAccount, request.amount());
+        
+        LedgerEngine engine = ledgerEngine.getIfAvailable();
+        if (engine != null) {
+            return executeOnLedger(engine, fromAccount, null, request);
+        }
+        
         // Check if account has sufficient balance
         if (!accountService.hasSufficientBalance(fromAccount.getId(), request.amount())) {
             throw new InsufficientFundsException("Insufficient funds in the account");
@@ -196,28 +238,280 @@ public class TransactionServiceImpl implements TransactionService {
         Account toAccount = accountService.getAccountEntity(request.toAccountNumber());
         
         // Verify the source account belongs to the user
-        if (!fromAccount.getUser().getId().equals(userId)) {
+        if (!accountService.isAccountOwner(fromAccount.getId(), userId)) {
             throw new InvalidAccountOperationException("You don't have permission to transfer from this account");
         }
         
+        velocityLimiter.checkAndRecord(fromAccount, request.amount());
+        
+        LedgerEngine engine = ledgerEngine.getIfAvailable();
+        if (engine != null) {
+            return executeOnLedger(engine, fromAccount, toAccount, request);
+        }
+        
         // Check if source account has sufficient balance
         if (!accountService.hasSufficientBalance(fromAccount.getId(), request.amount())) {
             throw new InsufficientFundsException("Insufficient funds in the source account");
         }
         
+        // Update the account balances, locking the two rows in id order like every other
+        // multi-account path; the insert below then only touches rows this transaction holds
+        if (fromAccount.getId() < toAccount.getId()) {
+            accountService.updateBalance(fromAccount.getId(), request.amount().negate()); // Deduct from source
+            accountService.updateBalance(toAccount.getId(), request.amount()); // Add to destination
+        } else {
+            accountService.updateBalance(toAccount.getId(), request.amount()); // Add to destination
+            accountService.updateBalance(fromAccount.getId(), request.amount().negate()); // Deduct from source
+        }
+        
         // Create and save the transaction
         Transaction transaction = createTransaction(fromAccount, toAccount, request);
         transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
         transaction = transactionRepository.save(transaction);
         
-        // Update the account balances
-        accountService.updateBalance(fromAccount.getId(), request.amount().negate()); // Deduct from source
-        accountService.updateBalance(toAccount.getId(), request.amount()); // Add to destination
-        
         log.info("Successfully processed transfer. Transaction ID: {}", transaction.getId());
         return TransactionResponse.fromEntity(transaction);
     }
 
+    @Override
+    @Transactional
+    public BatchTransactionResponse processBatch(List<TransactionRequest> requests, Long userId) {
+        log.info("Processing batch of {} transactions for user ID: {}", requests.size(), userId);
+        
+        Set<String> accountNumbers = new HashSet<>();
+        for (TransactionRequest request : requests) {
+            if (request.fromAccountNumber() != null) {
+                accountNumbers.add(request.fromAccountNumber());
+            }
+            if (request.toAccountNumber() != null) {
+                accountNumbers.add(request.toAccountNumber());
+            }
+        }
+        
+        LedgerEngine engine = ledgerEngine.getIfAvailable();
+        
+        // Resolve every referenced account with one IN query; without the ledger the rows
+        // stay locked until commit so the in-memory balance checks below remain valid
+        List<Account> resolved = engine != null
+            ? accountRepository.findByAccountNumberIn(accountNumbers)
+            : accountRepository.findByAccountNumberInForUpdate(accountNumbers);
+        Map<String, Account> accounts = new HashMap<>();
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (Account account : resolved) {
+            accounts.put(account.getAccountNumber(), account);
+            balances.put(account.getId(), account.getBalance());
+        }
+        
+        List<BatchTransactionResult> results;
+        List<Transaction> accepted = new ArrayList<>();
+        if (engine != null) {
+            results = postBatchOnLedger(engine, requests, userId, accounts);
+        } else {
+            results = new ArrayList<>(requests.size());
+            LocalDateTime now = LocalDateTime.now();
+            long[] ids = idGenerator.nextIds(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                try {
+                    Transaction transaction = prepareBatchItem(requests.get(i), userId, accounts, balances).transaction();
+                    transaction.setId(ids[i]);
+                    transaction.setCreatedAt(now);
+                    transaction.setUpdatedAt(now);
+                    accepted.add(transaction);
+                    results.add(BatchTransactionResult.success(i, TransactionResponse.fromEntity(transaction)));
+                } catch (InvalidAccountOperationException | InsufficientFundsException | AccountNotFoundException
+                         | LimitExceededException e) {
+                    results.add(BatchTransactionResult.failure(i, e.getMessage()));
+                }
+            }
+        }
+        
+        transactionBatchRepository.insertTransactions(accepted);
+        transactionBatchRepository.applyBalanceDeltas(accepted);
+        balanceCache.invalidateAfterCommit(accepted);
+        
+        // Ledger items get their events from the journal
+        List<TransactionEvent> events = new ArrayList<>();
+        for (BatchTransactionResult result : results) {
+            if (result.transaction() != null && engine == null) {
+                events.add(buildTransactionEvent(requests.get(result.index()), result.transaction(),
+                    "COMPLETED", "Transaction processed successfully"));
+            }
+        }
+        outboxRepository.append(TRANSACTIONS_TOPIC, events);
+        int succeeded = (int) results.stream().filter(result -> result.transaction() != null).count();
+        
+        log.info("Processed batch for user ID: {}. Succeeded: {}, failed: {}",
+            userId, succeeded, requests.size() - succeeded);
+        return new BatchTransactionResponse(succeeded, requests.size() - succeeded, results);
+    }
+    
+    /**
+     * Post batch items through the ledger with many in flight: items are handed to their
+     * shards without waiting, and outcomes are collected at the end, so the batch is not one
+     * shard round trip per item. An item debiting an account that an in-flight transfer credits
+     * first waits for what is in flight, so it still sees the earlier items' effect.
+     */
+    private List<BatchTransactionResult> postBatchOnLedger(LedgerEngine engine, List<TransactionRequest> requests,
+                                                           Long userId, Map<String, Account> accounts) {
+        BatchTransactionResult[] results = new BatchTransactionResult[requests.size()];
+        List<PostedItem> inFlight = new ArrayList<>();
+        Set<Long> incomingTransfers = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < requests.size(); i++) {
+            PreparedItem item = null;
+            try {
+                item = prepareBatchItem(requests.get(i), userId, accounts, null);
+                Transaction transaction = item.transaction();
+                if (transaction.getFromAccount() != null
+                        && incomingTransfers.contains(transaction.getFromAccount().getId())) {
+                    awaitLedgerItems(inFlight, results, userId);
+                    incomingTransfers.clear();
+                }
+                transaction.setId(idGenerator.nextId());
+                transaction.setCreatedAt(now);
+                transaction.setUpdatedAt(now);
+                inFlight.add(new PostedItem(i, item, engine.post(transaction)));
+                if (transaction.getTransactionType() == Transaction.TransactionType.TRANSFER) {
+                    incomingTransfers.add(transaction.getToAccount().getId());
+                }
+            } catch (InvalidAccountOperationException | InsufficientFundsException | AccountNotFoundException
+                     | LimitExceededException e) {
+                results[i] = BatchTransactionResult.failure(i, e.getMessage());
+            } catch (IllegalStateException e) {
+                // Ledger saturated; the item was not applied, and the batch still commits, so the
+                // rollback compensation never takes the debit back
+                if (item != null) {
+                    item.velocity().release();
+                }
+                log.warn("Ledger rejected batch item {} for user ID {}: {}", i, userId, e.getMessage());
+                results[i] = BatchTransactionResult.failure(i, e.getMessage());
+            }
+        }
+        awaitLedgerItems(inFlight, results, userId);
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * Collect the outcomes of posted items. Earlier items already posted cannot be undone, so
+     * a rejected item is reported instead of failing the whole request.
+     */
+    private void awaitLedgerItems(List<PostedItem> inFlight, BatchTransactionResult[] results, Long userId) {
+        for (PostedItem posted : inFlight) {
+            int i = posted.index();
+            try {
+                posted.posting().await();
+                results[i] = BatchTransactionResult.success(i, TransactionResponse.fromEntity(posted.item().transaction()));
+            } catch (RuntimeException e) {
+                posted.item().velocity().release();
+                if (e instanceof IllegalStateException) {
+                    log.warn("Ledger rejected batch item {} for user ID {}: {}", i, userId, e.getMessage());
+                } else if (!(e instanceof InsufficientFundsException || e instanceof AccountNotFoundException
+                        || e instanceof InvalidAccountOperationException)) {
+                    throw e;
+                }
+                results[i] = BatchTransactionResult.failure(i, e.getMessage());
+            }
+        }
+        inFlight.clear();
+    }
+    
+    /**
+     * Validate one batch item against the pre-loaded accounts. When working balances are
+     * given the item's effect is applied to them, so later items see earlier debits.
+     */
+    private PreparedItem prepareBatchItem(TransactionRequest request, Long userId,
+                                         Map<String, Account> accounts, Map<Long, BigDecimal> balances) {
+        if (request.transactionType() == null) {
+            throw new InvalidAccountOperationException("Transaction type is required");
+        }
+        
+        boolean requireFromAccount;
+        boolean requireToAccount;
+        switch (request.transactionType()) {
+            case DEPOSIT -> {
+                requireFromAccount = false;
+                requireToAccount = true;
+            }
+            case WITHDRAWAL -> {
+                requireFromAccount = true;
+                requireToAccount = false;
+            }
+            case TRANSFER -> {
+                requireFromAccount = true;
+                requireToAccount = true;
+            }
+            default -> throw new InvalidAccountOperationException("Unsupported transaction type: " + request.transactionType());
+        }
+        validateTransactionRequest(request, requireFromAccount, requireToAccount);
+        
+        Account fromAccount = requireFromAccount ? resolveBatchAccount(accounts, request.fromAccountNumber()) : null;
+        Account toAccount = requireToAccount ? resolveBatchAccount(accounts, request.toAccountNumber()) : null;
+        
+        VelocityLimiter.RecordedDebit velocity = VelocityLimiter.RecordedDebit.NONE;
+        if (fromAccount != null) {
+            if (!accountService.isAccountOwner(fromAccount.getId(), userId)) {
+                throw new InvalidAccountOperationException("You don't have permission to debit account " + fromAccount.getAccountNumber());
+            }
+            if (balances != null) {
+                BigDecimal balance = balances.get(fromAccount.getId());
+                if (balance.compareTo(request.amount()) < 0) {
+                    throw new InsufficientFundsException("Insufficient funds in account " + fromAccount.getAccountNumber());
+                }
+            }
+            velocity = velocityLimiter.checkAndRecord(fromAccount, request.amount());
+            if (balances != null) {
+                balances.merge(fromAccount.getId(), request.amount().negate(), BigDecimal::add);
+            }
+        }
+        if (toAccount != null && balances != null) {
+            balances.merge(toAccount.getId(), request.amount(), BigDecimal::add);
+        }
+        
+        Transaction transaction = createTransaction(fromAccount, toAccount, request);
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        return new PreparedItem(transaction, velocity);
+    }
+    
+    /**
+     * A validated batch item and the debit it counted against the velocity limits.
+     */
+    private record PreparedItem(Transaction transaction, VelocityLimiter.RecordedDebit velocity) {
+    }
+    
+    /**
+     * A batch item handed to the ledger, waiting for its outcome.
+     */
+    private record PostedItem(int index, PreparedItem item, LedgerEngine.Posting posting) {
+    }
+    
+    private Account resolveBatchAccount(Map<String, Account> accounts, String accountNumber) {
+        Account account = accounts.get(accountNumber);
+        if (account == null) {
+            throw new AccountNotFoundException("Account not found with number: " + accountNumber);
+        }
+        return account;
+    }
+
+    /**
+     * Apply the transaction through the in-memory ledger. The balance check happens on the
+     * shard that owns the source account and the row is persisted by the ledger journal,
+     * together with its outbox event. A ledger posting cannot be rolled back, so nothing on
+     * this path writes to the database in the surrounding transaction.
+     */
+    private TransactionResponse executeOnLedger(LedgerEngine engine, Account fromAccount, Account toAccount,
+                                                TransactionRequest request) {
+        Transaction transaction = createTransaction(fromAccount, toAccount, request);
+        transaction.setId(idGenerator.nextId());
+        transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
+        transaction.setCreatedAt(LocalDateTime.now());
+        transaction.setUpdatedAt(transaction.getCreatedAt());
+        
+        engine.execute(transaction);
+        
+        log.info("Ledger applied {} transaction: {}", request.transactionType(), transaction.getTransactionReference());
+        return TransactionResponse.fromEntity(transaction);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Transaction getTransactionEntity(String referenceNumber) {
@@ -261,7 +555,7 @@ public class TransactionServiceImpl implements TransactionService {
     
     private Transaction createTransaction(Account fromAccount, Account toAccount, TransactionRequest request) {
         return Transaction.builder()
-            .transactionReference(UUID.randomUUID().toString())
+            .transactionReference(idGenerator.nextReference())
             .fromAccount(fromAccount)
             .toAccount(toAccount)
             .amount(request.amount())
@@ -0,0 +1,13 @@
+package com.banking.service.journal;
+
+/**
+ * A byte offset within a numbered journal segment.
+ */
+record JournalPosition(long segmentId, int offset) implements Comparable<JournalPosition> {
+
+    @Override
+    public int compareTo(JournalPosition other) {
+        int bySegment = Long.compare(segmentId, other.segmentId);
+        return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+    }
+}
@@ -0,0 +1,151 @@
+package com.banking.service.journal;
+
+import com.banking.model.Account;
+import com.banking.model.Transaction;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+/**
+ * Binary encoding of journaled transactions. Account references are decoded as stubs
+ * carrying the id and account number, which is all the batch writers and outbox events need.
+ */
+@Component
+@RequiredArgsConstructor
+class JournalRecordCodec {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final long NULL_ID = -1L;
+    // Length of the amount's unscaled bytes is written as a short
+    private static final int MAX_AMOUNT_BYTES = Short.MAX_VALUE;
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+
+    byte[] encode(Transaction transaction) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(transaction.getId() != null ? transaction.getId() : NULL_ID);
+            out.writeUTF(transaction.getTransactionReference());
+            out.writeLong(transaction.getFromAccount() != null ? transaction.getFromAccount().getId() : NULL_ID);
+            out.writeLong(transaction.getToAccount() != null ? transaction.getToAccount().getId() : NULL_ID);
+            writeText(out, transaction.getFromAccount() != null ? transaction.getFromAccount().getAccountNumber() : null);
+            writeText(out, transaction.getToAccount() != null ? transaction.getToAccount().getAccountNumber() : null);
+            out.writeInt(transaction.getAmount().scale());
+            byte[] unscaled = transaction.getAmount().unscaledValue().toByteArray();
+            if (unscaled.length > MAX_AMOUNT_BYTES) {
+                throw new IllegalArgumentException("Transaction amount is too large to journal");
+            }
+            out.writeShort(unscaled.length);
+            out.write(unscaled);
+            out.writeUTF(transaction.getCurrency());
+            out.writeUTF(transaction.getTransactionType().name());
+            out.writeUTF(transaction.getStatus().name());
+            writeText(out, transaction.getDescription());
+            writeText(out, transaction.getMetadata() != null
+                ? objectMapper.writeValueAsString(transaction.getMetadata()) : null);
+            out.writeLong(transaction.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(transaction.getCreatedAt().getNano());
+            return bytes.toByteArray();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Transaction metadata is not serializable", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    Transaction decode(ByteBuffer in) {
+        byte version = in.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported journal record version: " + version);
+        }
+        long id = in.getLong();
+        String reference = readUtf(in);
+        long fromAccountId = in.getLong();
+        long toAccountId = in.getLong();
+        String fromAccountNumber = readText(in);
+        String toAccountNumber = readText(in);
+        int scale = in.getInt();
+        byte[] unscaled = new byte[in.getShort()];
+        in.get(unscaled);
+        String currency = readUtf(in);
+        Transaction.TransactionType type = Transaction.TransactionType.valueOf(readUtf(in));
+        Transaction.TransactionStatus status = Transaction.TransactionStatus.valueOf(readUtf(in));
+        String description = readText(in);
+        String metadata = readText(in);
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+
+        return Transaction.builder()
+            .id(id != NULL_ID ? id : null)
+            .transactionReference(reference)
+            .fromAccount(accountStub(fromAccountId, fromAccountNumber))
+            .toAccount(accountStub(toAccountId, toAccountNumber))
+            .amount(new BigDecimal(new BigInteger(unscaled), scale))
+            .currency(currency)
+            .transactionType(type)
+            .status(status)
+            .description(description)
+            .metadata(parseMetadata(metadata))
+            .createdAt(createdAt)
+            .updatedAt(createdAt)
+            .build();
+    }
+
+    private Account accountStub(long accountId, String accountNumber) {
+        return accountId != NULL_ID ? Account.builder().id(accountId).accountNumber(accountNumber).build() : null;
+    }
+
+    private Map<String, Object> parseMetadata(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, METADATA_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt transaction metadata in journal", e);
+        }
+    }
+
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readUtf(ByteBuffer in) {
+        // Matches DataOutputStream.writeUTF for the ASCII values written above
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
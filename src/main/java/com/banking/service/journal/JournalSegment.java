@@ -0,0 +1,142 @@
+package com.banking.service.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * A fixed-size, memory-mapped journal file.
+ *
+ * Records are laid out as {@code [int length][int crc32c][payload]}. New files are
+ * zero-filled, so a zero length marks the end of written data; a CRC mismatch marks a
+ * torn write at the tail after a crash.
+ */
+final class JournalSegment implements AutoCloseable {
+
+    static final int HEADER_BYTES = 8;
+    private static final String SUFFIX = ".seg";
+
+    private final long id;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32C crc = new CRC32C();
+
+    private JournalSegment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.id = id;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path directory, long id, int size) throws IOException {
+        Path path = directory.resolve(fileName(id));
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new JournalSegment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    static JournalSegment openForRead(Path directory, long id) throws IOException {
+        Path path = directory.resolve(fileName(id));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        return new JournalSegment(id, path, channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+
+    static boolean exists(Path directory, long id) {
+        return Files.exists(directory.resolve(fileName(id)));
+    }
+
+    static void delete(Path directory, long id) throws IOException {
+        Files.deleteIfExists(directory.resolve(fileName(id)));
+    }
+
+    static String fileName(long id) {
+        return String.format("%020d%s", id, SUFFIX);
+    }
+
+    static Long parseId(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(SUFFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    long id() {
+        return id;
+    }
+
+    int position() {
+        return buffer.position();
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    boolean hasRoom(int payloadLength) {
+        return buffer.remaining() >= HEADER_BYTES + payloadLength;
+    }
+
+    /**
+     * Append a record. Not thread-safe; callers serialize appends.
+     */
+    void append(byte[] payload) {
+        crc.reset();
+        crc.update(payload);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+    }
+
+    /**
+     * Flush written pages to the storage device.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Read the record at the given offset.
+     * @return the record, or null if there is no complete, intact record at the offset
+     */
+    JournalRecord read(int offset) {
+        if (offset + HEADER_BYTES > buffer.capacity()) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || offset + HEADER_BYTES + length > buffer.capacity()) {
+            return null;
+        }
+        int checksum = buffer.getInt(offset + 4);
+        ByteBuffer payload = buffer.slice(offset + HEADER_BYTES, length);
+        crc.reset();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        return new JournalRecord(payload, offset + HEADER_BYTES + length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+
+    record JournalRecord(ByteBuffer payload, int nextOffset) {
+    }
+}
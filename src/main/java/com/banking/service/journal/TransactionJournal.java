@@ -0,0 +1,396 @@
+package com.banking.service.journal;
+
+import com.banking.dto.event.TransactionEvent;
+import com.banking.model.Transaction;
+import com.banking.repository.JournalCheckpointRepository;
+import com.banking.repository.TransactionBatchRepository;
+import com.banking.repository.TransactionOutboxRepository;
+import com.banking.service.AccountBalanceCache;
+import com.banking.service.ledger.LedgerJournal;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Local write-ahead journal for the ledger engine.
+ *
+ * Transactions are appended to fixed-size memory-mapped segment files and acknowledged
+ * once a group commit has forced them to disk, so a transfer is durable at disk-append
+ * latency. A background applier drains committed records into MySQL in large batches,
+ * writing their outbox events and its position in {@code journal_checkpoints} within the
+ * same database transaction. On startup, records past the checkpoint are replayed before the ledger
+ * accepts new work.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("${app.ledger.enabled:false} and '${app.ledger.journal.mode:memory}' == 'wal'")
+public class TransactionJournal implements LedgerJournal {
+
+    private static final String TRANSACTIONS_TOPIC = "transactions";
+
+    private final JournalRecordCodec codec;
+    private final JournalCheckpointRepository checkpointRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final TransactionOutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountBalanceCache balanceCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.ledger.journal.wal.directory:data/journal}")
+    private String directory;
+
+    // Checkpoints are keyed by name, so two nodes sharing one would overwrite each other's
+    @Value("${app.ledger.journal.wal.name:ledger-${app.id.node-id:0}}")
+    private String journalName;
+
+    @Value("${app.ledger.journal.wal.segment-size-bytes:67108864}")
+    private int segmentSize;
+
+    @Value("${app.ledger.journal.wal.group-commit-interval-ms:2}")
+    private long groupCommitIntervalMs;
+
+    @Value("${app.ledger.journal.wal.group-commit-bytes:262144}")
+    private int groupCommitBytes;
+
+    @Value("${app.ledger.journal.batch-size:1000}")
+    private int applyBatchSize;
+
+    @Value("${app.ledger.journal.flush-interval-ms:50}")
+    private long applyIntervalMs;
+
+    private Path journalDirectory;
+
+    // Append state, guarded by appendLock
+    private final Object appendLock = new Object();
+    private JournalSegment active;
+    private List<CompletableFuture<Void>> waiters = new ArrayList<>();
+    private int unsyncedBytes;
+    private boolean running;
+    private long appended;
+
+    private volatile JournalPosition durable;
+    private volatile JournalPosition applied;
+    // Records written to the database since startup; replayed ones are not counted
+    private volatile long persisted;
+
+    // Owned by the applier thread
+    private JournalSegment reading;
+
+    private Thread syncer;
+    private ScheduledExecutorService applier;
+    private Timer fsyncTimer;
+
+    @PostConstruct
+    public void start() throws IOException {
+        journalDirectory = Paths.get(directory);
+        Files.createDirectories(journalDirectory);
+
+        long segmentId = recover();
+        active = JournalSegment.create(journalDirectory, segmentId, segmentSize);
+        durable = new JournalPosition(segmentId, 0);
+        applied = durable;
+        checkpointRepository.save(journalName, segmentId, 0);
+        running = true;
+
+        fsyncTimer = Timer.builder("banking.ledger.journal.fsync")
+            .description("Time to force a group commit to disk")
+            .register(meterRegistry);
+        Gauge.builder("banking.ledger.journal.unapplied.segments", this,
+                journal -> journal.durable.segmentId() - journal.applied.segmentId())
+            .description("Journal segments committed to disk but not yet fully applied to the database")
+            .register(meterRegistry);
+
+        syncer = new Thread(this::syncLoop, "ledger-journal-sync");
+        syncer.start();
+        applier = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "ledger-journal-apply"));
+        applier.scheduleWithFixedDelay(this::applyCommitted, applyIntervalMs, applyIntervalMs, TimeUnit.MILLISECONDS);
+
+        log.info("Transaction journal '{}' started at segment {} in {}", journalName, segmentId, journalDirectory);
+    }
+
+    @Override
+    public CompletableFuture<Void> append(Transaction transaction) {
+        byte[] payload = codec.encode(transaction);
+        CompletableFuture<Void> committed = new CompletableFuture<>();
+
+        synchronized (appendLock) {
+            if (!running) {
+                committed.completeExceptionally(new IllegalStateException("Transaction journal is not accepting writes"));
+                return committed;
+            }
+            if (JournalSegment.HEADER_BYTES + payload.length > segmentSize) {
+                committed.completeExceptionally(new IllegalArgumentException(
+                    "Journal record of " + payload.length + " bytes exceeds the segment size"));
+                return committed;
+            }
+            try {
+                if (!active.hasRoom(payload.length)) {
+                    roll();
+                }
+            } catch (IOException e) {
+                committed.completeExceptionally(new UncheckedIOException("Failed to roll journal segment", e));
+                return committed;
+            }
+
+            active.append(payload);
+            appended++;
+            waiters.add(committed);
+            unsyncedBytes += JournalSegment.HEADER_BYTES + payload.length;
+            if (unsyncedBytes >= groupCommitBytes) {
+                appendLock.notifyAll();
+            }
+        }
+        return committed;
+    }
+
+    @Override
+    public long appended() {
+        synchronized (appendLock) {
+            return appended;
+        }
+    }
+
+    @Override
+    public long persisted() {
+        return persisted;
+    }
+
+    @Override
+    public boolean accepting() {
+        synchronized (appendLock) {
+            return running;
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        synchronized (appendLock) {
+            running = false;
+            appendLock.notifyAll();
+        }
+        syncer.join(TimeUnit.SECONDS.toMillis(10));
+
+        applier.shutdown();
+        applier.awaitTermination(10, TimeUnit.SECONDS);
+        applyCommitted();
+
+        if (reading != null) {
+            reading.close();
+        }
+        active.close();
+        log.info("Transaction journal '{}' stopped at {}", journalName, applied);
+    }
+
+    /**
+     * Caller holds appendLock. The full segment is forced before switching, so waiters
+     * registered against it are durable even though the next sync forces the new segment.
+     */
+    private void roll() throws IOException {
+        JournalSegment previous = active;
+        previous.force();
+        active = JournalSegment.create(journalDirectory, previous.id() + 1, segmentSize);
+        previous.close();
+        log.debug("Journal '{}' rolled to segment {}", journalName, active.id());
+    }
+
+    /**
+     * Group commit: wait for the time window or until enough bytes are pending, then force
+     * everything appended so far with a single fsync and release all waiting appenders.
+     */
+    private void syncLoop() {
+        while (true) {
+            List<CompletableFuture<Void>> batch;
+            JournalSegment segment;
+            int position;
+
+            synchronized (appendLock) {
+                if (running && unsyncedBytes < groupCommitBytes) {
+                    try {
+                        appendLock.wait(groupCommitIntervalMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        running = false;
+                    }
+                }
+                if (waiters.isEmpty()) {
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+                batch = waiters;
+                waiters = new ArrayList<>();
+                segment = active;
+                position = active.position();
+                unsyncedBytes = 0;
+            }
+
+            try {
+                fsyncTimer.record(segment::force);
+                durable = new JournalPosition(segment.id(), position);
+                batch.forEach(waiter -> waiter.complete(null));
+            } catch (RuntimeException e) {
+                // Durability of everything after the last good sync is unknown, so stop taking writes
+                log.error("Journal '{}' failed to force segment {}; rejecting further writes", journalName, segment.id(), e);
+                synchronized (appendLock) {
+                    running = false;
+                }
+                batch.forEach(waiter -> waiter.completeExceptionally(e));
+            }
+        }
+    }
+
+    private void applyCommitted() {
+        try {
+            JournalPosition limit = durable;
+            while (applied.compareTo(limit) < 0) {
+                List<Transaction> batch = new ArrayList<>(applyBatchSize);
+                JournalPosition end = readCommitted(applied, limit, batch);
+                applyBatch(batch, end);
+                persisted += batch.size();
+
+                long fromSegment = applied.segmentId();
+                applied = end;
+                for (long segmentId = fromSegment; segmentId < end.segmentId(); segmentId++) {
+                    JournalSegment.delete(journalDirectory, segmentId);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to apply journal '{}' from {}, will retry", journalName, applied, e);
+        }
+    }
+
+    private JournalPosition readCommitted(JournalPosition from, JournalPosition limit, List<Transaction> batch)
+            throws IOException {
+        long segmentId = from.segmentId();
+        int offset = from.offset();
+
+        while (batch.size() < applyBatchSize) {
+            if (segmentId == limit.segmentId() && offset >= limit.offset()) {
+                break;
+            }
+            JournalSegment.JournalRecord record = readerFor(segmentId).read(offset);
+            if (record == null) {
+                if (segmentId < limit.segmentId()) {
+                    // End of a rolled segment
+                    segmentId++;
+                    offset = 0;
+                    continue;
+                }
+                throw new IllegalStateException("Unreadable committed record in segment " + segmentId + " at " + offset);
+            }
+            batch.add(codec.decode(record.payload()));
+            offset = record.nextOffset();
+        }
+        return new JournalPosition(segmentId, offset);
+    }
+
+    private JournalSegment readerFor(long segmentId) throws IOException {
+        if (reading == null || reading.id() != segmentId) {
+            if (reading != null) {
+                reading.close();
+            }
+            reading = JournalSegment.openForRead(journalDirectory, segmentId);
+        }
+        return reading;
+    }
+
+    private void applyBatch(List<Transaction> batch, JournalPosition end) {
+        transactionTemplate.executeWithoutResult(status -> {
+            transactionBatchRepository.insertTransactions(batch);
+            transactionBatchRepository.applyBalanceDeltas(batch);
+            balanceCache.invalidateAfterCommit(batch);
+            outboxRepository.append(TRANSACTIONS_TOPIC, batch.stream().map(TransactionEvent::completed).toList());
+            checkpointRepository.save(journalName, end.segmentId(), end.offset());
+        });
+    }
+
+    /**
+     * Replay every intact record left past the checkpoint by a previous process, then
+     * remove the old segments. Reading a segment stops at its first zero-length or
+     * CRC-mismatched record, which is where a crash cut the last write short.
+     * @return the id to use for the first new segment
+     */
+    private long recover() throws IOException {
+        List<Long> segmentIds = listSegmentIds();
+        Optional<JournalCheckpointRepository.Checkpoint> checkpoint = checkpointRepository.find(journalName);
+
+        long lastSegmentId = segmentIds.isEmpty() ? 0 : segmentIds.get(segmentIds.size() - 1);
+        if (checkpoint.isPresent()) {
+            lastSegmentId = Math.max(lastSegmentId, checkpoint.get().segmentId());
+        }
+
+        int replayed = 0;
+        for (long segmentId : segmentIds) {
+            int offset = 0;
+            if (checkpoint.isPresent()) {
+                if (segmentId < checkpoint.get().segmentId()) {
+                    continue;
+                }
+                if (segmentId == checkpoint.get().segmentId()) {
+                    offset = checkpoint.get().offset();
+                }
+            }
+
+            try (JournalSegment segment = JournalSegment.openForRead(journalDirectory, segmentId)) {
+                List<Transaction> batch = new ArrayList<>(applyBatchSize);
+                JournalSegment.JournalRecord record;
+                while ((record = segment.read(offset)) != null) {
+                    batch.add(codec.decode(record.payload()));
+                    offset = record.nextOffset();
+                    if (batch.size() == applyBatchSize) {
+                        applyBatch(batch, new JournalPosition(segmentId, offset));
+                        replayed += batch.size();
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    applyBatch(batch, new JournalPosition(segmentId, offset));
+                    replayed += batch.size();
+                }
+            }
+        }
+
+        for (long segmentId : segmentIds) {
+            JournalSegment.delete(journalDirectory, segmentId);
+        }
+        if (replayed > 0) {
+            log.warn("Journal '{}' replayed {} unapplied transactions from {} segments",
+                journalName, replayed, segmentIds.size());
+        }
+        return lastSegmentId + 1;
+    }
+
+    private List<Long> listSegmentIds() throws IOException {
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            return files.map(JournalSegment::parseId)
+                .filter(Objects::nonNull)
+                .sorted()
+                .toList();
+        }
+    }
+}
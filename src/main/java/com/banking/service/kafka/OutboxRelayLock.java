@@ -0,0 +1,102 @@
+package com.banking.service.kafka;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * MySQL named lock that elects the one instance allowed to relay the transaction outbox.
+ * Rows sharing a message key must reach Kafka in id order, which a second relay reading
+ * past the first one's batch would break.
+ *
+ * Unlike the ledger lock it is not required to start: every instance tries for it on each
+ * poll, and only the holder keeps a pooled connection open. MySQL releases the lock when
+ * that connection or the process dies, so another instance takes over on its next poll.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class OutboxRelayLock {
+
+    private final DataSource dataSource;
+
+    @Value("${app.outbox.lock.name:banking-outbox-relay}")
+    private String lockName;
+
+    private Connection connection;
+
+    /**
+     * @return true if this instance holds the lock, taking it if it is free
+     */
+    public synchronized boolean tryHold() {
+        if (connection != null) {
+            if (stillHeld()) {
+                return true;
+            }
+            log.warn("Lost outbox relay lock '{}'", lockName);
+            closeQuietly();
+        }
+        try {
+            connection = dataSource.getConnection();
+            try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+                statement.setString(1, lockName);
+                try (ResultSet rs = statement.executeQuery()) {
+                    if (rs.next() && rs.getInt(1) == 1) {
+                        log.info("Acquired outbox relay lock '{}'", lockName);
+                        return true;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Could not take outbox relay lock '{}'", lockName, e);
+        }
+        closeQuietly();
+        return false;
+    }
+
+    @PreDestroy
+    public synchronized void release() {
+        if (connection == null) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, lockName);
+            statement.execute();
+        } catch (SQLException e) {
+            log.warn("Could not release outbox relay lock '{}'", lockName, e);
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    private boolean stillHeld() {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT IS_USED_LOCK(?) = CONNECTION_ID()")) {
+            statement.setString(1, lockName);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            if (connection != null) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            log.debug("Failed to close outbox relay lock connection", e);
+        } finally {
+            connection = null;
+        }
+    }
+}
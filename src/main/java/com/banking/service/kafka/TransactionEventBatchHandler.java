@@ -0,0 +1,54 @@
+package com.banking.service.kafka;
+
+import com.banking.dto.event.TransactionEvent;
+import com.banking.service.AuditService;
+import com.banking.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Batch counterpart of {@link TransactionEventHandler}, enabled with
+ * {@code app.kafka.consumer.mode=batch}. Each poll is audited with a single insert and
+ * offsets are committed once per batch; if the audit write fails the batch is redelivered.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.kafka.consumer.mode", havingValue = "batch")
+public class TransactionEventBatchHandler {
+
+    private final AuditService auditService;
+    private final NotificationService notificationService;
+
+    @KafkaListener(
+        topics = "transactions",
+        groupId = "banking-transaction-group",
+        containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void handleTransactions(List<TransactionEvent> events) {
+        log.info("Processing batch of {} transaction events", events.size());
+        
+        // 1. Log transactions for audit, dropping redelivered events
+        List<TransactionEvent> fresh = auditService.logTransactions(events);
+        
+        // 2. Send notifications for newly audited events only
+        for (TransactionEvent event : fresh) {
+            try {
+                if ("COMPLETED".equals(event.getStatus())) {
+                    notificationService.sendTransactionNotification(event);
+                } else if ("FAILED".equals(event.getStatus())) {
+                    notificationService.sendTransactionFailureNotification(event);
+                }
+            } catch (Exception e) {
+                log.error("Error sending notification for transaction: " + event.getTransactionId(), e);
+            }
+        }
+        
+        log.info("Successfully processed {} of {} transaction events", fresh.size(), events.size());
+    }
+}
@@ -5,12 +5,14 @@ import com.banking.service.AuditService;
 import com.banking.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.kafka.consumer.mode", havingValue = "single", matchIfMissing = true)
 public class TransactionEventHandler {
 
     private final AuditService auditService;
@@ -0,0 +1,256 @@
+package com.banking.service.kafka;
+
+import com.banking.dto.event.TransactionEvent;
+import com.banking.repository.TransactionOutboxRepository;
+import com.banking.repository.TransactionOutboxRepository.FailedAttempt;
+import com.banking.repository.TransactionOutboxRepository.OutboxMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes events from the transaction outbox to Kafka.
+ *
+ * Only the instance holding the {@link OutboxRelayLock} relays; the others skip their polls.
+ * Each poll pages through the pending rows in id order: a batch is sent without waiting, the
+ * producer flushed once and the acknowledged rows deleted in bulk. The batch is the in-flight
+ * window: sends complete through callbacks, and the relay waits once per batch, up to the send
+ * timeout, before reading the next. No transaction or row lock is held while waiting on Kafka.
+ * Rows whose send failed or did not finish stay in the table and are retried on the next poll,
+ * so delivery is at-least-once.
+ *
+ * Events sharing a message key keep their order. Once a send for a key fails, later rows
+ * with that key are not sent, or, if already sent, not deleted, for the rest of the poll, so
+ * they are published again after the failed one; other keys carry on on the following pages.
+ * A row failing for a reason of its own, such as being too large or not deserializable, is
+ * set aside as FAILED after {@code app.outbox.max-attempts} and stops holding its key back;
+ * Kafka being unreachable does not count towards the attempts.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionOutboxRelay {
+
+    private final TransactionOutboxRepository outboxRepository;
+    private final KafkaTemplate<String, TransactionEvent> kafkaTemplate;
+    private final OutboxRelayLock relayLock;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${app.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private Counter published;
+    private Counter failed;
+    private Counter backpressured;
+    private Counter deadLettered;
+    private Timer batchTimer;
+
+    @PostConstruct
+    public void init() {
+        published = meterRegistry.counter("banking.outbox.published");
+        failed = meterRegistry.counter("banking.outbox.failed");
+        backpressured = meterRegistry.counter("banking.outbox.backpressured");
+        deadLettered = meterRegistry.counter("banking.outbox.dead-lettered");
+        Gauge.builder("banking.outbox.in-flight", inFlight, AtomicInteger::get)
+            .description("Outbox events sent to Kafka and not yet acknowledged")
+            .register(meterRegistry);
+        batchTimer = Timer.builder("banking.outbox.relay.batch")
+            .description("Time to claim, publish and delete one outbox batch")
+            .register(meterRegistry);
+        Gauge.builder("banking.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+            .description("Age of the oldest unpublished outbox event")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:100}")
+    public void relay() {
+        if (!relayLock.tryHold()) {
+            return;
+        }
+        try {
+            // Page through the pending rows; keys held back on one page stay held on the next
+            Set<String> heldKeys = new HashSet<>();
+            long after = 0;
+            while (after >= 0) {
+                long from = after;
+                after = batchTimer.record(() -> relayBatch(from, heldKeys));
+            }
+            lagMillis.set(outboxRepository.findOldestAge().map(Duration::toMillis).orElse(0L));
+        } catch (Exception e) {
+            log.error("Transaction outbox relay failed", e);
+        }
+    }
+
+    /**
+     * Publish one page of pending rows after {@code afterId}, skipping keys in {@code heldKeys}
+     * and adding the keys of rows that were not delivered.
+     *
+     * @return the id to read the next page after, or -1 to end this poll
+     */
+    private long relayBatch(long afterId, Set<String> heldKeys) {
+        List<OutboxMessage> batch = outboxRepository.findPending(afterId, batchSize);
+        if (batch.isEmpty()) {
+            return -1;
+        }
+
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        Set<String> rejectedKeys = new HashSet<>(heldKeys);
+        for (OutboxMessage message : batch) {
+            if (rejectedKeys.contains(message.messageKey())) {
+                sends.add(null);
+                continue;
+            }
+            CompletableFuture<?> send = send(message);
+            if (send.isCompletedExceptionally()) {
+                rejectedKeys.add(message.messageKey());
+            }
+            sends.add(send);
+        }
+        kafkaTemplate.flush();
+        boolean finished = awaitCompletion(sends);
+        if (!finished) {
+            backpressured.increment();
+        }
+
+        // In id order, so a failed or unfinished send holds back every later row with its key
+        List<Long> acked = new ArrayList<>(batch.size());
+        List<FailedAttempt> retries = new ArrayList<>();
+        List<FailedAttempt> exhausted = new ArrayList<>();
+        int unavailable = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxMessage message = batch.get(i);
+            CompletableFuture<?> send = sends.get(i);
+            boolean delivered = send != null && send.isDone() && !send.isCompletedExceptionally();
+            if (delivered && !heldKeys.contains(message.messageKey())) {
+                acked.add(message.id());
+                continue;
+            }
+            heldKeys.add(message.messageKey());
+            Throwable failure = send != null && send.isCompletedExceptionally() ? failureOf(send) : null;
+            if (failure != null && isTransient(failure)) {
+                unavailable++;
+            } else if (failure != null) {
+                FailedAttempt attempt = new FailedAttempt(message.id(), message.attempts() + 1, failure.toString());
+                if (attempt.attempts() >= maxAttempts) {
+                    log.error("Giving up on outbox event {} with key {} after {} attempts",
+                        message.id(), message.messageKey(), attempt.attempts(), failure);
+                    exhausted.add(attempt);
+                } else {
+                    retries.add(attempt);
+                }
+            }
+        }
+
+        outboxRepository.deleteByIds(acked);
+        outboxRepository.recordFailedAttempts(retries);
+        outboxRepository.markFailed(exhausted);
+        published.increment(acked.size());
+        deadLettered.increment(exhausted.size());
+
+        // Stop on a short page, a timed-out wait, or when Kafka looks unreachable
+        if (batch.size() < batchSize || !finished || (unavailable > 0 && acked.isEmpty())) {
+            return -1;
+        }
+        return batch.get(batch.size() - 1).id();
+    }
+
+    private static Throwable failureOf(CompletableFuture<?> send) {
+        try {
+            send.join();
+            return null;
+        } catch (CompletionException | CancellationException e) {
+            return e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    /**
+     * Whether the failure is Kafka being unavailable rather than something wrong with the event
+     * itself. Only the latter counts towards an event's attempts, so an outage sets nothing aside.
+     */
+    private static boolean isTransient(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return false if some sends were still pending when the send timeout ran out
+     */
+    private boolean awaitCompletion(List<CompletableFuture<?>> sends) {
+        try {
+            CompletableFuture.allOf(sends.stream().filter(Objects::nonNull).toArray(CompletableFuture<?>[]::new))
+                .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            // Individual failures are recorded by the callbacks; unacknowledged rows stay in the outbox
+        }
+        return true;
+    }
+
+    private CompletableFuture<SendResult<String, TransactionEvent>> send(OutboxMessage message) {
+        try {
+            TransactionEvent event = objectMapper.readValue(message.payload(), TransactionEvent.class);
+            ProducerRecord<String, TransactionEvent> record =
+                new ProducerRecord<>(message.topic(), message.messageKey(), event);
+            record.headers().add("transactionType", message.transactionType().getBytes(StandardCharsets.UTF_8));
+            inFlight.incrementAndGet();
+            return kafkaTemplate.send(record).whenComplete((result, ex) -> {
+                inFlight.decrementAndGet();
+                if (ex != null) {
+                    failed.increment();
+                    log.warn("Failed to publish outbox event {}, will retry", message.id(), ex);
+                }
+            });
+        } catch (Exception e) {
+            failed.increment();
+            log.error("Could not send outbox event {}; later events with key {} wait for it",
+                message.id(), message.messageKey(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
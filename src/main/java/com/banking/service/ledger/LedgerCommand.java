@@ -0,0 +1,93 @@
+package com.banking.service.ledger;
+
+import com.banking.model.Transaction;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A single balance mutation routed to the shard that owns the account.
+ *
+ * @param transaction journaled by the shard before the new balance is published; null for
+ *                    adjustments, which only correct a balance already journaled elsewhere
+ * @param result      completed when the mutation is applied and durable, or failed if it was
+ *                    rejected. Null for adjustments nobody waits on.
+ * @param state       lets a submitter that gave up withdraw the command before the shard
+ *                    reaches it. Null for internal hand-offs, which cannot be withdrawn.
+ */
+record LedgerCommand(
+    Kind kind,
+    Long accountId,
+    BigDecimal amount,
+    Transaction transaction,
+    CompletableFuture<Void> result,
+    AtomicInteger state
+) {
+    enum Kind {
+        /** Withdrawal: checked against the balance, journaled, then published. */
+        DEBIT,
+        /** Deposit: journaled, then published. */
+        CREDIT,
+        /** Transfer, first leg: checked and debited on the source shard, then handed to the destination. */
+        TRANSFER_OUT,
+        /** Transfer, second leg: journaled and credited on the destination shard. */
+        TRANSFER_IN,
+        /** Unconditional signed change; backs out a posting whose journal write failed. */
+        ADJUST,
+        /** Releases a source account held by {@link #TRANSFER_OUT}, applying the signed amount. */
+        SETTLE
+    }
+
+    private static final int PENDING = 0;
+    private static final int STARTED = 1;
+    private static final int CANCELLED = 2;
+
+    static LedgerCommand debit(Long accountId, Transaction transaction) {
+        return submitted(Kind.DEBIT, accountId, transaction);
+    }
+
+    static LedgerCommand credit(Long accountId, Transaction transaction) {
+        return submitted(Kind.CREDIT, accountId, transaction);
+    }
+
+    static LedgerCommand transfer(Long fromAccountId, Transaction transaction) {
+        return submitted(Kind.TRANSFER_OUT, fromAccountId, transaction);
+    }
+
+    /**
+     * The destination leg of a transfer; it shares the submitter's result.
+     */
+    LedgerCommand toDestination() {
+        return new LedgerCommand(Kind.TRANSFER_IN, transaction.getToAccount().getId(), amount, transaction, result, null);
+    }
+
+    static LedgerCommand adjust(Long accountId, BigDecimal delta) {
+        return new LedgerCommand(Kind.ADJUST, accountId, delta, null, null, null);
+    }
+
+    static LedgerCommand settle(Long accountId, BigDecimal delta) {
+        return new LedgerCommand(Kind.SETTLE, accountId, delta, null, null, null);
+    }
+
+    private static LedgerCommand submitted(Kind kind, Long accountId, Transaction transaction) {
+        return new LedgerCommand(kind, accountId, transaction.getAmount(), transaction,
+            new CompletableFuture<>(), new AtomicInteger(PENDING));
+    }
+
+    /**
+     * Called by the shard before applying the command.
+     * @return false if the submitter already withdrew it
+     */
+    boolean start() {
+        return state == null || state.compareAndSet(PENDING, STARTED);
+    }
+
+    /**
+     * Called by a submitter that stopped waiting.
+     * @return false if the shard has already started applying the command
+     */
+    boolean cancel() {
+        return state != null && state.compareAndSet(PENDING, CANCELLED);
+    }
+}
@@ -0,0 +1,177 @@
+package com.banking.service.ledger;
+
+import com.banking.exception.AccountNotFoundException;
+import com.banking.exception.InvalidAccountOperationException;
+import com.banking.model.Transaction;
+import com.banking.repository.AccountRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * In-memory ledger that partitions accounts across single-threaded shards.
+ *
+ * Each shard owns the balances of its accounts, so debits are checked and applied
+ * without database round trips or row locks. Applied transactions are persisted
+ * asynchronously through the {@link LedgerJournal}. While this mode is enabled every
+ * balance mutation must go through the engine, otherwise shard balances go stale.
+ *
+ * The balances live in this process only, so the engine must run on exactly one node: a
+ * second node would check debits against its own copy and could spend the same funds
+ * again. {@link LedgerLock} enforces this by failing the startup of any other instance
+ * with the ledger enabled. Route ledger traffic to that node.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.ledger.enabled", havingValue = "true")
+@DependsOn("ledgerLock")
+public class LedgerEngine {
+
+    private final AccountRepository accountRepository;
+    private final LedgerJournal journal;
+
+    @Value("${app.ledger.shards:4}")
+    private int shardCount;
+
+    @Value("${app.ledger.ring-size:65536}")
+    private int ringSize;
+
+    @Value("${app.ledger.submit-timeout-ms:5000}")
+    private long submitTimeoutMs;
+
+    @Value("${app.ledger.max-accounts-per-shard:250000}")
+    private int maxAccountsPerShard;
+
+    private LedgerShard[] shards;
+    private Thread[] threads;
+
+    @PostConstruct
+    public void start() {
+        shards = new LedgerShard[shardCount];
+        threads = new Thread[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard(i, ringSize, maxAccountsPerShard, journal, this::loadBalance, this::shardFor);
+            threads[i] = new Thread(shards[i], "ledger-shard-" + i);
+            threads[i].start();
+        }
+        log.info("Ledger engine started with {} shards", shardCount);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (LedgerShard shard : shards) {
+            shard.stop();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Apply a deposit, withdrawal or transfer and wait until the journal has made it durable.
+     * @throws com.banking.exception.InsufficientFundsException if the source account cannot cover the amount
+     * @throws IllegalStateException if the ledger is saturated or did not reach the transaction in
+     *                               time; the transaction has not been applied and will not be
+     */
+    public void execute(Transaction transaction) {
+        post(transaction).await();
+    }
+
+    /**
+     * Hand a deposit, withdrawal or transfer to its shard without waiting for the outcome, so a
+     * caller can keep many in flight. Postings debiting or crediting the same account are applied
+     * in the order they were made; the credit leg of a transfer is applied on the destination's
+     * shard after the debit, so it may land after later postings to the destination.
+     * @throws IllegalStateException if the ledger is saturated; the transaction has not been applied
+     */
+    public Posting post(Transaction transaction) {
+        LedgerCommand command = switch (transaction.getTransactionType()) {
+            case DEPOSIT -> LedgerCommand.credit(transaction.getToAccount().getId(), transaction);
+            case WITHDRAWAL -> LedgerCommand.debit(transaction.getFromAccount().getId(), transaction);
+            case TRANSFER -> LedgerCommand.transfer(transaction.getFromAccount().getId(), transaction);
+            default -> throw new InvalidAccountOperationException(
+                "Unsupported transaction type: " + transaction.getTransactionType());
+        };
+
+        submit(command);
+        return new Posting(command);
+    }
+
+    /**
+     * A transaction handed to the ledger whose outcome has not been collected yet.
+     */
+    public final class Posting {
+
+        private final LedgerCommand command;
+
+        private Posting(LedgerCommand command) {
+            this.command = command;
+        }
+
+        /**
+         * Wait until the posting is durable, with the outcomes of {@link #execute}.
+         */
+        public void await() {
+            LedgerEngine.this.await(command, command.transaction().getTransactionReference());
+        }
+    }
+
+    private void submit(LedgerCommand command) {
+        try {
+            shardFor(command.accountId()).submit(command, submitTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while submitting to the ledger", e);
+        }
+    }
+
+    /**
+     * Wait for the outcome. A command the shard has not started yet is withdrawn on timeout,
+     * so the caller's failure is final; one already started has reached the journal, whose
+     * write settles the outcome either way, so that one is waited for to the end.
+     */
+    private void await(LedgerCommand command, String reference) {
+        try {
+            try {
+                command.result().get(submitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (command.cancel()) {
+                    throw new IllegalStateException("Ledger did not reach transaction " + reference + " in time", e);
+                }
+                command.result().get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Ledger failed to apply transaction " + reference, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (command.cancel()) {
+                throw new IllegalStateException("Interrupted while waiting for the ledger", e);
+            }
+            throw new IllegalStateException("Interrupted while the ledger was applying transaction " + reference
+                + "; check the journal for its outcome", e);
+        }
+    }
+
+    private LedgerShard shardFor(Long accountId) {
+        return shards[Math.floorMod(Long.hashCode(accountId), shards.length)];
+    }
+
+    private BigDecimal loadBalance(Long accountId) {
+        return accountRepository.getBalanceById(accountId)
+            .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + accountId));
+    }
+}
@@ -0,0 +1,27 @@
+package com.banking.service.ledger;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the ledger down while its journal rejects writes, since every posting then fails.
+ */
+@Component("ledger")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.ledger.enabled", havingValue = "true")
+class LedgerHealthIndicator implements HealthIndicator {
+
+    private final LedgerJournal journal;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = journal.accepting() ? Health.up() : Health.down();
+        return builder
+            .withDetail("appended", journal.appended())
+            .withDetail("persisted", journal.persisted())
+            .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.banking.service.ledger;
+
+import com.banking.model.Transaction;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Persists transactions applied by the {@link LedgerEngine}, together with their outbox
+ * events. Called on shard threads, so implementations must not block.
+ */
+public interface LedgerJournal {
+
+    /**
+     * Record an applied transaction.
+     * @return a future that completes once the journal guarantees the transaction will be persisted
+     */
+    CompletableFuture<Void> append(Transaction transaction);
+
+    /**
+     * Number of transactions accepted by {@link #append} so far.
+     */
+    long appended();
+
+    /**
+     * Number of appended transactions written to the database. Transactions are written in
+     * append order, so every transaction counted by an earlier {@link #appended()} reading
+     * at or below this value is in the database.
+     */
+    long persisted();
+
+    /**
+     * Whether {@link #append} currently accepts transactions. False once the journal has
+     * stopped taking writes because it could not make them durable.
+     */
+    boolean accepting();
+}
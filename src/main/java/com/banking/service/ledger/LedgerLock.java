@@ -0,0 +1,70 @@
+package com.banking.service.ledger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Holds a MySQL named lock for as long as the ledger engine runs, so that only one instance
+ * keeps in-memory balances. An instance that cannot take the lock within the wait fails to
+ * start. The lock is tied to a dedicated connection taken from the pool for the lifetime of
+ * the process; MySQL releases it if that connection or the process dies.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.ledger.enabled", havingValue = "true")
+class LedgerLock {
+
+    private final DataSource dataSource;
+
+    @Value("${app.ledger.lock.name:banking-ledger}")
+    private String lockName;
+
+    @Value("${app.ledger.lock.wait-seconds:60}")
+    private int waitSeconds;
+
+    private Connection connection;
+
+    @PostConstruct
+    public void acquire() throws SQLException {
+        connection = dataSource.getConnection();
+        boolean acquired;
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            statement.setString(1, lockName);
+            statement.setInt(2, waitSeconds);
+            try (ResultSet rs = statement.executeQuery()) {
+                acquired = rs.next() && rs.getInt(1) == 1;
+            }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        if (!acquired) {
+            connection.close();
+            throw new IllegalStateException("Another instance holds ledger lock '" + lockName
+                + "'; the ledger engine can only run on one node");
+        }
+        log.info("Acquired ledger lock '{}'", lockName);
+    }
+
+    @PreDestroy
+    public void release() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, lockName);
+            statement.execute();
+        } finally {
+            connection.close();
+        }
+    }
+}
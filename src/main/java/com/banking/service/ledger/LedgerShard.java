@@ -0,0 +1,239 @@
+package com.banking.service.ledger;
+
+import com.banking.exception.InsufficientFundsException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Owns the in-memory balances of one partition of accounts. All mutations run on the
+ * shard's own thread, so balances are read and written without locks.
+ *
+ * A posting is appended to the journal before its balance is published, so a rejected
+ * append changes nothing. Durability is confirmed asynchronously; until then later commands
+ * already see the new balance, and if the write fails the posting is backed out with an
+ * adjustment. Anything that spent it was journaled after it and fails with it.
+ *
+ * At most {@code maxAccounts} balances are kept. Beyond that, the least recently used
+ * accounts whose postings have all reached the database are dropped and reloaded on next
+ * use; accounts with postings still in the journal, or held by an unfinished transfer, stay.
+ */
+@Slf4j
+class LedgerShard implements Runnable {
+
+    private static final int DRAIN_BATCH = 256;
+    private static final int EVICTION_SCAN = 32;
+    private static final long IDLE_POLL_MS = 5;
+
+    private final int index;
+    private final int maxAccounts;
+    private final BlockingQueue<LedgerCommand> ring;
+    // Unbounded so a shard or the journal handing work to a shard never blocks on it
+    private final Queue<LedgerCommand> handOffs = new ConcurrentLinkedQueue<>();
+    // Access order, so iteration starts at the least recently used account
+    private final LinkedHashMap<Long, Balance> balances = new LinkedHashMap<>(16, 0.75f, true);
+    private final LedgerJournal journal;
+    private final Function<Long, BigDecimal> balanceLoader;
+    private final Function<Long, LedgerShard> router;
+    private final List<LedgerCommand> batch = new ArrayList<>(DRAIN_BATCH);
+
+    private volatile boolean running = true;
+
+    LedgerShard(int index, int ringSize, int maxAccounts, LedgerJournal journal,
+                Function<Long, BigDecimal> balanceLoader, Function<Long, LedgerShard> router) {
+        this.index = index;
+        this.maxAccounts = maxAccounts;
+        this.ring = new ArrayBlockingQueue<>(ringSize);
+        this.journal = journal;
+        this.balanceLoader = balanceLoader;
+        this.router = router;
+    }
+
+    void submit(LedgerCommand command, long timeoutMs) throws InterruptedException {
+        if (!ring.offer(command, timeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Ledger shard " + index + " is saturated");
+        }
+    }
+
+    void handOff(LedgerCommand command) {
+        handOffs.add(command);
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        log.info("Ledger shard {} started", index);
+        while (running || !ring.isEmpty() || !handOffs.isEmpty()) {
+            try {
+                LedgerCommand handOff;
+                while ((handOff = handOffs.poll()) != null) {
+                    apply(handOff);
+                }
+
+                LedgerCommand first = ring.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                apply(first);
+                ring.drainTo(batch, DRAIN_BATCH);
+                for (LedgerCommand command : batch) {
+                    apply(command);
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+        log.info("Ledger shard {} stopped", index);
+    }
+
+    private void apply(LedgerCommand command) {
+        if (!command.start()) {
+            // The submitter timed out and has already reported the transaction as not applied
+            return;
+        }
+        try {
+            switch (command.kind()) {
+                case DEBIT -> {
+                    Balance account = balance(command.accountId());
+                    if (account.amount.compareTo(command.amount()) < 0) {
+                        fail(command, new InsufficientFundsException("Insufficient funds in the account"));
+                        return;
+                    }
+                    post(command, account, command.amount().negate(), null);
+                }
+                case CREDIT -> post(command, balance(command.accountId()), command.amount(), null);
+                case TRANSFER_OUT -> {
+                    Balance source = balance(command.accountId());
+                    if (source.amount.compareTo(command.amount()) < 0) {
+                        fail(command, new InsufficientFundsException("Insufficient funds in the account"));
+                        return;
+                    }
+                    // Held until the destination has journaled the transfer, so it cannot be
+                    // evicted and reloaded from a database row that does not have the debit yet
+                    source.amount = source.amount.subtract(command.amount());
+                    source.heldByTransfers++;
+                    LedgerCommand destination = command.toDestination();
+                    router.apply(destination.accountId()).handOff(destination);
+                }
+                case TRANSFER_IN -> post(command, balance(command.accountId()), command.amount(),
+                    command.transaction().getFromAccount().getId());
+                case ADJUST -> {
+                    Balance account = balance(command.accountId());
+                    account.amount = account.amount.add(command.amount());
+                    account.journaled = journal.appended();
+                }
+                case SETTLE -> {
+                    Balance source = balance(command.accountId());
+                    source.amount = source.amount.add(command.amount());
+                    source.heldByTransfers--;
+                    source.journaled = journal.appended();
+                }
+            }
+        } catch (RuntimeException e) {
+            if (command.result() == null) {
+                log.error("Ledger shard {} failed to apply {} of {} to account {}",
+                    index, command.kind(), command.amount(), command.accountId(), e);
+            }
+            if (command.kind() == LedgerCommand.Kind.TRANSFER_IN) {
+                release(command.transaction().getFromAccount().getId(), command.amount());
+            }
+            fail(command, e);
+        } finally {
+            evictSettled();
+        }
+    }
+
+    /**
+     * Journal the command's transaction, then publish {@code delta}. When the transaction is
+     * the second leg of a transfer, the source account is released once the outcome is known,
+     * and its debit is returned if the transfer failed.
+     */
+    private void post(LedgerCommand command, Balance account, BigDecimal delta, Long heldSourceId) {
+        CompletableFuture<Void> durable = journal.append(command.transaction());
+        boolean published = !durable.isCompletedExceptionally();
+        if (published) {
+            account.amount = account.amount.add(delta);
+            account.journaled = journal.appended();
+        }
+        durable.whenComplete((ignored, error) -> {
+            if (error != null) {
+                if (published) {
+                    // May run on a journal thread, so the balance is backed out on the shard's own
+                    handOff(LedgerCommand.adjust(command.accountId(), delta.negate()));
+                }
+                release(heldSourceId, command.amount());
+                fail(command, error);
+            } else {
+                release(heldSourceId, BigDecimal.ZERO);
+                command.result().complete(null);
+            }
+        });
+    }
+
+    private void release(Long sourceAccountId, BigDecimal refund) {
+        if (sourceAccountId != null) {
+            router.apply(sourceAccountId).handOff(LedgerCommand.settle(sourceAccountId, refund));
+        }
+    }
+
+    private Balance balance(Long accountId) {
+        Balance balance = balances.get(accountId);
+        if (balance == null) {
+            balance = new Balance(balanceLoader.apply(accountId));
+            balances.put(accountId, balance);
+        }
+        return balance;
+    }
+
+    /**
+     * Drop least recently used balances the database has fully caught up with, looking at
+     * a bounded number of entries per command.
+     */
+    private void evictSettled() {
+        if (balances.size() <= maxAccounts) {
+            return;
+        }
+        long persisted = journal.persisted();
+        Iterator<Balance> eldest = balances.values().iterator();
+        for (int scanned = 0; scanned < EVICTION_SCAN && balances.size() > maxAccounts && eldest.hasNext(); scanned++) {
+            Balance balance = eldest.next();
+            if (balance.heldByTransfers == 0 && balance.journaled <= persisted) {
+                eldest.remove();
+            }
+        }
+    }
+
+    private void fail(LedgerCommand command, Throwable error) {
+        if (command.result() != null) {
+            command.result().completeExceptionally(error);
+        }
+    }
+
+    private static final class Balance {
+
+        private BigDecimal amount;
+        // Journal appended() reading taken after the account's latest posting
+        private long journaled;
+        private int heldByTransfers;
+
+        Balance(BigDecimal amount) {
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.banking.service.ledger;
+
+import com.banking.dto.event.TransactionEvent;
+import com.banking.model.Transaction;
+import com.banking.repository.TransactionBatchRepository;
+import com.banking.repository.TransactionOutboxRepository;
+import com.banking.service.AccountBalanceCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind journal for the ledger engine. Applied transactions are queued in memory
+ * and persisted to the transactions and accounts tables in batches, together with their
+ * outbox events, one database transaction per batch. Queued transactions are lost if the
+ * process dies before a flush.
+ *
+ * A batch that fails to persist is retried on every flush. Once it has failed the configured
+ * number of times in a row the journal stops accepting appends, so shards reject new postings
+ * instead of moving their balances further ahead of the database, and the ledger reports
+ * itself down. Appends are accepted again once the batch goes through.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("${app.ledger.enabled:false} and '${app.ledger.journal.mode:memory}' == 'memory'")
+public class WriteBehindLedgerJournal implements LedgerJournal {
+
+    private static final CompletableFuture<Void> ACCEPTED = CompletableFuture.completedFuture(null);
+    private static final int SHUTDOWN_FLUSH_ATTEMPTS = 3;
+    private static final String TRANSACTIONS_TOPIC = "transactions";
+
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final TransactionOutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountBalanceCache balanceCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.ledger.journal.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.ledger.journal.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${app.ledger.journal.max-flush-attempts:10}")
+    private int maxFlushAttempts;
+
+    private final BlockingQueue<Transaction> pending = new LinkedBlockingQueue<>();
+    // Owned by the flusher thread; holds a batch that failed to persist until it succeeds
+    private final List<Transaction> batch = new ArrayList<>();
+    // Guarded by pending, so the count and the queue order agree
+    private long appended;
+    private volatile long persisted;
+    // Consecutive failures to persist the current batch; written by the flusher thread only
+    private volatile int failedAttempts;
+    private volatile Exception failure;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("banking.ledger.journal.pending", pending, BlockingQueue::size)
+            .description("Ledger transactions applied in memory but not yet persisted")
+            .register(meterRegistry);
+        Gauge.builder("banking.ledger.journal.failed.attempts", this, journal -> journal.failedAttempts)
+            .description("Consecutive failed attempts to persist the oldest ledger journal batch")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<Void> append(Transaction transaction) {
+        Exception cause = failure;
+        if (cause != null) {
+            return CompletableFuture.failedFuture(
+                new IllegalStateException("Ledger journal is not accepting writes until it can persist again", cause));
+        }
+        synchronized (pending) {
+            pending.add(transaction);
+            appended++;
+        }
+        return ACCEPTED;
+    }
+
+    @Override
+    public long appended() {
+        synchronized (pending) {
+            return appended;
+        }
+    }
+
+    @Override
+    public long persisted() {
+        return persisted;
+    }
+
+    @Override
+    public boolean accepting() {
+        return failure == null;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+
+        for (int attempt = 0; attempt < SHUTDOWN_FLUSH_ATTEMPTS && hasBacklog(); attempt++) {
+            flush();
+        }
+        if (hasBacklog()) {
+            log.error("Ledger journal stopped with {} unpersisted transactions", pending.size() + batch.size());
+        }
+    }
+
+    private boolean hasBacklog() {
+        return !pending.isEmpty() || !batch.isEmpty();
+    }
+
+    private void flush() {
+        try {
+            do {
+                if (batch.isEmpty()) {
+                    pending.drainTo(batch, batchSize);
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    transactionBatchRepository.insertTransactions(batch);
+                    transactionBatchRepository.applyBalanceDeltas(batch);
+                    balanceCache.invalidateAfterCommit(batch);
+                    outboxRepository.append(TRANSACTIONS_TOPIC, batch.stream().map(TransactionEvent::completed).toList());
+                });
+                log.debug("Ledger journal persisted {} transactions", batch.size());
+                persisted += batch.size();
+                batch.clear();
+                failedAttempts = 0;
+                if (failure != null) {
+                    failure = null;
+                    log.info("Ledger journal persisted its stuck batch; accepting writes again");
+                }
+            } while (pending.size() >= batchSize);
+        } catch (Exception e) {
+            int attempts = failedAttempts + 1;
+            failedAttempts = attempts;
+            if (attempts >= maxFlushAttempts && failure == null) {
+                failure = e;
+                log.error("Failed to persist ledger journal batch of {} transactions {} times; rejecting further writes",
+                    batch.size(), attempts, e);
+            } else {
+                log.error("Failed to persist ledger journal batch of {} transactions, will retry", batch.size(), e);
+            }
+        }
+    }
+}
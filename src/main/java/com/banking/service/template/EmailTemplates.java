@@ -0,0 +1,109 @@
+package com.banking.service.template;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Email templates under {@code templates/email}, compiled once at startup.
+ *
+ * Each email has a plain text body, {@code <name>.txt}, and optionally an HTML body,
+ * {@code <name>.html}. Locale variants are named {@code <name>_<locale>.<ext>}, for example
+ * {@code recurring-payment-success_de.txt}, and resolve from the most specific locale down
+ * to the unsuffixed default. Rendering goes through a per-thread buffer that is reused.
+ */
+@Slf4j
+@Component
+public class EmailTemplates {
+
+    private static final String LOCATION = "classpath*:templates/email/*.*";
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    @Value("${app.email.locale:en}")
+    private Locale defaultLocale;
+
+    // "<name>.<ext>" -> locale suffix ("" for the default) -> template
+    private final Map<String, Map<String, Template>> templates = new HashMap<>();
+
+    @PostConstruct
+    public void load() {
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+                String filename = resource.getFilename();
+                int dot = filename != null ? filename.lastIndexOf('.') : -1;
+                if (dot < 0) {
+                    continue;
+                }
+                String extension = filename.substring(dot + 1);
+                if (!extension.equals("txt") && !extension.equals("html")) {
+                    continue;
+                }
+                String base = filename.substring(0, dot);
+                int underscore = base.indexOf('_');
+                String name = underscore < 0 ? base : base.substring(0, underscore);
+                String locale = underscore < 0 ? "" : base.substring(underscore + 1);
+
+                String source = resource.getContentAsString(StandardCharsets.UTF_8);
+                templates.computeIfAbsent(name + "." + extension, key -> new HashMap<>())
+                    .put(locale, Template.compile(filename, source, extension.equals("html")));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load email templates", e);
+        }
+        log.info("Compiled {} email templates", templates.values().stream().mapToInt(Map::size).sum());
+    }
+
+    public RenderedEmail render(String name, Map<String, ?> model) {
+        return render(name, defaultLocale, model);
+    }
+
+    /**
+     * Render the text body, and the HTML body if the email has one, for {@code locale}.
+     */
+    public RenderedEmail render(String name, Locale locale, Map<String, ?> model) {
+        Template text = resolve(name + ".txt", locale);
+        if (text == null) {
+            throw new IllegalArgumentException("No email template named " + name);
+        }
+        Template html = resolve(name + ".html", locale);
+        return new RenderedEmail(renderToString(text, model), html != null ? renderToString(html, model) : null);
+    }
+
+    private Template resolve(String key, Locale locale) {
+        Map<String, Template> variants = templates.get(key);
+        if (variants == null) {
+            return null;
+        }
+        Template template = variants.get(locale.toString());
+        if (template == null) {
+            template = variants.get(locale.getLanguage());
+        }
+        return template != null ? template : variants.get("");
+    }
+
+    private static String renderToString(Template template, Map<String, ?> model) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        template.render(model, buffer);
+        String rendered = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+
+    public record RenderedEmail(String text, String html) {
+    }
+}
@@ -0,0 +1,160 @@
+package com.banking.service.template;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template compiled once into a flat list of segments.
+ *
+ * Supports a small Mustache subset: {@code {{name}}} inserts a value, escaped when the
+ * template is HTML; {@code {{{name}}}} inserts it unescaped; {@code {{#name}}...{{/name}}}
+ * renders its body only when the value is present, and {@code {{^name}}...{{/name}}} only
+ * when it is not. A value is absent when it is missing, null, false or empty. Rendering
+ * walks the segments and appends to the caller's buffer, so nothing is re-parsed per send.
+ */
+public final class Template {
+
+    private final String name;
+    private final Segment[] segments;
+
+    private Template(String name, Segment[] segments) {
+        this.name = name;
+        this.segments = segments;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public void render(Map<String, ?> model, StringBuilder out) {
+        renderAll(segments, model, out);
+    }
+
+    /**
+     * Parse {@code source}; malformed tags fail here rather than at render time.
+     */
+    public static Template compile(String name, String source, boolean escapeHtml) {
+        Deque<List<Segment>> open = new ArrayDeque<>();
+        Deque<String> openKeys = new ArrayDeque<>();
+        Deque<Boolean> openInverted = new ArrayDeque<>();
+        List<Segment> current = new ArrayList<>();
+
+        int pos = 0;
+        while (pos < source.length()) {
+            int start = source.indexOf("{{", pos);
+            if (start < 0) {
+                current.add(new Text(source.substring(pos)));
+                break;
+            }
+            if (start > pos) {
+                current.add(new Text(source.substring(pos, start)));
+            }
+            boolean raw = source.startsWith("{{{", start);
+            String closing = raw ? "}}}" : "}}";
+            int tagStart = start + closing.length();
+            int end = source.indexOf(closing, tagStart);
+            if (end < 0) {
+                throw new IllegalArgumentException(name + ": unclosed tag at offset " + start);
+            }
+            String tag = source.substring(tagStart, end).trim();
+            pos = end + closing.length();
+            if (tag.isEmpty()) {
+                throw new IllegalArgumentException(name + ": empty tag at offset " + start);
+            }
+
+            char kind = tag.charAt(0);
+            if (raw || (kind != '#' && kind != '^' && kind != '/')) {
+                current.add(new Variable(tag, escapeHtml && !raw));
+            } else if (kind == '/') {
+                String key = tag.substring(1).trim();
+                if (openKeys.isEmpty() || !openKeys.peek().equals(key)) {
+                    throw new IllegalArgumentException(name + ": unexpected {{/" + key + "}} at offset " + start);
+                }
+                Segment section = new Section(openKeys.pop(), openInverted.pop(), current.toArray(Segment[]::new));
+                current = open.pop();
+                current.add(section);
+            } else {
+                open.push(current);
+                openKeys.push(tag.substring(1).trim());
+                openInverted.push(kind == '^');
+                current = new ArrayList<>();
+            }
+        }
+        if (!openKeys.isEmpty()) {
+            throw new IllegalArgumentException(name + ": unclosed section {{#" + openKeys.peek() + "}}");
+        }
+        return new Template(name, current.toArray(Segment[]::new));
+    }
+
+    private static void renderAll(Segment[] segments, Map<String, ?> model, StringBuilder out) {
+        for (Segment segment : segments) {
+            segment.render(model, out);
+        }
+    }
+
+    private static boolean isPresent(Object value) {
+        if (value == null || Boolean.FALSE.equals(value)) {
+            return false;
+        }
+        if (value instanceof CharSequence text) {
+            return !text.isEmpty();
+        }
+        if (value instanceof Collection<?> collection) {
+            return !collection.isEmpty();
+        }
+        return true;
+    }
+
+    private static void appendEscaped(String value, StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private interface Segment {
+        void render(Map<String, ?> model, StringBuilder out);
+    }
+
+    private record Text(String text) implements Segment {
+        @Override
+        public void render(Map<String, ?> model, StringBuilder out) {
+            out.append(text);
+        }
+    }
+
+    private record Variable(String key, boolean escape) implements Segment {
+        @Override
+        public void render(Map<String, ?> model, StringBuilder out) {
+            Object value = model.get(key);
+            if (value == null) {
+                return;
+            }
+            if (escape) {
+                appendEscaped(value.toString(), out);
+            } else {
+                out.append(value);
+            }
+        }
+    }
+
+    private record Section(String key, boolean inverted, Segment[] body) implements Segment {
+        @Override
+        public void render(Map<String, ?> model, StringBuilder out) {
+            if (isPresent(model.get(key)) != inverted) {
+                renderAll(body, model, out);
+            }
+        }
+    }
+}
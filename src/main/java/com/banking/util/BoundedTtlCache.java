@@ -0,0 +1,163 @@
+package com.banking.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Size-bounded in-memory cache with per-entry expiry.
+ *
+ * Keys are spread over independently locked segments, each an access-ordered
+ * LinkedHashMap that drops its least recently used entry once full, so contention
+ * stays per segment and memory stays bounded without a background sweeper.
+ * Expired entries are removed lazily when they are next read.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final Segment<K, V>[] segments;
+    private final long defaultTtlNanos;
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedTtlCache(int maximumSize, Duration defaultTtl) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        int segmentCount = Math.min(
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2)),
+            Integer.highestOneBit(maximumSize));
+        int segmentCapacity = Math.max(1, maximumSize / segmentCount);
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Segment<K, V>[] created = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            created[i] = new Segment<>(segmentCapacity, evictions);
+        }
+        this.segments = created;
+        this.defaultTtlNanos = defaultTtl.toNanos();
+    }
+
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired(System.nanoTime())) {
+                segment.remove(key);
+                return null;
+            }
+            return entry.value();
+        }
+    }
+
+    public void put(K key, V value) {
+        put(key, value, defaultTtlNanos);
+    }
+
+    public void put(K key, V value, Duration ttl) {
+        put(key, value, ttl.toNanos());
+    }
+
+    /**
+     * Return the live value for the key, creating it with the loader if absent or expired.
+     * The loader runs under the segment lock and must be cheap.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.nanoTime();
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry != null && !entry.isExpired(now)) {
+                return entry.value();
+            }
+            V value = loader.apply(key);
+            segment.put(key, new Entry<>(value, now + defaultTtlNanos));
+            return value;
+        }
+    }
+
+    /**
+     * Atomically replace the live value for the key (null if absent or expired) with the
+     * result of the function; a null result removes the entry. Runs under the segment lock.
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.nanoTime();
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            V current = entry != null && !entry.isExpired(now) ? entry.value() : null;
+            V value = function.apply(key, current);
+            if (value == null) {
+                segment.remove(key);
+            } else if (value != current) {
+                segment.put(key, new Entry<>(value, now + defaultTtlNanos));
+            }
+            return value;
+        }
+    }
+
+    public void remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private void put(K key, V value, long ttlNanos) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (segments.length - 1)];
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+
+        private final int capacity;
+        private final LongAdder evictions;
+
+        Segment(int capacity, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.banking.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel holding items until their due time.
+ *
+ * Level 0 has {@code wheelSize} slots one tick wide; each level above has as many slots,
+ * each as wide as a whole turn of the level below, and levels are added as items are
+ * scheduled further out. An item goes into the lowest level whose span covers its due time
+ * and drops a level each time the wheel reaches its slot, so scheduling, cancelling and
+ * firing cost O(1) per item plus at most one move per level.
+ *
+ * Items are never returned early: one due at {@code t} comes back from the first
+ * {@link #advanceTo} at or after the end of the tick containing {@code t}. The wheel keeps
+ * no clock of its own and every method locks the wheel.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<Level<T>> levels = new ArrayList<>();
+    private long currentTime;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+        levels.add(new Level<>(tickMillis, wheelSize));
+    }
+
+    /**
+     * Hold {@code item} until {@code dueMillis}. A due time already passed fires on the next tick.
+     */
+    public synchronized Timeout<T> schedule(T item, long dueMillis) {
+        Timeout<T> timeout = new Timeout<>(this, item, dueMillis);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Move the wheel to {@code nowMillis} and return the timeouts that became due, earliest tick first.
+     */
+    public synchronized List<Timeout<T>> advanceTo(long nowMillis) {
+        List<Timeout<T>> expired = new ArrayList<>();
+        if (size == 0) {
+            if (nowMillis > currentTime) {
+                currentTime = nowMillis - Math.floorMod(nowMillis, tickMillis);
+            }
+            return expired;
+        }
+        while (nowMillis - currentTime >= tickMillis) {
+            Bucket<T> due = levels.get(0).bucketFor(currentTime);
+            for (Timeout<T> timeout = due.poll(); timeout != null; timeout = due.poll()) {
+                size--;
+                expired.add(timeout);
+            }
+            currentTime += tickMillis;
+            for (int i = levels.size() - 1; i > 0; i--) {
+                Level<T> level = levels.get(i);
+                if (Math.floorMod(currentTime, level.tickMillis) == 0) {
+                    Bucket<T> cascading = level.bucketFor(currentTime);
+                    for (Timeout<T> timeout = cascading.poll(); timeout != null; timeout = cascading.poll()) {
+                        place(timeout);
+                    }
+                }
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void place(Timeout<T> timeout) {
+        long due = Math.max(timeout.dueMillis, currentTime);
+        for (int i = 0; ; i++) {
+            if (i == levels.size()) {
+                Level<T> top = levels.get(i - 1);
+                try {
+                    levels.add(new Level<>(top.spanMillis, wheelSize));
+                } catch (ArithmeticException e) {
+                    throw new IllegalArgumentException("Due time too far ahead: " + timeout.dueMillis, e);
+                }
+            }
+            Level<T> level = levels.get(i);
+            long levelStart = currentTime - Math.floorMod(currentTime, level.tickMillis);
+            if (due - levelStart < level.spanMillis) {
+                level.bucketFor(due).add(timeout);
+                return;
+            }
+        }
+    }
+
+    private synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Handle to a scheduled item.
+     */
+    public static final class Timeout<T> {
+
+        private final HierarchicalTimingWheel<T> wheel;
+        private final T item;
+        private final long dueMillis;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(HierarchicalTimingWheel<T> wheel, T item, long dueMillis) {
+            this.wheel = wheel;
+            this.item = item;
+            this.dueMillis = dueMillis;
+        }
+
+        public T item() {
+            return item;
+        }
+
+        public long dueMillis() {
+            return dueMillis;
+        }
+
+        /**
+         * Remove the item from the wheel.
+         *
+         * @return false if it had already fired or been cancelled
+         */
+        public boolean cancel() {
+            return wheel.cancel(this);
+        }
+    }
+
+    private static final class Level<T> {
+
+        private final long tickMillis;
+        private final long spanMillis;
+        private final Bucket<T>[] buckets;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Level(long tickMillis, int wheelSize) {
+            this.tickMillis = tickMillis;
+            this.spanMillis = Math.multiplyExact(tickMillis, wheelSize);
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket<>();
+            }
+        }
+
+        Bucket<T> bucketFor(long timeMillis) {
+            return buckets[(int) Math.floorMod(Math.floorDiv(timeMillis, tickMillis), (long) buckets.length)];
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts with a sentinel head, so adding and unlinking are O(1).
+     */
+    private static final class Bucket<T> {
+
+        private final Timeout<T> head = new Timeout<>(null, null, 0L);
+
+        Bucket() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = head.prev;
+            timeout.next = head;
+            head.prev.next = timeout;
+            head.prev = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            timeout.prev.next = timeout.next;
+            timeout.next.prev = timeout.prev;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        Timeout<T> poll() {
+            Timeout<T> first = head.next;
+            if (first == head) {
+                return null;
+            }
+            remove(first);
+            return first;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.banking.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-key rate limiter allowing {@code permits} acquisitions per {@code period}, with bursts
+ * of up to the whole allowance.
+ *
+ * Implemented as GCRA: each key keeps a single theoretical arrival time, advanced by one
+ * emission interval per permit with a CAS loop, so acquiring is lock-free once the key's cell
+ * is found and the limit slides smoothly instead of resetting at window boundaries. Cells
+ * live in a {@link BoundedTtlCache}; a key idle for a whole period is back to a full
+ * allowance, so expiring it loses nothing and memory stays bounded by {@code maximumKeys}.
+ * A limited key evicted early by the size bound starts over with a full allowance.
+ */
+public class KeyedRateLimiter<K> {
+
+    private final BoundedTtlCache<K, Cell> cells;
+    private final long emissionIntervalNanos;
+    private final long periodNanos;
+    private final LongAdder rejected = new LongAdder();
+
+    public KeyedRateLimiter(int permits, Duration period, int maximumKeys) {
+        if (permits <= 0 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Invalid rate limit");
+        }
+        this.periodNanos = period.toNanos();
+        this.emissionIntervalNanos = Math.max(1, periodNanos / permits);
+        // Cells are re-put at least once a period while in use, so a live cell outlasts its arrival time
+        this.cells = new BoundedTtlCache<>(maximumKeys, period.multipliedBy(2));
+    }
+
+    /**
+     * Take one permit for {@code key}.
+     *
+     * @return false, without consuming anything, if the key has used up its allowance
+     */
+    public boolean tryAcquire(K key) {
+        long now = System.nanoTime();
+        Cell cell = cells.computeIfAbsent(key, k -> new Cell(now));
+        while (true) {
+            long arrival = cell.arrival.get();
+            long next = (arrival - now > 0 ? arrival : now) + emissionIntervalNanos;
+            if (next - now > periodNanos) {
+                rejected.increment();
+                return false;
+            }
+            if (cell.arrival.compareAndSet(arrival, next)) {
+                break;
+            }
+        }
+        if (now - cell.refreshedAt > periodNanos) {
+            cell.refreshedAt = now;
+            cells.put(key, cell);
+        }
+        return true;
+    }
+
+    /**
+     * Give back a permit taken by {@link #tryAcquire} for something that did not happen.
+     */
+    public void release(K key) {
+        Cell cell = cells.get(key);
+        if (cell != null) {
+            cell.arrival.addAndGet(-emissionIntervalNanos);
+        }
+    }
+
+    public int size() {
+        return cells.size();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public long evictionCount() {
+        return cells.evictionCount();
+    }
+
+    private static final class Cell {
+
+        private final AtomicLong arrival;
+        private volatile long refreshedAt;
+
+        Cell(long now) {
+            this.arrival = new AtomicLong(now);
+            this.refreshedAt = now;
+        }
+    }
+}
@@ -0,0 +1,3 @@
+-- Support the revocation poll (revoked_at window) and the expired-token purge
+CREATE INDEX idx_refresh_tokens_revoked_at ON refresh_tokens(revoked_at);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens(expires_at);
@@ -0,0 +1,7 @@
+-- Keyset pagination walks each side of an account's history in (created_at, id) order
+CREATE INDEX idx_transactions_from_created_id ON transactions(from_account_id, created_at, id);
+CREATE INDEX idx_transactions_to_created_id ON transactions(to_account_id, created_at, id);
+
+-- Superseded by the composite indexes above, which share their leading column
+DROP INDEX idx_transactions_from_account ON transactions;
+DROP INDEX idx_transactions_to_account ON transactions;
@@ -0,0 +1,13 @@
+-- Closing balance of every account at the end of each day
+-- Point-in-time balances start from the nearest snapshot and only scan the remaining part of a day
+CREATE TABLE IF NOT EXISTS account_balance_snapshots (
+    account_id BIGINT NOT NULL,
+    snapshot_date DATE NOT NULL,
+    closing_balance DECIMAL(19, 4) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (account_id, snapshot_date),
+    CONSTRAINT fk_balance_snapshot_account FOREIGN KEY (account_id) REFERENCES accounts(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE INDEX idx_balance_snapshots_date ON account_balance_snapshots(snapshot_date);
@@ -0,0 +1,34 @@
+-- Recurring schedules get their own table, indexed by next due time, so the runner
+-- reads the upcoming horizon from a narrow index and transactions is never altered.
+-- Transaction once mapped recurring columns that no migration created, so schema
+-- validation failed on any such database and there are no schedules to carry over.
+CREATE TABLE IF NOT EXISTS recurring_payments (
+    id BIGINT PRIMARY KEY,
+    from_account_id BIGINT,
+    to_account_id BIGINT,
+    amount DECIMAL(19, 4) NOT NULL,
+    currency VARCHAR(3) NOT NULL DEFAULT 'USD',
+    transaction_type ENUM('DEPOSIT', 'WITHDRAWAL', 'TRANSFER', 'PAYMENT', 'REFUND') NOT NULL,
+    description TEXT,
+    frequency ENUM('DAILY', 'WEEKLY', 'MONTHLY', 'QUARTERLY', 'YEARLY') NOT NULL,
+    status ENUM('ACTIVE', 'FAILED', 'CANCELLED') NOT NULL DEFAULT 'ACTIVE',
+    next_payment_date TIMESTAMP NULL,
+    last_payment_date TIMESTAMP NULL,
+    last_transaction_id BIGINT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    CONSTRAINT fk_recurring_from_account FOREIGN KEY (from_account_id) REFERENCES accounts(id) ON DELETE CASCADE,
+    CONSTRAINT fk_recurring_to_account FOREIGN KEY (to_account_id) REFERENCES accounts(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Cancelled schedules keep a NULL due time and drop out of the index range
+CREATE INDEX idx_recurring_payments_next_due ON recurring_payments(next_payment_date);
+
+-- A claimed recurring payment: the owning instance processes it until leased_until.
+-- Failed payments keep their lease until the retry delay has passed.
+CREATE TABLE IF NOT EXISTS recurring_payment_leases (
+    recurring_payment_id BIGINT PRIMARY KEY,
+    owner VARCHAR(64) NOT NULL,
+    leased_until TIMESTAMP(3) NOT NULL,
+    CONSTRAINT fk_recurring_lease_payment FOREIGN KEY (recurring_payment_id) REFERENCES recurring_payments(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
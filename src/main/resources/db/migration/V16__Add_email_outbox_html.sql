@@ -0,0 +1,2 @@
+-- Optional HTML alternative to the plain text body
+ALTER TABLE email_outbox ADD COLUMN html MEDIUMTEXT NULL AFTER body;
@@ -0,0 +1,2 @@
+-- Keys are claimed before the request runs; the response is filled in when it completes
+ALTER TABLE idempotency_keys MODIFY response_body JSON NULL;
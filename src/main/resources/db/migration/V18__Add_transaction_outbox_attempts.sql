@@ -0,0 +1,8 @@
+-- Count failed publish attempts on the transaction outbox.
+-- Rows that keep failing are kept as FAILED instead of blocking the rows behind them.
+ALTER TABLE transaction_outbox
+    ADD COLUMN status ENUM('PENDING', 'FAILED') NOT NULL DEFAULT 'PENDING' AFTER payload,
+    ADD COLUMN attempts INT NOT NULL DEFAULT 0 AFTER status,
+    ADD COLUMN last_error VARCHAR(1000) NULL AFTER attempts;
+
+CREATE INDEX idx_transaction_outbox_pending ON transaction_outbox(status, id);
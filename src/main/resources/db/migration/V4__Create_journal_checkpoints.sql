@@ -0,0 +1,8 @@
+-- Create journal checkpoints table
+-- Records the last journal position applied to the database for each local write-ahead journal
+CREATE TABLE IF NOT EXISTS journal_checkpoints (
+    journal_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    segment_id BIGINT NOT NULL,
+    segment_offset INT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
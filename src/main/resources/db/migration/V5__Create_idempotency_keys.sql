@@ -0,0 +1,11 @@
+-- Create idempotency keys table
+-- Stores the response of each keyed transaction POST so client retries replay it instead of posting again
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    cache_key VARCHAR(160) NOT NULL PRIMARY KEY,
+    request_hash CHAR(64) NOT NULL,
+    response_body JSON NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
@@ -0,0 +1,9 @@
+-- Create transaction outbox table
+-- Events are written here in the same database transaction as the posting and relayed to Kafka asynchronously
+CREATE TABLE IF NOT EXISTS transaction_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    topic VARCHAR(100) NOT NULL,
+    transaction_type VARCHAR(20) NOT NULL,
+    payload JSON NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
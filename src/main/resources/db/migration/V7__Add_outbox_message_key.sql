@@ -0,0 +1,4 @@
+-- Add the Kafka record key to the transaction outbox
+-- Events are keyed by account number so events for one account stay ordered within a partition
+ALTER TABLE transaction_outbox
+    ADD COLUMN message_key VARCHAR(50) NULL AFTER transaction_type;
@@ -0,0 +1,18 @@
+-- Create transaction audit table
+-- Written by the transaction event consumers; transaction_id is unique so redelivered events are ignored
+CREATE TABLE IF NOT EXISTS transaction_audit (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    transaction_id VARCHAR(64) NOT NULL,
+    from_account VARCHAR(20),
+    to_account VARCHAR(20),
+    amount DECIMAL(19, 4),
+    currency VARCHAR(3),
+    type VARCHAR(20),
+    status VARCHAR(20),
+    description TEXT,
+    `timestamp` DATETIME(6) NOT NULL,
+    created_at DATETIME(6),
+    CONSTRAINT uk_transaction_audit_transaction_id UNIQUE (transaction_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE INDEX idx_transaction_audit_created_at ON transaction_audit(created_at);
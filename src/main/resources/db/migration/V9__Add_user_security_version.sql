@@ -0,0 +1,4 @@
+-- Add a per-user security version
+-- Embedded in access tokens; bumping it invalidates every token issued before a role change or disablement
+ALTER TABLE users
+    ADD COLUMN security_version INT NOT NULL DEFAULT 0 AFTER enabled;
@@ -0,0 +1,141 @@
+package com.banking.controller;
+
+import com.banking.model.Role;
+import com.banking.security.JwtPrincipal;
+import com.banking.support.BenchmarkDatabase;
+import com.banking.support.QueryCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statements Hibernate issues per request on the read endpoints, counted through a
+ * {@link QueryCounter} statement inspector. Catches N+1 loads creeping back into listings.
+ * User-wide listings read two streams per account, so their budget grows with the number
+ * of accounts the user holds; everything else is a fixed number of statements.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class QueryBudgetIT {
+
+    private static final int TRANSFERS = 200;
+
+    private static BenchmarkDatabase database;
+    private static KafkaContainer kafka;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        database = BenchmarkDatabase.start(10);
+        kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.5.0"));
+        kafka.start();
+        database.registerProperties(registry);
+        registry.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
+        registry.add("spring.mail.host", () -> "localhost");
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @AfterAll
+    static void stopContainers() {
+        kafka.stop();
+        database.close();
+    }
+
+    @TestConfiguration
+    static class QueryCounting {
+
+        @Bean
+        QueryCounter queryCounter() {
+            return new QueryCounter();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer queryCounterCustomizer(QueryCounter queryCounter) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCounter);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 4, 8})
+    void userHistoryBudgetScalesWithAccounts(int accounts) throws Exception {
+        long userId = database.seedUser();
+        seedHistory(userId, accounts);
+
+        // Account ids, then one page query per side of each account, then three counts
+        assertStatements(get("/api/v1/transactions"), userId, 1 + 2 * accounts + 3);
+        // No counts on the cursor endpoint
+        assertStatements(get("/api/v1/transactions/cursor"), userId, 1 + 2 * accounts);
+    }
+
+    @Test
+    void accountEndpointsStayWithinFixedBudgets() throws Exception {
+        long userId = database.seedUser();
+        long accountId = seedHistory(userId, 2).get(0);
+        String reference = database.jdbcTemplate().queryForObject(
+            "SELECT transaction_reference FROM transactions WHERE from_account_id = ? LIMIT 1", String.class, accountId);
+
+        assertStatements(get("/api/v1/accounts"), userId, 1);
+        assertStatements(get("/api/v1/accounts/{id}", accountId), userId, 2);
+        // Ownership, one page query per side, three counts
+        assertStatements(get("/api/v1/accounts/{id}/transactions", accountId), userId, 6);
+        assertStatements(get("/api/v1/accounts/{id}/transactions/cursor", accountId)
+            .param("includeTotal", "true"), userId, 6);
+        assertStatements(get("/api/v1/accounts/{id}/balance-history", accountId)
+            .param("from", LocalDate.now().minusDays(7).toString())
+            .param("to", LocalDate.now().toString()), userId, 3);
+        assertStatements(get("/api/v1/transactions/account/{id}", accountId), userId, 6);
+        assertStatements(get("/api/v1/transactions/account/{id}/cursor", accountId), userId, 6);
+        assertStatements(get("/api/v1/transactions/{reference}", reference), userId, 1);
+    }
+
+    private List<Long> seedHistory(long userId, int accounts) {
+        List<Long> accountIds = database.seedAccounts(userId, accounts, new BigDecimal("1000.00"));
+        database.seedTransfers(accountIds, TRANSFERS, LocalDateTime.now(), Duration.ofDays(30));
+        return accountIds;
+    }
+
+    private void assertStatements(MockHttpServletRequestBuilder request, long userId, int budget) throws Exception {
+        JwtPrincipal principal = new JwtPrincipal(userId, "user" + userId + "@bench.example.com", Role.ROLE_USER);
+        queryCounter.reset();
+        MvcResult result = mockMvc.perform(request.with(authentication(new UsernamePasswordAuthenticationToken(
+                principal, null, List.of(new SimpleGrantedAuthority(Role.ROLE_USER.name()))))))
+            .andExpect(status().isOk())
+            .andReturn();
+        assertThat(queryCounter.count())
+            .as("SQL statements for %s", result.getRequest().getRequestURI())
+            .isLessThanOrEqualTo(budget);
+    }
+}
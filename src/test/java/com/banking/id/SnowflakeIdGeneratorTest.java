@@ -0,0 +1,95 @@
+package com.banking.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long START = Instant.parse("2025-06-01T00:00:00Z").toEpochMilli();
+
+    private final AtomicLong clock = new AtomicLong(START);
+
+    @Test
+    void numbersIdsWithinAMillisecondBySequence() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, 1000, clock::get);
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertThat(second).isEqualTo(first + 1);
+        assertThat(SnowflakeIdGenerator.timestampOf(first)).isEqualTo(Instant.ofEpochMilli(START));
+        assertThat((first >>> 12) & 1023).isEqualTo(5);
+    }
+
+    @Test
+    void carriesSequenceOverflowIntoTheNextMillisecond() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, 1000, clock::get);
+
+        long[] ids = generator.nextIds(4096 + 1);
+
+        assertThat(SnowflakeIdGenerator.timestampOf(ids[4095])).isEqualTo(Instant.ofEpochMilli(START));
+        assertThat(SnowflakeIdGenerator.timestampOf(ids[4096])).isEqualTo(Instant.ofEpochMilli(START + 1));
+        assertThat(ids[4096]).isGreaterThan(ids[4095]);
+    }
+
+    @Test
+    void keepsIncreasingWhenTheClockStepsBack() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, 1000, clock::get);
+        long before = generator.nextId();
+
+        clock.addAndGet(-500);
+        long after = generator.nextId();
+
+        assertThat(after).isGreaterThan(before);
+        assertThat(SnowflakeIdGenerator.timestampOf(after)).isEqualTo(Instant.ofEpochMilli(START));
+    }
+
+    @Test
+    void waitsForTheClockInsteadOfBorrowingPastTheLimit() {
+        // Each read of the clock moves it forward a millisecond, so waiting makes progress
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, 2, () -> clock.getAndIncrement());
+        long maxAhead = 0;
+        for (int i = 0; i < 10; i++) {
+            long readBefore = clock.get();
+            long[] ids = generator.nextIds(4096);
+            long issuedMillis = SnowflakeIdGenerator.timestampOf(ids[ids.length - 1]).toEpochMilli();
+            maxAhead = Math.max(maxAhead, issuedMillis - readBefore);
+        }
+        assertThat(maxAhead).isLessThan(2);
+    }
+
+    @Test
+    void rejectsReservationsLargerThanTheBorrowWindow() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, 1, clock::get);
+
+        assertThatThrownBy(() -> generator.nextIds(4097)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void restartStartsPastEveryIdThePreviousRunBorrowed() throws InterruptedException {
+        SnowflakeIdGenerator previous = new SnowflakeIdGenerator(0, 1000, clock::get);
+        long lastIssued = 0;
+        // Borrow as far ahead of the stopped clock as the generator allows
+        for (int i = 0; i < 999; i++) {
+            long[] ids = previous.nextIds(4096);
+            lastIssued = ids[ids.length - 1];
+        }
+
+        AtomicLong restartedClock = new AtomicLong(clock.get());
+        SnowflakeIdGenerator restarted = new SnowflakeIdGenerator(0, 1000, () -> restartedClock.getAndAdd(600));
+        restarted.awaitPastPreviousRun();
+
+        assertThat(restarted.nextId()).isGreaterThan(lastIssued);
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(1024)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,139 @@
+package com.banking.security;
+
+import com.banking.model.Role;
+import com.banking.model.User;
+import com.banking.repository.RefreshTokenRepository;
+import com.banking.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-request cost of authenticating a bearer token in {@link JwtAuthenticationFilter}, with
+ * the principal taken from the token's claims or loaded through the UserDetailsService (an
+ * in-memory stub here, so the user lookup's database round trip is not included), against
+ * the work the filter did before keys, parsers and verified claims were cached: decode the
+ * key, build a parser and verify the signature three times per request.
+ *
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=JwtFilterBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "dGhpcy1pcy1hLWJlbmNobWFyay1zZWNyZXQta2V5LWZvci1oczI1Ni1zaWduaW5n";
+
+    @Param({"true", "false"})
+    private boolean statelessPrincipal;
+
+    private JwtAuthenticationFilter filter;
+    private String token;
+    private User user;
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpirationMs", 900_000L);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheSize", 50_000);
+        jwtService.init();
+
+        user = User.builder()
+            .id(42L)
+            .firstName("Bench")
+            .lastName("User")
+            .email("bench@bank.example.com")
+            .password("x")
+            .phoneNumber("+10000000000")
+            .role(Role.ROLE_USER)
+            .enabled(true)
+            .securityVersion(0)
+            .build();
+        token = jwtService.generateToken(user, 7L);
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findActiveSecurityVersionById(anyLong())).thenReturn(Optional.of(0));
+        UserSecurityVersionCache securityVersions = new UserSecurityVersionCache(userRepository);
+        ReflectionTestUtils.setField(securityVersions, "maximumSize", 100_000);
+        ReflectionTestUtils.setField(securityVersions, "ttlSeconds", 30L);
+        securityVersions.init();
+
+        RevokedSessionIndex revokedSessions = new RevokedSessionIndex(mock(RefreshTokenRepository.class));
+        ReflectionTestUtils.setField(revokedSessions, "expectedRevocations", 100_000L);
+        ReflectionTestUtils.setField(revokedSessions, "pollOverlapSeconds", 10L);
+        revokedSessions.init();
+
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(anyString())).thenReturn(user);
+
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, securityVersions, revokedSessions);
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", statelessPrincipal);
+        filter.afterPropertiesSet();
+    }
+
+    @Benchmark
+    public Authentication filter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/accounts");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /**
+     * The token handling of the filter before caching: extractUsername, then isTokenValid
+     * extracting the username and the expiration again, each with a freshly built key and parser.
+     */
+    @Benchmark
+    public boolean uncachedParse() {
+        String username = parse().getSubject();
+        return username.equals(user.getUsername())
+            && parse().getSubject().equals(user.getUsername())
+            && !parse().getExpiration().before(new Date());
+    }
+
+    private Claims parse() {
+        return Jwts.parserBuilder()
+            .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+            .build()
+            .parseClaimsJws(token)
+            .getBody();
+    }
+}
@@ -0,0 +1,136 @@
+package com.banking.service;
+
+import com.banking.repository.EmailOutboxRepository;
+import com.banking.support.BenchmarkDatabase;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Delivers the same number of emails to a GreenMail SMTP server the way EmailService did
+ * before the outbox (one send and one SMTP connection per message, on an eight-thread async
+ * pool) and through {@link EmailDeliveryWorker} from the email outbox in MySQL. Checks that
+ * the outbox path delivers every message and drains the table; the throughput of the two is
+ * only logged, since one wall-clock run on a shared runner is too noisy to gate a build on.
+ */
+@Slf4j
+class EmailDeliveryThroughputIT {
+
+    private static final int EMAILS = 2000;
+
+    // Sent through both paths first so neither timing pays for class loading or JIT warm-up
+    private static final int WARM_UP_EMAILS = 200;
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private static BenchmarkDatabase database;
+
+    private JavaMailSenderImpl mailSender;
+
+    @BeforeAll
+    static void startDatabase() {
+        database = BenchmarkDatabase.start(8);
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        database.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost(ServerSetupTest.SMTP.getBindAddress());
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        database.jdbcTemplate().update("DELETE FROM email_outbox");
+    }
+
+    @Test
+    void outboxDeliversEveryMessageAndDrainsTheTable() throws Exception {
+        sendPerMessage(WARM_UP_EMAILS);
+        deliverFromOutbox(WARM_UP_EMAILS);
+        greenMail.purgeEmailFromAllMailboxes();
+
+        long perMessageNanos = sendPerMessage(EMAILS);
+        assertThat(greenMail.getReceivedMessages()).hasSize(EMAILS);
+        greenMail.purgeEmailFromAllMailboxes();
+
+        long outboxNanos = deliverFromOutbox(EMAILS);
+        assertThat(greenMail.getReceivedMessages()).hasSize(EMAILS);
+        assertThat(database.jdbcTemplate().queryForObject("SELECT COUNT(*) FROM email_outbox", Long.class)).isZero();
+
+        log.info("Per-message: {} emails/s; outbox: {} emails/s ({}x)",
+            EMAILS * 1_000_000_000L / perMessageNanos, EMAILS * 1_000_000_000L / outboxNanos,
+            String.format("%.2f", (double) perMessageNanos / outboxNanos));
+    }
+
+    private long sendPerMessage(int emails) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            long started = System.nanoTime();
+            List<Future<?>> sends = new ArrayList<>(emails);
+            for (int i = 0; i < emails; i++) {
+                SimpleMailMessage message = new SimpleMailMessage();
+                message.setTo(recipient(i));
+                message.setSubject("Statement ready");
+                message.setText("Your statement is ready.");
+                sends.add(executor.submit(() -> mailSender.send(message)));
+            }
+            for (Future<?> send : sends) {
+                send.get();
+            }
+            return System.nanoTime() - started;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private long deliverFromOutbox(int emails) throws InterruptedException {
+        EmailOutboxRepository outboxRepository = new EmailOutboxRepository(database.jdbcTemplate());
+        for (int i = 0; i < emails; i++) {
+            outboxRepository.append(recipient(i), "Statement ready", "Your statement is ready.", null);
+        }
+
+        EmailDeliveryWorker worker = new EmailDeliveryWorker(outboxRepository, mailSender,
+            database.transactionTemplate(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(worker, "batchSize", 200);
+        ReflectionTestUtils.setField(worker, "messagesPerConnection", 50);
+        ReflectionTestUtils.setField(worker, "connections", 4);
+        ReflectionTestUtils.setField(worker, "queueCapacity", 16);
+        ReflectionTestUtils.setField(worker, "lease", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(worker, "maxAttempts", 8);
+        ReflectionTestUtils.setField(worker, "initialBackoff", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(worker, "maxBackoff", Duration.ofHours(1));
+        worker.start();
+        try {
+            long started = System.nanoTime();
+            worker.deliver();
+            return System.nanoTime() - started;
+        } finally {
+            worker.stop();
+        }
+    }
+
+    private static String recipient(int i) {
+        return "customer" + i + "@bank.example.com";
+    }
+}
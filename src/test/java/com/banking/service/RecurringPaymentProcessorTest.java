@@ -0,0 +1,168 @@
+package com.banking.service;
+
+import com.banking.dto.transaction.TransactionResponse;
+import com.banking.exception.InsufficientFundsException;
+import com.banking.model.Account;
+import com.banking.model.RecurringPayment;
+import com.banking.model.Transaction;
+import com.banking.model.User;
+import com.banking.repository.RecurringPaymentLeaseRepository;
+import com.banking.repository.RecurringPaymentRepository;
+import com.banking.service.ledger.LedgerEngine;
+import com.banking.service.template.EmailTemplates;
+import com.banking.service.template.EmailTemplates.RenderedEmail;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecurringPaymentProcessorTest {
+
+    private static final long PAYMENT_ID = 7L;
+    private static final String OWNER = "node-1";
+
+    private final TransactionService transactionService = mock(TransactionService.class);
+    private final RecurringPaymentRepository recurringPaymentRepository = mock(RecurringPaymentRepository.class);
+    private final RecurringPaymentLeaseRepository leaseRepository = mock(RecurringPaymentLeaseRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<LedgerEngine> ledgerEngine = mock(ObjectProvider.class);
+
+    private final LocalDateTime dueDate = LocalDateTime.now().minusMinutes(1);
+    // The recurring_payments row as last committed, and the copy the open transaction changes
+    private RecurringPayment committed;
+    private RecurringPayment working;
+    private int commits;
+    private int failingCommit;
+
+    private RecurringPaymentProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        User payer = User.builder().id(3L).email("payer@example.com").firstName("Pat").lastName("Payer").build();
+        committed = RecurringPayment.builder()
+            .id(PAYMENT_ID)
+            .fromAccount(Account.builder().id(11L).accountNumber("CHK-11").user(payer).build())
+            .toAccount(Account.builder().id(12L).accountNumber("CHK-12").user(payer).build())
+            .amount(new BigDecimal("25.00"))
+            .currency("USD")
+            .transactionType(Transaction.TransactionType.TRANSFER)
+            .frequency(RecurringPayment.Frequency.DAILY)
+            .status(RecurringPayment.Status.ACTIVE)
+            .nextPaymentDate(dueDate)
+            .build();
+
+        when(recurringPaymentRepository.findByIdForUpdate(PAYMENT_ID)).thenAnswer(invocation -> {
+            working = copy(committed);
+            return Optional.of(working);
+        });
+        when(leaseRepository.isHeldBy(PAYMENT_ID, OWNER)).thenReturn(true);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            working = null;
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(invocation -> {
+            if (++commits == failingCommit) {
+                throw new TransactionSystemException("Commit failed");
+            }
+            if (working != null) {
+                committed = working;
+            }
+            return null;
+        }).when(transactionManager).commit(any());
+        when(transactionService.processTransaction(any(), eq(3L))).thenReturn(charge());
+
+        EmailTemplates emailTemplates = mock(EmailTemplates.class);
+        when(emailTemplates.render(anyString(), anyMap())).thenReturn(new RenderedEmail("text", "html"));
+        processor = new RecurringPaymentProcessor(transactionService, recurringPaymentRepository, leaseRepository,
+            mock(EmailService.class), emailTemplates, new TransactionTemplate(transactionManager), ledgerEngine);
+    }
+
+    @Test
+    void ledgerChargeIsNotRepeatedWhenTheCommitAfterThePostingFails() {
+        when(ledgerEngine.getIfAvailable()).thenReturn(mock(LedgerEngine.class));
+        // The schedule advance commits first; the commit recording the posted charge fails
+        failingCommit = 2;
+
+        Optional<LocalDateTime> next = processor.process(PAYMENT_ID, OWNER);
+
+        assertThat(next).contains(committed.getNextPaymentDate());
+        assertThat(committed.getNextPaymentDate()).isAfter(LocalDateTime.now());
+        assertThat(committed.getLastTransactionId()).isNull();
+
+        // Claimed again once the lease has run out: no longer due, so not charged twice
+        assertThat(processor.process(PAYMENT_ID, OWNER)).isEmpty();
+        verify(transactionService, times(1)).processTransaction(any(), anyLong());
+    }
+
+    @Test
+    void ledgerChargeThatFailsMovesTheDueDateBack() {
+        when(ledgerEngine.getIfAvailable()).thenReturn(mock(LedgerEngine.class));
+        when(transactionService.processTransaction(any(), anyLong()))
+            .thenThrow(new InsufficientFundsException("Insufficient funds in the source account"));
+
+        assertThatThrownBy(() -> processor.process(PAYMENT_ID, OWNER)).isInstanceOf(InsufficientFundsException.class);
+
+        assertThat(committed.getNextPaymentDate()).isEqualTo(dueDate);
+        assertThat(committed.getLastPaymentDate()).isNull();
+        verify(leaseRepository, never()).release(anyLong(), anyString());
+    }
+
+    @Test
+    void chargesInsideTheScheduleTransactionWithoutTheLedger() {
+        Optional<LocalDateTime> next = processor.process(PAYMENT_ID, OWNER);
+
+        assertThat(next).contains(committed.getNextPaymentDate());
+        assertThat(committed.getLastTransactionId()).isEqualTo(99L);
+        assertThat(commits).isEqualTo(1);
+        verify(leaseRepository).release(PAYMENT_ID, OWNER);
+    }
+
+    private static TransactionResponse charge() {
+        return TransactionResponse.fromEntity(Transaction.builder()
+            .id(99L)
+            .transactionReference("TXN-99")
+            .amount(new BigDecimal("25.00"))
+            .currency("USD")
+            .transactionType(Transaction.TransactionType.TRANSFER)
+            .status(Transaction.TransactionStatus.COMPLETED)
+            .build());
+    }
+
+    private static RecurringPayment copy(RecurringPayment payment) {
+        return RecurringPayment.builder()
+            .id(payment.getId())
+            .fromAccount(payment.getFromAccount())
+            .toAccount(payment.getToAccount())
+            .amount(payment.getAmount())
+            .currency(payment.getCurrency())
+            .transactionType(payment.getTransactionType())
+            .frequency(payment.getFrequency())
+            .status(payment.getStatus())
+            .nextPaymentDate(payment.getNextPaymentDate())
+            .lastPaymentDate(payment.getLastPaymentDate())
+            .lastTransactionId(payment.getLastTransactionId())
+            .build();
+    }
+}
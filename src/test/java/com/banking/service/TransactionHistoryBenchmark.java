@@ -0,0 +1,180 @@
+package com.banking.service;
+
+import com.banking.dto.transaction.TransactionResponse;
+import com.banking.model.Transaction;
+import com.banking.repository.TransactionRepository;
+import com.banking.support.BenchmarkDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * First page of a user's transaction history on a seeded dataset of millions of transfers,
+ * read with the single query the service used before per-account index scans (an OR across
+ * the joins to both accounts' owners, plus its count) and with {@link TransactionHistoryReader}.
+ * The reader's repository runs the SQL its JPQL queries translate to, over JDBC, so both
+ * sides measure MySQL rather than Hibernate. MySQL runs in a container.
+ *
+ * Seeding takes several minutes. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TransactionHistoryBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class TransactionHistoryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int ACCOUNTS_PER_USER = 4;
+
+    private static final String COLUMNS =
+        "SELECT t.id, t.transaction_reference, fa.account_number AS from_number, ta.account_number AS to_number, " +
+        "t.amount, t.currency, t.transaction_type, t.status, t.description, t.created_at, t.updated_at " +
+        "FROM transactions t ";
+
+    // The removed findByUserId; its implicit joins to each account's user are inner joins
+    private static final String OR_JOIN_SQL = COLUMNS +
+        "JOIN accounts fa ON fa.id = t.from_account_id JOIN accounts ta ON ta.id = t.to_account_id " +
+        "WHERE fa.user_id = ? OR ta.user_id = ? ORDER BY t.created_at DESC LIMIT ?";
+
+    private static final String OR_JOIN_COUNT_SQL = "SELECT COUNT(*) FROM transactions t " +
+        "JOIN accounts fa ON fa.id = t.from_account_id JOIN accounts ta ON ta.id = t.to_account_id " +
+        "WHERE fa.user_id = ? OR ta.user_id = ?";
+
+    private static final String SIDE_SQL = COLUMNS +
+        "LEFT JOIN accounts fa ON fa.id = t.from_account_id LEFT JOIN accounts ta ON ta.id = t.to_account_id " +
+        "WHERE t.%s = ? AND (t.created_at < ? OR (t.created_at = ? AND t.id < ?)) " +
+        "ORDER BY t.created_at DESC, t.id DESC LIMIT ?";
+
+    private static final RowMapper<TransactionResponse> RESPONSE = (rs, rowNum) -> new TransactionResponse(
+        rs.getLong("id"),
+        rs.getString("transaction_reference"),
+        rs.getString("from_number"),
+        rs.getString("to_number"),
+        rs.getBigDecimal("amount"),
+        rs.getString("currency"),
+        Transaction.TransactionType.valueOf(rs.getString("transaction_type")),
+        Transaction.TransactionStatus.valueOf(rs.getString("status")),
+        rs.getString("description"),
+        null,
+        rs.getTimestamp("created_at").toLocalDateTime(),
+        rs.getTimestamp("updated_at").toLocalDateTime()
+    );
+
+    @Param("25000")
+    private int users;
+
+    @Param("5000000")
+    private int transactions;
+
+    private BenchmarkDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionHistoryReader reader;
+    private long userId;
+    private List<Long> userAccountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start(4);
+        jdbcTemplate = database.jdbcTemplate();
+
+        List<Long> allAccountIds = new ArrayList<>(users * ACCOUNTS_PER_USER);
+        for (int i = 0; i < users; i++) {
+            long user = database.seedUser();
+            List<Long> accounts = database.seedAccounts(user, ACCOUNTS_PER_USER, BigDecimal.ZERO);
+            if (i == 0) {
+                userId = user;
+                userAccountIds = accounts;
+            }
+            allAccountIds.addAll(accounts);
+        }
+        database.seedTransfers(allAccountIds, transactions, LocalDateTime.now(), Duration.ofDays(365));
+        jdbcTemplate.execute("ANALYZE TABLE accounts, transactions");
+
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.findOutgoingBefore(anyLong(), any(), anyLong(), any())).thenAnswer(invocation ->
+            side("from_account_id", invocation.getArgument(0), invocation.getArgument(1),
+                invocation.getArgument(2), invocation.getArgument(3)));
+        when(transactionRepository.findIncomingBefore(anyLong(), any(), anyLong(), any())).thenAnswer(invocation ->
+            side("to_account_id", invocation.getArgument(0), invocation.getArgument(1),
+                invocation.getArgument(2), invocation.getArgument(3)));
+        when(transactionRepository.countOutgoing(anyCollection())).thenAnswer(invocation ->
+            count("from_account_id IN (%s)", invocation.getArgument(0)));
+        when(transactionRepository.countIncoming(anyCollection())).thenAnswer(invocation ->
+            count("to_account_id IN (%s)", invocation.getArgument(0)));
+        when(transactionRepository.countInternal(anyCollection())).thenAnswer(invocation ->
+            count("from_account_id IN (%1$s) AND to_account_id IN (%1$s)", invocation.getArgument(0)));
+
+        reader = new TransactionHistoryReader(transactionRepository);
+        ReflectionTestUtils.setField(reader, "maxPageSize", 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public void orJoin(Blackhole blackhole) {
+        blackhole.consume(jdbcTemplate.query(OR_JOIN_SQL, RESPONSE, userId, userId, PAGE_SIZE));
+        blackhole.consume(jdbcTemplate.queryForObject(OR_JOIN_COUNT_SQL, Long.class, userId, userId));
+    }
+
+    @Benchmark
+    public Page<TransactionResponse> perAccountMerge() {
+        return reader.page(userAccountIds, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    private List<TransactionResponse> side(String column, Long accountId, LocalDateTime createdAt, Long id,
+                                           Pageable pageable) {
+        Timestamp before = Timestamp.valueOf(createdAt);
+        return jdbcTemplate.query(String.format(SIDE_SQL, column), RESPONSE,
+            accountId, before, before, id, pageable.getPageSize());
+    }
+
+    private long count(String predicate, Collection<Long> accountIds) {
+        String placeholders = String.join(",", Collections.nCopies(accountIds.size(), "?"));
+        List<Object> args = new ArrayList<>();
+        int lists = predicate.contains("%1$s") ? 2 : 1;
+        for (int i = 0; i < lists; i++) {
+            args.addAll(accountIds);
+        }
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE " +
+            String.format(predicate, placeholders), Long.class, args.toArray());
+    }
+}
@@ -0,0 +1,105 @@
+package com.banking.service.journal;
+
+import com.banking.model.Account;
+import com.banking.model.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournalRecordCodecTest {
+
+    private final JournalRecordCodec codec = new JournalRecordCodec(new ObjectMapper());
+
+    @Test
+    void roundTripsATransfer() {
+        Transaction transfer = Transaction.builder()
+            .id(42L)
+            .transactionReference("TXN-1")
+            .fromAccount(Account.builder().id(1L).accountNumber("ACC-1").build())
+            .toAccount(Account.builder().id(2L).accountNumber("ACC-2").build())
+            .amount(new BigDecimal("1234.5678"))
+            .currency("EUR")
+            .transactionType(Transaction.TransactionType.TRANSFER)
+            .status(Transaction.TransactionStatus.COMPLETED)
+            .description("Rent – März")
+            .metadata(Map.of("channel", "mobile"))
+            .createdAt(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789))
+            .build();
+
+        Transaction decoded = codec.decode(ByteBuffer.wrap(codec.encode(transfer)));
+
+        assertThat(decoded.getId()).isEqualTo(42L);
+        assertThat(decoded.getTransactionReference()).isEqualTo("TXN-1");
+        assertThat(decoded.getFromAccount().getId()).isEqualTo(1L);
+        assertThat(decoded.getFromAccount().getAccountNumber()).isEqualTo("ACC-1");
+        assertThat(decoded.getToAccount().getId()).isEqualTo(2L);
+        assertThat(decoded.getToAccount().getAccountNumber()).isEqualTo("ACC-2");
+        assertThat(decoded.getAmount()).isEqualTo(new BigDecimal("1234.5678"));
+        assertThat(decoded.getCurrency()).isEqualTo("EUR");
+        assertThat(decoded.getTransactionType()).isEqualTo(Transaction.TransactionType.TRANSFER);
+        assertThat(decoded.getStatus()).isEqualTo(Transaction.TransactionStatus.COMPLETED);
+        assertThat(decoded.getDescription()).isEqualTo("Rent – März");
+        assertThat(decoded.getMetadata()).containsEntry("channel", "mobile");
+        assertThat(decoded.getCreatedAt()).isEqualTo(transfer.getCreatedAt());
+        assertThat(decoded.getUpdatedAt()).isEqualTo(transfer.getCreatedAt());
+    }
+
+    @Test
+    void roundTripsMissingOptionalFields() {
+        Transaction deposit = Transaction.builder()
+            .transactionReference("TXN-2")
+            .toAccount(Account.builder().id(2L).accountNumber("ACC-2").build())
+            .amount(new BigDecimal("10.00"))
+            .currency("USD")
+            .transactionType(Transaction.TransactionType.DEPOSIT)
+            .status(Transaction.TransactionStatus.COMPLETED)
+            .createdAt(LocalDateTime.of(2024, 3, 1, 0, 0))
+            .build();
+
+        Transaction decoded = codec.decode(ByteBuffer.wrap(codec.encode(deposit)));
+
+        assertThat(decoded.getId()).isNull();
+        assertThat(decoded.getFromAccount()).isNull();
+        assertThat(decoded.getToAccount().getId()).isEqualTo(2L);
+        assertThat(decoded.getDescription()).isNull();
+        assertThat(decoded.getMetadata()).isNull();
+    }
+
+    @Test
+    void roundTripsAmountsLongerThanAByte() {
+        BigDecimal amount = new BigDecimal(BigInteger.ONE.shiftLeft(8 * 200), 4);
+
+        Transaction decoded = codec.decode(ByteBuffer.wrap(codec.encode(deposit(amount))));
+
+        assertThat(decoded.getAmount()).isEqualTo(amount);
+    }
+
+    @Test
+    void rejectsAmountsTooLongToEncode() {
+        BigDecimal amount = new BigDecimal(BigInteger.ONE.shiftLeft(8 * Short.MAX_VALUE), 4);
+
+        assertThatThrownBy(() -> codec.encode(deposit(amount)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Transaction deposit(BigDecimal amount) {
+        return Transaction.builder()
+            .id(1L)
+            .transactionReference("TXN-3")
+            .toAccount(Account.builder().id(2L).accountNumber("ACC-2").build())
+            .amount(amount)
+            .currency("USD")
+            .transactionType(Transaction.TransactionType.DEPOSIT)
+            .status(Transaction.TransactionStatus.COMPLETED)
+            .createdAt(LocalDateTime.of(2024, 3, 1, 0, 0))
+            .build();
+    }
+}
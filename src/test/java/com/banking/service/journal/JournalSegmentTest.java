@@ -0,0 +1,105 @@
+package com.banking.service.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalSegmentTest {
+
+    private static final int SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackRecordsInOrderAndStopsAtTheEndOfWrittenData() throws IOException {
+        try (JournalSegment segment = JournalSegment.create(directory, 1, SIZE)) {
+            segment.append(bytes("first"));
+            segment.append(bytes("second"));
+            segment.force();
+        }
+
+        try (JournalSegment segment = JournalSegment.openForRead(directory, 1)) {
+            JournalSegment.JournalRecord first = segment.read(0);
+            JournalSegment.JournalRecord second = segment.read(first.nextOffset());
+
+            assertThat(text(first)).isEqualTo("first");
+            assertThat(text(second)).isEqualTo("second");
+            assertThat(segment.read(second.nextOffset())).isNull();
+        }
+    }
+
+    @Test
+    void treatsARecordWithABadChecksumAsTheEnd() throws IOException {
+        int secondOffset;
+        try (JournalSegment segment = JournalSegment.create(directory, 1, SIZE)) {
+            segment.append(bytes("first"));
+            secondOffset = segment.position();
+            segment.append(bytes("second"));
+            segment.force();
+        }
+        // Flip a payload byte of the second record
+        overwrite(secondOffset + JournalSegment.HEADER_BYTES, new byte[] {'S'});
+
+        try (JournalSegment segment = JournalSegment.openForRead(directory, 1)) {
+            assertThat(text(segment.read(0))).isEqualTo("first");
+            assertThat(segment.read(secondOffset)).isNull();
+        }
+    }
+
+    @Test
+    void treatsATornTailAsTheEnd() throws IOException {
+        int tornOffset;
+        try (JournalSegment segment = JournalSegment.create(directory, 1, SIZE)) {
+            segment.append(bytes("first"));
+            tornOffset = segment.position();
+            segment.append(bytes("second record"));
+            segment.force();
+        }
+        // A crash persisted the header but only part of the payload
+        overwrite(tornOffset + JournalSegment.HEADER_BYTES + 6, new byte[7]);
+
+        try (JournalSegment segment = JournalSegment.openForRead(directory, 1)) {
+            assertThat(text(segment.read(0))).isEqualTo("first");
+            assertThat(segment.read(tornOffset)).isNull();
+        }
+    }
+
+    @Test
+    void treatsALengthRunningPastTheSegmentAsTheEnd() throws IOException {
+        try (JournalSegment segment = JournalSegment.create(directory, 1, SIZE)) {
+            segment.force();
+        }
+        overwrite(0, ByteBuffer.allocate(4).putInt(SIZE).array());
+
+        try (JournalSegment segment = JournalSegment.openForRead(directory, 1)) {
+            assertThat(segment.read(0)).isNull();
+        }
+    }
+
+    private void overwrite(int offset, byte[] data) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(JournalSegment.fileName(1)),
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(data), offset);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(JournalSegment.JournalRecord record) {
+        ByteBuffer payload = record.payload();
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,129 @@
+package com.banking.service.journal;
+
+import com.banking.repository.AccountRepository;
+import com.banking.repository.JournalCheckpointRepository;
+import com.banking.repository.TransactionBatchRepository;
+import com.banking.repository.TransactionOutboxRepository;
+import com.banking.service.AccountBalanceCache;
+import com.banking.service.ledger.LedgerEngine;
+import com.banking.support.BenchmarkDatabase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Transfers per second through the ledger engine acknowledged by the local write-ahead
+ * journal (group-committed to a temporary directory, applied to MySQL in the background),
+ * against the synchronous row-locking path that writes each transfer to the database before
+ * returning. MySQL runs in a container; put the temporary directory on the disk under test
+ * with {@code -Djava.io.tmpdir}.
+ *
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TransactionJournalBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(16)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class TransactionJournalBenchmark {
+
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000");
+
+    @Param("10000")
+    private int accounts;
+
+    private BenchmarkDatabase database;
+    private List<Long> accountIds;
+    private Path directory;
+    private TransactionJournal journal;
+    private LedgerEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        database = BenchmarkDatabase.start(24);
+        accountIds = database.seedAccounts(database.seedUser(), accounts, OPENING_BALANCE);
+
+        JdbcTemplate jdbcTemplate = database.jdbcTemplate();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        AccountBalanceCache balanceCache = new AccountBalanceCache(meterRegistry);
+        ReflectionTestUtils.setField(balanceCache, "maximumSize", 100_000);
+        ReflectionTestUtils.setField(balanceCache, "ttlSeconds", 60L);
+        balanceCache.init();
+
+        directory = Files.createTempDirectory("ledger-journal-bench");
+        journal = new TransactionJournal(new JournalRecordCodec(objectMapper),
+            new JournalCheckpointRepository(jdbcTemplate), new TransactionBatchRepository(jdbcTemplate, objectMapper),
+            new TransactionOutboxRepository(jdbcTemplate, objectMapper), database.transactionTemplate(),
+            balanceCache, meterRegistry);
+        ReflectionTestUtils.setField(journal, "directory", directory.toString());
+        ReflectionTestUtils.setField(journal, "journalName", "ledger-bench");
+        ReflectionTestUtils.setField(journal, "segmentSize", 64 * 1024 * 1024);
+        ReflectionTestUtils.setField(journal, "groupCommitIntervalMs", 2L);
+        ReflectionTestUtils.setField(journal, "groupCommitBytes", 256 * 1024);
+        ReflectionTestUtils.setField(journal, "applyBatchSize", 1000);
+        ReflectionTestUtils.setField(journal, "applyIntervalMs", 50L);
+        journal.start();
+
+        AccountRepository accountRepository = mock(AccountRepository.class);
+        when(accountRepository.getBalanceById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(
+            jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class,
+                invocation.<Long>getArgument(0))));
+
+        engine = new LedgerEngine(accountRepository, journal);
+        ReflectionTestUtils.setField(engine, "shardCount", 4);
+        ReflectionTestUtils.setField(engine, "ringSize", 65536);
+        ReflectionTestUtils.setField(engine, "submitTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(engine, "maxAccountsPerShard", 250_000);
+        engine.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException, IOException {
+        engine.stop();
+        journal.stop();
+        database.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void journaledTransfer() {
+        engine.execute(database.randomTransfer(accountIds));
+    }
+
+    @Benchmark
+    public void synchronousTransfer() {
+        database.transferWithRowLocks(database.randomTransfer(accountIds));
+    }
+}
@@ -0,0 +1,186 @@
+package com.banking.service.journal;
+
+import com.banking.model.Account;
+import com.banking.model.Transaction;
+import com.banking.repository.JournalCheckpointRepository;
+import com.banking.repository.JournalCheckpointRepository.Checkpoint;
+import com.banking.repository.TransactionBatchRepository;
+import com.banking.repository.TransactionOutboxRepository;
+import com.banking.service.AccountBalanceCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionJournalRecoveryTest {
+
+    private static final String JOURNAL_NAME = "ledger-test";
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    private final JournalRecordCodec codec = new JournalRecordCodec(new ObjectMapper());
+    private final JournalCheckpointRepository checkpointRepository = mock(JournalCheckpointRepository.class);
+    private final TransactionBatchRepository transactionBatchRepository = mock(TransactionBatchRepository.class);
+    private final List<List<String>> appliedBatches = new ArrayList<>();
+    private volatile boolean databaseDown;
+
+    @BeforeEach
+    void recordAppliedBatches() {
+        doAnswer(invocation -> {
+            if (databaseDown) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            List<Transaction> batch = invocation.getArgument(0);
+            appliedBatches.add(batch.stream().map(Transaction::getTransactionReference).toList());
+            return null;
+        }).when(transactionBatchRepository).insertTransactions(anyList());
+    }
+
+    @Test
+    void replaysRecordsPastTheCheckpointAndStopsAtATornTail() throws Exception {
+        int afterFirst;
+        int afterSecond;
+        try (JournalSegment segment = JournalSegment.create(directory, 1, SEGMENT_SIZE)) {
+            segment.append(codec.encode(deposit("TXN-1")));
+            afterFirst = segment.position();
+            segment.append(codec.encode(deposit("TXN-2")));
+            afterSecond = segment.position();
+            segment.force();
+        }
+        int afterThird;
+        try (JournalSegment segment = JournalSegment.create(directory, 2, SEGMENT_SIZE)) {
+            segment.append(codec.encode(deposit("TXN-3")));
+            afterThird = segment.position();
+            segment.append(codec.encode(deposit("TXN-4")));
+            segment.force();
+        }
+        // The crash left the last record's header on disk but not all of its payload
+        zeroFrom(2, afterThird + JournalSegment.HEADER_BYTES + 4);
+        when(checkpointRepository.find(JOURNAL_NAME)).thenReturn(Optional.of(new Checkpoint(1, afterFirst)));
+
+        TransactionJournal journal = journal();
+        journal.start();
+        journal.stop();
+
+        assertThat(appliedBatches).containsExactly(List.of("TXN-2"), List.of("TXN-3"));
+        InOrder checkpoints = inOrder(checkpointRepository);
+        checkpoints.verify(checkpointRepository).save(JOURNAL_NAME, 1, afterSecond);
+        checkpoints.verify(checkpointRepository).save(JOURNAL_NAME, 2, afterThird);
+        checkpoints.verify(checkpointRepository).save(JOURNAL_NAME, 3, 0);
+        assertThat(JournalSegment.exists(directory, 1)).isFalse();
+        assertThat(JournalSegment.exists(directory, 2)).isFalse();
+    }
+
+    @Test
+    void skipsSegmentsBeforeTheCheckpointAndReplaysEverythingWithoutOne() throws Exception {
+        try (JournalSegment segment = JournalSegment.create(directory, 4, SEGMENT_SIZE)) {
+            segment.append(codec.encode(deposit("TXN-1")));
+            segment.force();
+        }
+        try (JournalSegment segment = JournalSegment.create(directory, 5, SEGMENT_SIZE)) {
+            segment.append(codec.encode(deposit("TXN-2")));
+            segment.force();
+        }
+        when(checkpointRepository.find(JOURNAL_NAME)).thenReturn(Optional.of(new Checkpoint(5, 0)));
+
+        TransactionJournal journal = journal();
+        journal.start();
+        journal.stop();
+        assertThat(appliedBatches).containsExactly(List.of("TXN-2"));
+
+        appliedBatches.clear();
+        try (JournalSegment segment = JournalSegment.create(directory, 7, SEGMENT_SIZE)) {
+            segment.append(codec.encode(deposit("TXN-3")));
+            segment.force();
+        }
+        when(checkpointRepository.find(JOURNAL_NAME)).thenReturn(Optional.empty());
+
+        TransactionJournal restarted = journal();
+        restarted.start();
+        restarted.stop();
+        // Segment 6 was opened empty by the first run, then TXN-3 was written to segment 7
+        assertThat(appliedBatches).containsExactly(List.of("TXN-3"));
+    }
+
+    @Test
+    void replaysAnAcknowledgedRecordThatNeverReachedTheDatabase() throws Exception {
+        when(checkpointRepository.find(JOURNAL_NAME)).thenReturn(Optional.empty());
+        databaseDown = true;
+        TransactionJournal journal = journal();
+        journal.start();
+        journal.append(deposit("TXN-1")).get(5, TimeUnit.SECONDS);
+        journal.stop();
+
+        assertThat(appliedBatches).isEmpty();
+        assertThat(JournalSegment.exists(directory, 1)).isTrue();
+
+        databaseDown = false;
+        when(checkpointRepository.find(JOURNAL_NAME)).thenReturn(Optional.of(new Checkpoint(1, 0)));
+        TransactionJournal restarted = journal();
+        restarted.start();
+        restarted.stop();
+
+        assertThat(appliedBatches).containsExactly(List.of("TXN-1"));
+        assertThat(JournalSegment.exists(directory, 1)).isFalse();
+    }
+
+    private void zeroFrom(long segmentId, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(JournalSegment.fileName(segmentId)),
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(SEGMENT_SIZE - offset), offset);
+        }
+    }
+
+    private TransactionJournal journal() {
+        TransactionJournal journal = new TransactionJournal(codec, checkpointRepository, transactionBatchRepository,
+            mock(TransactionOutboxRepository.class), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            mock(AccountBalanceCache.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(journal, "directory", directory.toString());
+        ReflectionTestUtils.setField(journal, "journalName", JOURNAL_NAME);
+        ReflectionTestUtils.setField(journal, "segmentSize", SEGMENT_SIZE);
+        ReflectionTestUtils.setField(journal, "groupCommitIntervalMs", 2L);
+        ReflectionTestUtils.setField(journal, "groupCommitBytes", 262144);
+        ReflectionTestUtils.setField(journal, "applyBatchSize", 100);
+        ReflectionTestUtils.setField(journal, "applyIntervalMs", 50L);
+        return journal;
+    }
+
+    private static Transaction deposit(String reference) {
+        return Transaction.builder()
+            .id(1L)
+            .transactionReference(reference)
+            .toAccount(Account.builder().id(2L).accountNumber("ACC-2").build())
+            .amount(new BigDecimal("10.00"))
+            .currency("USD")
+            .transactionType(Transaction.TransactionType.DEPOSIT)
+            .status(Transaction.TransactionStatus.COMPLETED)
+            .createdAt(LocalDateTime.of(2024, 3, 1, 0, 0))
+            .build();
+    }
+}
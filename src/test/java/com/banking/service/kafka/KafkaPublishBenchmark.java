@@ -0,0 +1,122 @@
+package com.banking.service.kafka;
+
+import com.banking.config.KafkaConfig;
+import com.banking.dto.event.TransactionEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events per second published to a Kafka broker in a container, the way the outbox relay
+ * did before keyed batching (default producer, one unkeyed send awaited at a time) against
+ * the way it does now (producer from {@link KafkaConfig}, a batch of keyed sends, one flush
+ * and one wait).
+ *
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=KafkaPublishBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class KafkaPublishBenchmark {
+
+    private static final int BATCH = 500;
+    private static final int ACCOUNTS = 10_000;
+    private static final String TOPIC = "transactions";
+
+    private KafkaContainer kafka;
+    private KafkaTemplate<String, TransactionEvent> baseline;
+    private KafkaTemplate<String, TransactionEvent> tuned;
+    private List<TransactionEvent> events;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.5.0"));
+        kafka.start();
+
+        baseline = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(Map.of(
+            ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBootstrapServers(),
+            ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+            ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class,
+            JsonSerializer.ADD_TYPE_INFO_HEADERS, false)));
+
+        KafkaConfig config = new KafkaConfig();
+        ReflectionTestUtils.setField(config, "bootstrapServers", kafka.getBootstrapServers());
+        ReflectionTestUtils.setField(config, "compressionType", "lz4");
+        ReflectionTestUtils.setField(config, "lingerMs", 10);
+        ReflectionTestUtils.setField(config, "batchSize", 65536);
+        ReflectionTestUtils.setField(config, "maxBlockMs", 5000L);
+        tuned = config.kafkaTemplate(config.producerFactory(new SimpleMeterRegistry()));
+
+        events = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            events.add(TransactionEvent.builder()
+                .transactionId(String.valueOf(i))
+                .fromAccount("CHK" + (i % ACCOUNTS))
+                .toAccount("CHK" + ((i + 1) % ACCOUNTS))
+                .amount(BigDecimal.ONE)
+                .currency("USD")
+                .type("TRANSFER")
+                .status("COMPLETED")
+                .description("Transaction processed successfully")
+                .timestamp(LocalDateTime.now())
+                .build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        baseline.getProducerFactory().reset();
+        tuned.getProducerFactory().reset();
+        kafka.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void perRecord() throws Exception {
+        for (TransactionEvent event : events) {
+            baseline.send(TOPIC, event).get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void batched() throws Exception {
+        List<CompletableFuture<?>> sends = new ArrayList<>(BATCH);
+        for (TransactionEvent event : events) {
+            sends.add(tuned.send(new ProducerRecord<>(TOPIC, event.getFromAccount(), event)));
+        }
+        tuned.flush();
+        CompletableFuture.allOf(sends.toArray(CompletableFuture<?>[]::new)).get(10, TimeUnit.SECONDS);
+    }
+}
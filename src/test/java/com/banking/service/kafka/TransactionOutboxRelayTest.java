@@ -0,0 +1,160 @@
+package com.banking.service.kafka;
+
+import com.banking.dto.event.TransactionEvent;
+import com.banking.repository.TransactionOutboxRepository;
+import com.banking.repository.TransactionOutboxRepository.FailedAttempt;
+import com.banking.repository.TransactionOutboxRepository.OutboxMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionOutboxRelayTest {
+
+    private static final String TOPIC = "transactions";
+    private static final String EVENT = "{\"transactionId\":\"TXN\"}";
+
+    private final TransactionOutboxRepository outboxRepository = mock(TransactionOutboxRepository.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, TransactionEvent> kafkaTemplate = mock(KafkaTemplate.class);
+    private final OutboxRelayLock relayLock = mock(OutboxRelayLock.class);
+
+    // The pending rows of transaction_outbox, by id, and the ids set aside as FAILED
+    private final TreeMap<Long, OutboxMessage> pending = new TreeMap<>();
+    private final List<Long> deadLettered = new ArrayList<>();
+    private final List<String> published = new ArrayList<>();
+    private Function<ProducerRecord<String, TransactionEvent>, Throwable> broker = record -> null;
+
+    private TransactionOutboxRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(relayLock.tryHold()).thenReturn(true);
+        when(outboxRepository.findOldestAge()).thenReturn(Optional.empty());
+        when(outboxRepository.findPending(anyLong(), anyInt())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            return pending.tailMap(afterId, false).values().stream().limit(limit).toList();
+        });
+        doAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            ids.forEach(pending::remove);
+            return null;
+        }).when(outboxRepository).deleteByIds(anyList());
+        doAnswer(invocation -> {
+            List<FailedAttempt> failures = invocation.getArgument(0);
+            failures.forEach(failure -> pending.computeIfPresent(failure.id(), (id, row) -> withAttempts(row, failure)));
+            return null;
+        }).when(outboxRepository).recordFailedAttempts(anyList());
+        doAnswer(invocation -> {
+            List<FailedAttempt> exhausted = invocation.getArgument(0);
+            exhausted.forEach(failure -> {
+                pending.remove(failure.id());
+                deadLettered.add(failure.id());
+            });
+            return null;
+        }).when(outboxRepository).markFailed(anyList());
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            ProducerRecord<String, TransactionEvent> record = invocation.getArgument(0);
+            Throwable failure = broker.apply(record);
+            if (failure != null) {
+                return CompletableFuture.failedFuture(failure);
+            }
+            published.add(record.key());
+            return CompletableFuture.completedFuture(mock(SendResult.class));
+        });
+
+        relay = new TransactionOutboxRelay(outboxRepository, kafkaTemplate, relayLock, new ObjectMapper(),
+            new SimpleMeterRegistry());
+        relay.init();
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+    }
+
+    @Test
+    void aKeyHeldBackAtTheHeadDoesNotStallOtherKeys() {
+        append(1, "A", "not json");
+        append(2, "A", EVENT);
+        append(3, "A", EVENT);
+        append(4, "B", EVENT);
+        append(5, "C", EVENT);
+
+        relay.relay();
+
+        assertThat(published).containsExactly("B", "C");
+        assertThat(pending.keySet()).containsExactly(1L, 2L, 3L);
+        assertThat(pending.get(1L).attempts()).isEqualTo(1);
+    }
+
+    @Test
+    void setsAsideAnEventThatKeepsFailingAndReleasesItsKey() {
+        append(1, "A", "{\"transactionId\":\"TOO-LARGE\"}");
+        append(2, "A", EVENT);
+        broker = record -> record.value().getTransactionId().equals("TOO-LARGE")
+            ? new RecordTooLargeException("Record too large") : null;
+
+        relay.relay();
+        relay.relay();
+        assertThat(published).isEmpty();
+        relay.relay();
+
+        assertThat(deadLettered).containsExactly(1L);
+        relay.relay();
+        assertThat(published).containsExactly("A");
+        assertThat(pending).isEmpty();
+    }
+
+    @Test
+    void kafkaBeingUnreachableDoesNotUseUpAttempts() {
+        append(1, "A", EVENT);
+        append(2, "B", EVENT);
+        append(3, "C", EVENT);
+        broker = record -> new TimeoutException("Topic not present in metadata");
+
+        for (int i = 0; i < 5; i++) {
+            relay.relay();
+        }
+
+        assertThat(deadLettered).isEmpty();
+        assertThat(pending.values()).extracting(OutboxMessage::attempts).containsOnly(0);
+
+        broker = record -> null;
+        relay.relay();
+        assertThat(published).containsExactly("A", "B", "C");
+        assertThat(pending).isEmpty();
+    }
+
+    private void append(long id, String key, String payload) {
+        pending.put(id, new OutboxMessage(id, TOPIC, "TRANSFER", key, payload, 0, LocalDateTime.now()));
+    }
+
+    private static OutboxMessage withAttempts(OutboxMessage row, FailedAttempt failure) {
+        return new OutboxMessage(row.id(), row.topic(), row.transactionType(), row.messageKey(), row.payload(),
+            failure.attempts(), row.createdAt());
+    }
+}
@@ -0,0 +1,112 @@
+package com.banking.service.template;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a recurring payment success email body: the String.format call the
+ * processor used before templates, the compiled plain text template on its own, and
+ * {@link EmailTemplates} rendering both the text and HTML bodies.
+ *
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=EmailTemplatesBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+public class EmailTemplatesBenchmark {
+
+    private static final String NAME = "recurring-payment-success";
+
+    private final String userName = "Jane Doe";
+    private final BigDecimal amount = new BigDecimal("1250.00");
+    private final String currency = "USD";
+    private final String fromAccount = "CHK1234567890123";
+    private final String toAccount = "SAV9876543210987";
+    private final String reference = "550e8400-e29b-41d4-a716-446655440000";
+    private final String description = "Monthly rent <apartment 4B>";
+
+    private EmailTemplates emailTemplates;
+    private Template textTemplate;
+    private Map<String, Object> model;
+
+    @Setup
+    public void setUp() throws IOException {
+        emailTemplates = new EmailTemplates();
+        ReflectionTestUtils.setField(emailTemplates, "defaultLocale", Locale.ENGLISH);
+        emailTemplates.load();
+
+        String source = new ClassPathResource("templates/email/" + NAME + ".txt").getContentAsString(StandardCharsets.UTF_8);
+        textTemplate = Template.compile(NAME + ".txt", source, false);
+
+        model = new HashMap<>();
+        model.put("userName", userName);
+        model.put("amount", amount.toPlainString());
+        model.put("currency", currency);
+        model.put("fromAccount", fromAccount);
+        model.put("toAccount", toAccount);
+        model.put("transactionDate", LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE));
+        model.put("transactionReference", reference);
+        model.put("description", description);
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format(
+            "Hello %s,\n\n" +
+            "Your recurring payment has been processed successfully.\n\n" +
+            "Transaction Details:\n" +
+            "- Amount: %s %s\n" +
+            "- From Account: %s\n" +
+            "- To Account: %s\n" +
+            "- Date: %s\n" +
+            "- Reference: %s\n" +
+            (description != null ? "- Description: " + description + "\n" : "") +
+            "\nThank you for using our banking services.\n\n" +
+            "Best regards,\nYour Bank",
+            userName,
+            amount.toPlainString(),
+            currency,
+            fromAccount,
+            toAccount,
+            LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE),
+            reference
+        );
+    }
+
+    @Benchmark
+    public String compiledText() {
+        StringBuilder out = new StringBuilder(512);
+        textTemplate.render(model, out);
+        return out.toString();
+    }
+
+    @Benchmark
+    public EmailTemplates.RenderedEmail textAndHtml() {
+        return emailTemplates.render(NAME, model);
+    }
+}
@@ -0,0 +1,211 @@
+package com.banking.support;
+
+import com.banking.model.Account;
+import com.banking.model.Transaction;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MySQL in a container with the Flyway migrations applied, for benchmarks and tests that
+ * need the real schema and query plans. Requires Docker.
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+
+    private static final int INSERT_BATCH = 5000;
+
+    private final MySQLContainer<?> container;
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong ids = new AtomicLong(1_000_000);
+
+    private BenchmarkDatabase(MySQLContainer<?> container, HikariDataSource dataSource) {
+        this.container = container;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    public static BenchmarkDatabase start(int poolSize) {
+        MySQLContainer<?> container = new MySQLContainer<>(DockerImageName.parse("mysql:8.0"))
+            .withDatabaseName("banking_db")
+            .withUrlParam("rewriteBatchedStatements", "true")
+            .withUrlParam("serverTimezone", "UTC")
+            // V2 creates stored functions as a non-root user
+            .withCommand("--log-bin-trust-function-creators=1", "--innodb-buffer-pool-size=1G");
+        container.start();
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(container.getJdbcUrl());
+        dataSource.setUsername(container.getUsername());
+        dataSource.setPassword(container.getPassword());
+        dataSource.setMaximumPoolSize(poolSize);
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+        return new BenchmarkDatabase(container, dataSource);
+    }
+
+    /**
+     * Point a Spring test context at this database. Flyway runs again on startup and finds
+     * nothing to do.
+     */
+    public void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", container::getJdbcUrl);
+        registry.add("spring.datasource.username", container::getUsername);
+        registry.add("spring.datasource.password", container::getPassword);
+    }
+
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public TransactionTemplate transactionTemplate() {
+        return transactionTemplate;
+    }
+
+    public long nextId() {
+        return ids.incrementAndGet();
+    }
+
+    /**
+     * Insert a user with a unique email and phone number.
+     * @return the user id
+     */
+    public long seedUser() {
+        long id = nextId();
+        jdbcTemplate.update("INSERT INTO users (id, first_name, last_name, email, password, phone_number, role, enabled) " +
+                "VALUES (?, 'Bench', 'User', ?, 'x', ?, 'ROLE_USER', TRUE)",
+            id, "user" + id + "@bench.example.com", "+1" + id);
+        return id;
+    }
+
+    /**
+     * Insert {@code count} checking accounts owned by {@code userId}, numbered after their ids.
+     * @return the account ids
+     */
+    public List<Long> seedAccounts(long userId, int count, BigDecimal balance) {
+        List<Long> accountIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            accountIds.add(nextId());
+        }
+        for (int from = 0; from < count; from += INSERT_BATCH) {
+            List<Long> chunk = accountIds.subList(from, Math.min(count, from + INSERT_BATCH));
+            jdbcTemplate.batchUpdate("INSERT INTO accounts (id, account_number, user_id, account_type, balance, currency, status) " +
+                    "VALUES (?, ?, ?, 'CHECKING', ?, 'USD', 'ACTIVE')", chunk, chunk.size(), (ps, id) -> {
+                    ps.setLong(1, id);
+                    ps.setString(2, accountNumber(id));
+                    ps.setLong(3, userId);
+                    ps.setBigDecimal(4, balance);
+                });
+        }
+        return accountIds;
+    }
+
+    /**
+     * Insert {@code count} completed transfers between random pairs of the given accounts,
+     * spread evenly over the period ending at {@code until}.
+     */
+    public void seedTransfers(List<Long> accountIds, int count, LocalDateTime until, Duration period) {
+        Random random = new Random(42);
+        long stepMillis = Math.max(1, period.toMillis() / Math.max(1, count));
+        LocalDateTime start = until.minus(period);
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < count; i++) {
+            long id = nextId();
+            long from = accountIds.get(random.nextInt(accountIds.size()));
+            long to = accountIds.get(random.nextInt(accountIds.size()));
+            Timestamp createdAt = Timestamp.valueOf(start.plusNanos(stepMillis * i * 1_000_000L));
+            rows.add(new Object[] {id, "bench-" + id, from, to, BigDecimal.ONE, createdAt, createdAt});
+            if (rows.size() == INSERT_BATCH || i == count - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO transactions (id, transaction_reference, from_account_id, to_account_id, " +
+                    "amount, currency, transaction_type, status, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, 'USD', 'TRANSFER', 'COMPLETED', ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    /**
+     * A transfer of 1 between two distinct random accounts, with a fresh id and the account
+     * numbers set, as the ledger engine expects.
+     */
+    public Transaction randomTransfer(List<Long> accountIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accountIds.size());
+        int to = (from + 1 + random.nextInt(accountIds.size() - 1)) % accountIds.size();
+        long id = nextId();
+        LocalDateTime now = LocalDateTime.now();
+        return Transaction.builder()
+            .id(id)
+            .transactionReference("bench-" + id)
+            .fromAccount(account(accountIds.get(from)))
+            .toAccount(account(accountIds.get(to)))
+            .amount(BigDecimal.ONE)
+            .currency("USD")
+            .transactionType(Transaction.TransactionType.TRANSFER)
+            .status(Transaction.TransactionStatus.COMPLETED)
+            .createdAt(now)
+            .updatedAt(now)
+            .build();
+    }
+
+    /**
+     * Apply a transfer the way the service does without the ledger engine: lock both
+     * accounts, update both balances, insert the transaction and its outbox event, all in
+     * one database transaction.
+     */
+    public void transferWithRowLocks(Transaction transfer) {
+        long fromId = transfer.getFromAccount().getId();
+        long toId = transfer.getToAccount().getId();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<BigDecimal> balances = jdbcTemplate.queryForList(
+                "SELECT balance FROM accounts WHERE id IN (?, ?) ORDER BY id FOR UPDATE",
+                BigDecimal.class, fromId, toId);
+            if (balances.size() < 2) {
+                throw new IllegalStateException("Missing account");
+            }
+            jdbcTemplate.update("UPDATE accounts SET balance = balance - ? WHERE id = ?", transfer.getAmount(), fromId);
+            jdbcTemplate.update("UPDATE accounts SET balance = balance + ? WHERE id = ?", transfer.getAmount(), toId);
+            jdbcTemplate.update("INSERT INTO transactions (id, transaction_reference, from_account_id, to_account_id, " +
+                    "amount, currency, transaction_type, status, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, 'USD', 'TRANSFER', 'COMPLETED', NOW(), NOW())",
+                transfer.getId(), transfer.getTransactionReference(), fromId, toId, transfer.getAmount());
+            jdbcTemplate.update("INSERT INTO transaction_outbox (topic, transaction_type, message_key, payload) " +
+                "VALUES ('transactions', 'TRANSFER', ?, '{}')", transfer.getFromAccount().getAccountNumber());
+        });
+    }
+
+    public static String accountNumber(long accountId) {
+        return "CHK" + accountId;
+    }
+
+    private static Account account(long id) {
+        return Account.builder().id(id).accountNumber(accountNumber(id)).build();
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+        container.stop();
+    }
+}
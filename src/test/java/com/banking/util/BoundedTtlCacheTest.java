@@ -0,0 +1,84 @@
+package com.banking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedTtlCacheTest {
+
+    private static final Duration TTL = Duration.ofHours(1);
+
+    @Test
+    void staysWithinTheSizeBound() {
+        BoundedTtlCache<Integer, String> cache = new BoundedTtlCache<>(100, TTL);
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, "v" + i);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+        assertThat(cache.size() + cache.evictionCount()).isEqualTo(10_000);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntryOfAFullSegment() {
+        BoundedTtlCache<Integer, String> cache = new BoundedTtlCache<>(1024, TTL);
+        // Multiples of 1024 below 65536 all hash to the first segment, whatever the segment count
+        int first = 0;
+        int key = first;
+        cache.put(key, "first");
+        while (cache.evictionCount() == 0) {
+            assertThat(cache.get(first)).isEqualTo("first");
+            key += 1024;
+            cache.put(key, "v" + key);
+        }
+
+        // Reading the first key kept it recent, so the second one was the eldest
+        assertThat(cache.get(first)).isEqualTo("first");
+        assertThat(cache.get(1024)).isNull();
+        assertThat(cache.get(key)).isEqualTo("v" + key);
+    }
+
+    @Test
+    void dropsExpiredEntriesWhenRead() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(100, TTL);
+        cache.put("expired", "old", Duration.ZERO);
+        cache.put("live", "value");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("expired")).isNull();
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get("live")).isEqualTo("value");
+    }
+
+    @Test
+    void reloadsExpiredEntriesOnComputeIfAbsent() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(100, TTL);
+        cache.put("key", "old", Duration.ZERO);
+
+        assertThat(cache.computeIfAbsent("key", key -> "new")).isEqualTo("new");
+        assertThat(cache.computeIfAbsent("key", key -> "newer")).isEqualTo("new");
+    }
+
+    @Test
+    void computeReturningNullRemovesTheEntry() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(100, TTL);
+        cache.put("key", 1);
+
+        assertThat(cache.compute("key", (key, value) -> value + 1)).isEqualTo(2);
+        assertThat(cache.compute("key", (key, value) -> null)).isNull();
+        assertThat(cache.get("key")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void computeSeesExpiredEntriesAsAbsent() {
+        BoundedTtlCache<String, Integer> cache = new BoundedTtlCache<>(100, TTL);
+        cache.put("key", 1, Duration.ZERO);
+
+        assertThat(cache.compute("key", (key, value) -> value == null ? 10 : value + 1)).isEqualTo(10);
+        assertThat(cache.get("key")).isEqualTo(10);
+    }
+}
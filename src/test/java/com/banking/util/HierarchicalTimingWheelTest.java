@@ -0,0 +1,122 @@
+package com.banking.util;
+
+import com.banking.util.HierarchicalTimingWheel.Timeout;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 10;
+    private static final int WHEEL_SIZE = 4;
+
+    @Test
+    void firesEachItemOnTheFirstAdvancePastItsTickAndNeverEarlier() {
+        Random random = new Random(42);
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, 0);
+        List<Long> dueTimes = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            long due = random.nextInt(20_000);
+            dueTimes.add(due);
+            wheel.schedule(i, due);
+        }
+
+        Set<Integer> fired = new HashSet<>();
+        long now = 0;
+        while (now < 21_000) {
+            now += 1 + random.nextInt(300);
+            for (Timeout<Integer> timeout : wheel.advanceTo(now)) {
+                assertThat(timeout.dueMillis()).isLessThan(now);
+                assertThat(fired.add(timeout.item())).isTrue();
+            }
+            for (int i = 0; i < dueTimes.size(); i++) {
+                assertThat(fired.contains(i)).isEqualTo(tickEnd(dueTimes.get(i)) <= now);
+            }
+        }
+        assertThat(fired).hasSize(dueTimes.size());
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cascadesItemsDownThroughEachLevel() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, 0);
+        // Spans: level 0 covers 40 ms, level 1 160 ms, level 2 640 ms
+        wheel.schedule("level-1", 155);
+        wheel.schedule("level-2", 515);
+
+        assertThat(wheel.advanceTo(159)).isEmpty();
+        assertThat(items(wheel.advanceTo(160))).containsExactly("level-1");
+        assertThat(wheel.advanceTo(519)).isEmpty();
+        assertThat(items(wheel.advanceTo(520))).containsExactly("level-2");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void returnsItemsEarliestTickFirst() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, 0);
+        wheel.schedule("third", 300);
+        wheel.schedule("first", 5);
+        wheel.schedule("second", 45);
+
+        assertThat(items(wheel.advanceTo(1000))).containsExactly("first", "second", "third");
+    }
+
+    @Test
+    void firesAPastDueTimeOnTheNextTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, 1000);
+        wheel.schedule("overdue", 500);
+
+        assertThat(wheel.advanceTo(1009)).isEmpty();
+        assertThat(items(wheel.advanceTo(1010))).containsExactly("overdue");
+    }
+
+    @Test
+    void cancelRemovesAPendingItem() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, 0);
+        Timeout<String> cancelled = wheel.schedule("cancelled", 100);
+        wheel.schedule("kept", 100);
+
+        assertThat(cancelled.cancel()).isTrue();
+        assertThat(cancelled.cancel()).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(items(wheel.advanceTo(200))).containsExactly("kept");
+    }
+
+    @Test
+    void cancelAfterFiringReturnsFalse() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, WHEEL_SIZE, 0);
+        Timeout<String> timeout = wheel.schedule("fired", 25);
+        wheel.schedule("later", 500);
+
+        assertThat(wheel.advanceTo(30)).containsExactly(timeout);
+        assertThat(timeout.cancel()).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void addsLevelsForItemsBeyondTheTopLevel() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 2, 0);
+        // One level spans 2 ms; this needs twenty
+        long due = 1_000_000;
+        wheel.schedule("far", due);
+        wheel.schedule("near", 3);
+
+        assertThat(items(wheel.advanceTo(4))).containsExactly("near");
+        assertThat(wheel.advanceTo(due)).isEmpty();
+        assertThat(items(wheel.advanceTo(due + 1))).containsExactly("far");
+    }
+
+    private static long tickEnd(long due) {
+        return due - Math.floorMod(due, TICK) + TICK;
+    }
+
+    private static <T> List<T> items(List<Timeout<T>> timeouts) {
+        return timeouts.stream().map(Timeout::item).toList();
+    }
+}
@@ -0,0 +1,71 @@
+package com.banking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyedRateLimiterTest {
+
+    private static final int MAXIMUM_KEYS = 100_000;
+
+    @Test
+    void memoryStaysFlatAcrossMillionsOfRecipients() {
+        KeyedRateLimiter<String> limiter = new KeyedRateLimiter<>(100, Duration.ofHours(1), MAXIMUM_KEYS);
+
+        acquireForRecipients(limiter, 0, 1_000_000);
+        long heapAfterOneMillion = usedHeapAfterGc();
+
+        acquireForRecipients(limiter, 1_000_000, 5_000_000);
+        long heapAfterFiveMillion = usedHeapAfterGc();
+
+        assertThat(limiter.size()).isLessThanOrEqualTo(MAXIMUM_KEYS);
+        assertThat(limiter.evictionCount()).isGreaterThanOrEqualTo(5_000_000L - MAXIMUM_KEYS);
+        // Four times as many recipients again; an unbounded map would grow by hundreds of megabytes
+        assertThat(heapAfterFiveMillion - heapAfterOneMillion).isLessThan(32L * 1024 * 1024);
+    }
+
+    @Test
+    void evictedRecipientStartsOverWithFullAllowance() {
+        KeyedRateLimiter<String> limiter = new KeyedRateLimiter<>(2, Duration.ofHours(1), 1);
+
+        assertThat(limiter.tryAcquire("a@example.com")).isTrue();
+        assertThat(limiter.tryAcquire("a@example.com")).isTrue();
+        assertThat(limiter.tryAcquire("a@example.com")).isFalse();
+
+        assertThat(limiter.tryAcquire("b@example.com")).isTrue();
+        assertThat(limiter.tryAcquire("a@example.com")).isTrue();
+        assertThat(limiter.rejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void releasedPermitCanBeTakenAgain() {
+        KeyedRateLimiter<String> limiter = new KeyedRateLimiter<>(2, Duration.ofHours(1), 10);
+
+        assertThat(limiter.tryAcquire("a@example.com")).isTrue();
+        assertThat(limiter.tryAcquire("a@example.com")).isTrue();
+        limiter.release("a@example.com");
+
+        assertThat(limiter.tryAcquire("a@example.com")).isTrue();
+        assertThat(limiter.tryAcquire("a@example.com")).isFalse();
+    }
+
+    private static void acquireForRecipients(KeyedRateLimiter<String> limiter, int from, int to) {
+        int acquired = 0;
+        for (int i = from; i < to; i++) {
+            if (limiter.tryAcquire("customer" + i + "@bank.example.com")) {
+                acquired++;
+            }
+        }
+        assertThat(acquired).isEqualTo(to - from);
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}